@@ -18,6 +18,8 @@
 FILE=target/synthetic-data-generator-*-jar-with-dependencies.jar
 
 if [ -f $FILE ]; then
+  # Java 9+ reads JDK_JAVA_OPTIONS, opening java.nio to Arrow's off heap buffers, and Java 8 ignores it
+  export JDK_JAVA_OPTIONS="--add-opens=java.base/java.nio=ALL-UNNAMED $JDK_JAVA_OPTIONS"
   # Run the generator
   java -cp $FILE uk.gov.gchq.syntheticdatagenerator.CreateData $@
 else
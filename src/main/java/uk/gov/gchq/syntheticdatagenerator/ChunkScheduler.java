@@ -0,0 +1,299 @@
+/*
+ * Copyright 2018-2021 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.syntheticdatagenerator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.gov.gchq.syntheticdatagenerator.serialise.RecordWriter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntPredicate;
+import java.util.function.LongFunction;
+
+/**
+ * @class Chunk Scheduler
+ * @brief This class generates a dataset as fixed size chunks of records pulled by a work-stealing pool
+ * @details every file owns a contiguous range of the record indices, which is cut into chunks. The chunks are
+ * submitted in file order to a FIFO {@link ForkJoinPool}, so every thread keeps pulling chunks until the last one and
+ * the chunks waiting for an earlier chunk of their file stay few. The records of a chunk are routed to the writer of
+ * their file as soon as every earlier chunk of that file has been written, by one thread at a time while the other
+ * threads go on generating. The chunks submitted but not yet written are bounded, so a slow chunk holds back the
+ * submission of the next ones instead of the memory filling up with the chunks waiting behind it.
+ */
+public final class ChunkScheduler {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ChunkScheduler.class);
+    // When a large number of chunks are requested, print the progress as feedback that the process has not frozen
+    private static final long PRINT_EVERY = 100L;
+    // Number of chunks per thread that can be submitted but not yet written, by default
+    private static final int DEFAULT_PENDING_CHUNKS_PER_THREAD = 4;
+
+    private final int numberOfThreads;
+    private final long chunkSize;
+    private final int maxPendingChunks;
+
+    /**
+     * @brief Opens the writer of a file
+     * @param <T> type of the records
+     */
+    @FunctionalInterface
+    public interface WriterFactory<T> {
+        /**
+         * @brief This method opens the writer of a file
+         * @param file index of the file
+         * @return the writer of the file
+         * @throws IOException found problems opening the file
+         */
+        RecordWriter<T> open(int file) throws IOException;
+    }
+
+    /**
+     * @brief This method creates a scheduler
+     * @param numberOfThreads number of threads generating the chunks
+     * @param chunkSize maximum number of records in a chunk
+     */
+    public ChunkScheduler(final int numberOfThreads, final long chunkSize) {
+        this(numberOfThreads, chunkSize, numberOfThreads * DEFAULT_PENDING_CHUNKS_PER_THREAD);
+    }
+
+    /**
+     * @brief This method creates a scheduler holding a bounded number of chunks in memory
+     * @param numberOfThreads number of threads generating the chunks
+     * @param chunkSize maximum number of records in a chunk
+     * @param maxPendingChunks maximum number of chunks submitted but not yet written
+     */
+    public ChunkScheduler(final int numberOfThreads, final long chunkSize, final int maxPendingChunks) {
+        if (numberOfThreads < 1 || chunkSize < 1 || maxPendingChunks < 1) {
+            throw new IllegalArgumentException("The number of threads, the chunk size and the number of pending chunks must be at least 1");
+        }
+        this.numberOfThreads = numberOfThreads;
+        this.chunkSize = chunkSize;
+        this.maxPendingChunks = maxPendingChunks;
+    }
+
+    /**
+     * @brief This method generates every file of a dataset
+     * @param firstIndices the first index of every file, followed by the total number of records
+     * @param generator function generating the record at an index, called concurrently
+     * @param writers factory opening the writer of a file
+     * @param <T> type of the records
+     * @return if every file was successfully written or not
+     */
+    public <T> boolean run(final long[] firstIndices, final LongFunction<T> generator, final WriterFactory<T> writers) {
+        return run(firstIndices, generator, writers, file -> true);
+    }
+
+    /**
+     * @brief This method generates the files of a dataset that are still pending, such as those not completed by an
+     * interrupted run
+     * @param firstIndices the first index of every file, followed by the total number of records
+     * @param generator function generating the record at an index, called concurrently
+     * @param writers factory opening the writer of a file
+     * @param pending tells whether a file must be generated, the others are neither generated nor opened
+     * @param <T> type of the records
+     * @return if every pending file was successfully written or not
+     */
+    public <T> boolean run(final long[] firstIndices, final LongFunction<T> generator, final WriterFactory<T> writers,
+                           final IntPredicate pending) {
+        int numberOfFiles = firstIndices.length - 1;
+        List<FileSink<T>> sinks = new ArrayList<>(numberOfFiles);
+        ForkJoinPool pool = new ForkJoinPool(numberOfThreads, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+        AtomicLong completed = new AtomicLong(0);
+        // A permit per chunk submitted but not yet written, so every permit is back once every chunk is written. A
+        // failed chunk releases every permit, as the chunks after it in its file are never written, and stops the
+        // submission
+        Semaphore permits = new Semaphore(maxPendingChunks);
+        AtomicBoolean failed = new AtomicBoolean(false);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        long numberOfChunks = 0;
+        for (int file = 0; file < numberOfFiles; file++) {
+            if (pending.test(file)) {
+                numberOfChunks += (firstIndices[file + 1] - firstIndices[file] + chunkSize - 1) / chunkSize;
+            }
+        }
+        final long totalChunks = numberOfChunks;
+        boolean success = true;
+        try {
+            for (int file = 0; file < numberOfFiles && !failed.get(); file++) {
+                if (!pending.test(file)) {
+                    continue;
+                }
+                FileSink<T> sink = new FileSink<>(file, writers, permits);
+                sinks.add(sink);
+                int sequence = 0;
+                for (long start = firstIndices[file]; start < firstIndices[file + 1] && !failed.get(); start += chunkSize) {
+                    final long chunkStart = start;
+                    final long chunkEnd = Math.min(firstIndices[file + 1], start + chunkSize);
+                    final int chunkSequence = sequence++;
+                    permits.acquire();
+                    // The tasks are not kept, a run of millions of chunks only counts them
+                    pool.execute(() -> {
+                        if (failed.get()) {
+                            return;
+                        }
+                        try {
+                            List<T> records = new ArrayList<>((int) (chunkEnd - chunkStart));
+                            for (long index = chunkStart; index < chunkEnd; index++) {
+                                records.add(generator.apply(index));
+                            }
+                            sink.complete(chunkSequence, records);
+                        } catch (RuntimeException | Error e) {
+                            failure.compareAndSet(null, e);
+                            failed.set(true);
+                            permits.release(maxPendingChunks);
+                            return;
+                        }
+                        long done = completed.incrementAndGet();
+                        if (done % PRINT_EVERY == 0) {
+                            LOGGER.info("Processed {} of {} chunks", done, totalChunks);
+                        }
+                    });
+                }
+            }
+            // Every permit is back once the last chunk is written, or once a chunk failed
+            permits.acquire(maxPendingChunks);
+            if (failed.get()) {
+                LOGGER.error("Failed to generate a chunk", failure.get());
+                success = false;
+            }
+        } catch (InterruptedException e) {
+            LOGGER.error("Interrupted while generating the chunks");
+            Thread.currentThread().interrupt();
+            success = false;
+        } finally {
+            // The chunks still running write to the sinks, which are only closed once they are all done
+            pool.shutdownNow();
+            awaitTermination(pool);
+            for (FileSink<T> sink : sinks) {
+                success &= sink.close();
+            }
+        }
+        return success;
+    }
+
+    /**
+     * @brief This method waits for the chunks still running, even when interrupted, as their writers are closed next
+     * @param pool the stopped pool
+     */
+    private static void awaitTermination(final ForkJoinPool pool) {
+        boolean interrupted = false;
+        while (!pool.isTerminated()) {
+            try {
+                if (!pool.awaitTermination(1, TimeUnit.MINUTES)) {
+                    LOGGER.info("Waiting for the chunks still running");
+                }
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @brief This class writes the chunks of one file in order
+     * @param <T> type of the records
+     */
+    private static final class FileSink<T> {
+        private final int file;
+        private final WriterFactory<T> writers;
+        private final Semaphore permits;
+        // The chunks waiting for an earlier chunk, guarded by the sink
+        private final Map<Integer, List<T>> pending = new HashMap<>();
+        private RecordWriter<T> writer;
+        private int nextSequence;
+        // Whether a thread is writing the chunks in order, guarded by the sink
+        private boolean writing;
+
+        private FileSink(final int file, final WriterFactory<T> writers, final Semaphore permits) {
+            this.file = file;
+            this.writers = writers;
+            this.permits = permits;
+        }
+
+        /**
+         * @brief This method writes a chunk, or keeps it until the chunks before it have been written
+         * @details the lock is only held to hand over the chunks. The thread finding no other thread writing writes
+         * every chunk that is next in order, outside the lock, while the threads completing later chunks only leave
+         * them and go back to generating
+         * @param sequence position of the chunk in the file
+         * @param records records of the chunk
+         */
+        private void complete(final int sequence, final List<T> records) {
+            synchronized (this) {
+                pending.put(sequence, records);
+                if (writing) {
+                    return;
+                }
+                writing = true;
+            }
+            try {
+                while (true) {
+                    List<T> next;
+                    synchronized (this) {
+                        next = pending.remove(nextSequence);
+                        if (next == null) {
+                            writing = false;
+                            return;
+                        }
+                    }
+                    if (writer == null) {
+                        writer = writers.open(file);
+                    }
+                    for (T record : next) {
+                        writer.write(record);
+                    }
+                    synchronized (this) {
+                        nextSequence++;
+                    }
+                    permits.release();
+                }
+            } catch (IOException e) {
+                // The sink stays marked as writing, so no later chunk is written after the failed one
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * @brief This method closes the file, creating it if it has no records
+         * @return if the file was successfully written or not
+         */
+        private synchronized boolean close() {
+            try {
+                if (writer == null) {
+                    writer = writers.open(file);
+                }
+                writer.close();
+                return pending.isEmpty();
+            } catch (IOException e) {
+                LOGGER.error("IOException when closing file {}", file, e);
+                return false;
+            }
+        }
+    }
+}
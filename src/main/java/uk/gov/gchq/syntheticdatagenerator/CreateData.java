@@ -16,15 +16,40 @@
 
 package uk.gov.gchq.syntheticdatagenerator;
 
+import org.apache.avro.file.CodecFactory;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import uk.gov.gchq.syntheticdatagenerator.random.RandomSource;
+import uk.gov.gchq.syntheticdatagenerator.random.RecordRandom;
+import uk.gov.gchq.syntheticdatagenerator.serialise.ArrowSerialiser;
+import uk.gov.gchq.syntheticdatagenerator.serialise.AvroSerialiser;
+import uk.gov.gchq.syntheticdatagenerator.serialise.CsvSerialiser;
+import uk.gov.gchq.syntheticdatagenerator.serialise.JsonLinesSerialiser;
+import uk.gov.gchq.syntheticdatagenerator.serialise.ParquetSerialiser;
+import uk.gov.gchq.syntheticdatagenerator.serialise.PartitionedWriter;
+import uk.gov.gchq.syntheticdatagenerator.serialise.RecordWriter;
+import uk.gov.gchq.syntheticdatagenerator.serialise.Serialiser;
+import uk.gov.gchq.syntheticdatagenerator.serialise.TeeWriter;
+import uk.gov.gchq.syntheticdatagenerator.types.Employee;
+import uk.gov.gchq.syntheticdatagenerator.types.OrgChart;
+import uk.gov.gchq.syntheticdatagenerator.types.Teacher;
 
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadFactory;
 
 /**
@@ -42,18 +67,64 @@ public final class CreateData {
     private static final int NUM_THREADS_ARG = 3;
     private static final int IS_CSV_OUT = 4;
     private static final int OCUPATION = 5;
+    // Output formats, named after the extension of their files
+    private static final String AVRO_FORMAT = "avro";
+    private static final String CSV_FORMAT = "csv";
+    private static final String PARQUET_FORMAT = "parquet";
+    private static final String ARROW_FORMAT = "arrow";
+    private static final String JSON_LINES_FORMAT = "jsonl";
+    private static final String GZIP_EXTENSION = ".gz";
+    // Named options, given as --name=value after the positional arguments
+    private static final String OPTION_PREFIX = "--";
+    private static final String RANDOM_OPTION = "random";
+    private static final String SEED_OPTION = "seed";
+    private static final String PIPELINE_OPTION = "pipeline";
+    private static final String BATCH_SIZE_OPTION = "batch-size";
+    private static final String QUEUE_DEPTH_OPTION = "queue-depth";
+    private static final int DEFAULT_BATCH_SIZE = 1_000;
+    private static final int QUEUE_DEPTH_PER_THREAD = 2;
+    private static final String CHUNK_SIZE_OPTION = "chunk-size";
+    private static final String VIRTUAL_THREADS_OPTION = "virtual-threads";
+    private static final String MAX_GENERATING_OPTION = "max-generating";
+    private static final String ORG_CHART_OPTION = "org-chart";
+    private static final String PARALLEL_ENCODING_OPTION = "parallel-encoding";
+    private static final String BLOCK_SIZE_OPTION = "block-size";
+    private static final String CODEC_OPTION = "codec";
+    private static final String SYNC_INTERVAL_OPTION = "sync-interval";
+    private static final String BUFFER_SIZE_OPTION = "buffer-size";
+    private static final String CSV_NESTING_OPTION = "csv-nesting";
+    private static final String ROW_GROUP_SIZE_OPTION = "row-group-size";
+    private static final String PAGE_SIZE_OPTION = "page-size";
+    private static final String RECORD_BATCH_SIZE_OPTION = "record-batch-size";
+    private static final String TEE_OPTION = "tee";
+    private static final String PARTITION_BY_OPTION = "partition-by";
+    private static final String MAX_OPEN_FILES_OPTION = "max-open-files";
+    private static final String ROLL_RECORDS_OPTION = "roll-records";
+    private static final String ROLL_BYTES_OPTION = "roll-bytes";
+    private static final String TARGET_SIZE_OPTION = "target-size";
+    private static final String FILE_SIZE_OPTION = "file-size";
+    private static final String SAMPLE_SIZE_OPTION = "sample-size";
+    private static final String DRY_RUN_OPTION = "dry-run";
+    private static final String RESUME_OPTION = "resume";
+    private static final List<String> FORMATS = Arrays.asList(AVRO_FORMAT, CSV_FORMAT, PARQUET_FORMAT, ARROW_FORMAT, JSON_LINES_FORMAT);
+    private static final long DEFAULT_SEED = 0L;
+    private static final RandomSource DEFAULT_RANDOM_SOURCE = RandomSource.XOSHIRO;
 
     private CreateData() {
     }
 
     /**
      * @brief This method is able to generate new data based on the number of arguments as input
-     * @param args arguments given as input
+     * @param arguments arguments given as input
      */
-    public static void main(final String... args) {
+    public static void main(final String... arguments) {
+        final String[] args = positionalArgs(arguments);
+        final Map<String, String> options = parseOptions(arguments);
         if (args.length < MINIMUM_ARGS) {
             LOGGER.warn("This method needs at least three arguments. The directory path to save the files in, the number of employee's to generate and the number of files to split those employees between. An optional 4th argument is the number of threads to use which will default to 1.");
+            LOGGER.warn("Named options may be given as --name=value, for example --random=secure to use the original SecureRandom generator or --seed=42 to generate the same dataset whatever the number of files and threads.");
         } else {
+            RandomSource randomSource = RandomSource.fromName(options.getOrDefault(RANDOM_OPTION, DEFAULT_RANDOM_SOURCE.name()));
             String outputFilePath = args[OUT_PATH_ARG];
             // Required minimal arguments
             long numberOfEmployees = Long.parseLong(args[NUM_EMPLOYEES_ARG]);
@@ -67,33 +138,783 @@ public final class CreateData {
                 //1 para ejecucion sin csv y 0 para ejecucion modo csv
                 job = args[OCUPATION];
             }
+            String format = outputFormat(args[IS_CSV_OUT]);
+            OrgChart orgChart = createOrgChart(options);
+            // Sized datasets derive the number of people and of files from the estimated size of a person
+            if (options.containsKey(TARGET_SIZE_OPTION) || options.containsKey(FILE_SIZE_OPTION) || options.containsKey(DRY_RUN_OPTION)) {
+                SizeEstimator.Estimate estimate;
+                try {
+                    estimate = estimate(options, format, orgChart, job);
+                } catch (IOException e) {
+                    LOGGER.error("Failed to estimate the size of the people", e);
+                    return;
+                }
+                if (options.containsKey(TARGET_SIZE_OPTION)) {
+                    numberOfEmployees = estimate.records(SizeEstimator.parseBytes(options.get(TARGET_SIZE_OPTION)));
+                }
+                if (options.containsKey(FILE_SIZE_OPTION)) {
+                    double files = Math.ceil(estimate.bytes(numberOfEmployees) / SizeEstimator.parseBytes(options.get(FILE_SIZE_OPTION)));
+                    numberOfFiles = (int) Math.max(1, Math.min(Integer.MAX_VALUE, files));
+                }
+                if (options.containsKey(DRY_RUN_OPTION)) {
+                    logPrediction(estimate, options, numberOfEmployees, numberOfFiles, numberOfThreads);
+                    return;
+                }
+            }
             long startTime = System.currentTimeMillis();
-            ExecutorService executors = Executors.newFixedThreadPool(numberOfThreads, createDaemonThreadFactory());
-            CreateDataFile[] tasks = new CreateDataFile[numberOfFiles];
-            long employeesPerFile = numberOfEmployees / numberOfFiles;
-        
+            // The files split the indices of the people without dropping the remainder
+            long[] firstIndices = partition(numberOfEmployees, numberOfFiles);
+            File[] outputFiles = new File[numberOfFiles];
+            // Compressed JSON Lines files are named as gzip files
+            String extension = "." + format + (JSON_LINES_FORMAT.equals(format) && jsonLinesGzip(options) ? GZIP_EXTENSION : "");
+            // With --tee every file is also written in other formats, from the same people
+            List<String> teeFormats = teeFormats(options, format);
+            if (!teeFormats.isEmpty() && options.containsKey(PARTITION_BY_OPTION)) {
+                throw new IllegalArgumentException("--tee and --partition-by cannot be combined");
+            }
+            if (options.containsKey(RESUME_OPTION) && options.containsKey(PARTITION_BY_OPTION)) {
+                throw new IllegalArgumentException("--resume and --partition-by cannot be combined");
+            }
+            if (options.containsKey(PARTITION_BY_OPTION)) {
+                warnOfEvictions(options, peopleClass(job));
+            }
+            File[][] teeFiles = new File[numberOfFiles][teeFormats.size()];
             for (int i = 0; i < numberOfFiles; i++) {
-                if(args[IS_CSV_OUT].equals("1")){
-                    tasks[i] = new CreateDataFile(employeesPerFile, i, new File(outputFilePath + "/worker_" + job + i + ".csv"), job);
+                outputFiles[i] = new File(outputFilePath + "/worker_" + job + i + extension);
+                for (int j = 0; j < teeFormats.size(); j++) {
+                    teeFiles[i][j] = new File(outputFilePath + "/worker_" + job + i + "." + teeFormats.get(j));
+                }
+            }
+            // With --resume the files are committed once complete, and those completed by a previous run are skipped
+            ProgressManifest manifest = null;
+            if (options.containsKey(RESUME_OPTION)) {
+                File directory = new File(outputFilePath);
+                if (!directory.isDirectory() && !directory.mkdirs()) {
+                    LOGGER.warn("Failed to create directory {}", directory);
                 }
-                else{
-                    tasks[i] = new CreateDataFile(employeesPerFile, i, new File(outputFilePath + "/worker_" + job + i + ".avro" ), job);
+                try {
+                    manifest = new ProgressManifest(directory, parameters(args, options));
+                } catch (IOException | IllegalStateException e) {
+                    LOGGER.error("Cannot resume the dataset", e);
+                    return;
                 }
+                LOGGER.info("Resuming with {} of {} files already complete", manifest.getCompleted(), numberOfFiles);
             }
-            try {
-                List<Future<Boolean>> responses = executors.invokeAll(Arrays.asList(tasks));
-                for (Future<Boolean> response : responses) {
-                    response.get();
+            if (options.containsKey(CHUNK_SIZE_OPTION)) {
+                // Chunks are always counter based, as they are generated in any order
+                long seed = Long.parseLong(options.getOrDefault(SEED_OPTION, String.valueOf(DEFAULT_SEED)));
+                ChunkScheduler scheduler = new ChunkScheduler(numberOfThreads, Long.parseLong(options.get(CHUNK_SIZE_OPTION)));
+                if (!createChunks(scheduler, options, seed, orgChart, firstIndices, outputFiles, job, format, teeFormats, teeFiles, manifest)) {
+                    LOGGER.error("Failed to create every file");
                 }
-            } catch (final Exception e) {
-                LOGGER.error(e.getLocalizedMessage());
-                Thread.currentThread().interrupt();
+            } else {
+                createFiles(numberOfThreads, options, randomSource, orgChart, firstIndices, outputFiles, job, format, teeFiles, manifest);
             }
             long endTime = System.currentTimeMillis();
             LOGGER.info("Took {}ms to create {} employees", (endTime - startTime), numberOfEmployees);
         }
     }
 
+    /**
+     * @brief This method describes the parameters that decide the people of every file, recorded by the manifest of
+     * a resumable run
+     * @details the number of threads and the resume option are left out, so a run can be resumed on another number
+     * of threads
+     * @param args positional arguments
+     * @param options named options
+     * @return the parameters
+     */
+    static String parameters(final String[] args, final Map<String, String> options) {
+        List<String> parameters = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (i != NUM_THREADS_ARG || args.length <= MINIMUM_ARGS) {
+                parameters.add(args[i]);
+            }
+        }
+        for (Map.Entry<String, String> option : new TreeMap<>(options).entrySet()) {
+            if (!RESUME_OPTION.equals(option.getKey())) {
+                parameters.add(OPTION_PREFIX + option.getKey() + "=" + option.getValue());
+            }
+        }
+        return String.join(" ", parameters);
+    }
+
+    /**
+     * @brief This method estimates the encoded size of a person in the output format from a sample of people
+     * @details the sample is generated from the dataset seed, with the codec of the files, and the size of a person
+     * is logged
+     * @param options named options
+     * @param format output format of the files
+     * @param orgChart hierarchy of managers shared by the people, or null for a tree of managers per person
+     * @param job type of person that is going to be created
+     * @return the estimate
+     * @throws IOException found problems serialising the sample
+     */
+    private static SizeEstimator.Estimate estimate(final Map<String, String> options, final String format, final OrgChart orgChart,
+                                                   final String job) throws IOException {
+        long seed = Long.parseLong(options.getOrDefault(SEED_OPTION, String.valueOf(DEFAULT_SEED)));
+        int sampleSize = Integer.parseInt(options.getOrDefault(SAMPLE_SIZE_OPTION, String.valueOf(SizeEstimator.DEFAULT_SAMPLE_SIZE)));
+        SizeEstimator estimator = new SizeEstimator(sampleSize);
+        SizeEstimator.Estimate estimate;
+        if ("T".equalsIgnoreCase(job)) {
+            estimate = estimator.estimate(index -> CreateDataFile.teacherAt(seed, index, orgChart), createSerialiser(Teacher.class, options, format));
+        } else {
+            estimate = estimator.estimate(index -> CreateDataFile.employeeAt(seed, index, orgChart), createSerialiser(Employee.class, options, format));
+        }
+        LOGGER.info("Estimated {} per person as {} from {} people, generated at {} people per second on one thread",
+                SizeEstimator.formatBytes(estimate.getBytesPerRecord()), format, sampleSize, Math.round(estimate.getRecordsPerSecond()));
+        return estimate;
+    }
+
+    /**
+     * @brief This method logs the predicted size and time of a dataset, for --dry-run
+     * @details the threads are assumed to scale linearly up to the number of processors, and, unless the people of
+     * every file are generated on all the threads, up to the number of files
+     * @param estimate estimated size and rate of a person
+     * @param options named options
+     * @param numberOfPeople number of people of the dataset
+     * @param numberOfFiles number of files of the dataset
+     * @param numberOfThreads number of threads
+     */
+    private static void logPrediction(final SizeEstimator.Estimate estimate, final Map<String, String> options, final long numberOfPeople,
+                                      final int numberOfFiles, final int numberOfThreads) {
+        int threads = Math.min(numberOfThreads, Runtime.getRuntime().availableProcessors());
+        if (!options.containsKey(PIPELINE_OPTION) && !options.containsKey(CHUNK_SIZE_OPTION)) {
+            threads = Math.min(threads, numberOfFiles);
+        }
+        double bytes = estimate.bytes(numberOfPeople);
+        LOGGER.info("Predicted {} people in {} files of about {}, {} in total", numberOfPeople, numberOfFiles,
+                SizeEstimator.formatBytes(bytes / numberOfFiles), SizeEstimator.formatBytes(bytes));
+        LOGGER.info("Predicted about {} seconds on {} threads, {} of them busy", Math.round(estimate.seconds(numberOfPeople, threads)),
+                numberOfThreads, threads);
+    }
+
+    /**
+     * @brief This method obtains the output format from the OUTPUT argument
+     * @param output 0 for Avro, 1 for CSV, 2 for Parquet, 3 for Arrow or 4 for JSON Lines
+     * @return the output format, which is also the extension of the files
+     */
+    private static String outputFormat(final String output) {
+        switch (output) {
+            case "1":
+                return CSV_FORMAT;
+            case "2":
+                return PARQUET_FORMAT;
+            case "3":
+                return ARROW_FORMAT;
+            case "4":
+                return JSON_LINES_FORMAT;
+            default:
+                return AVRO_FORMAT;
+        }
+    }
+
+    /**
+     * @brief This method obtains the other formats every file is also written in, given with --tee as a comma
+     * separated list such as --tee=csv,jsonl
+     * @details the codec and layout options only apply to the format of the OUTPUT argument, the other formats are
+     * written with their defaults
+     * @param options named options
+     * @param format output format of the files
+     * @return the other formats, without the output format nor duplicates
+     */
+    private static List<String> teeFormats(final Map<String, String> options, final String format) {
+        List<String> formats = new ArrayList<>();
+        String names = options.get(TEE_OPTION);
+        if (names == null) {
+            return formats;
+        }
+        for (String name : names.split(",")) {
+            String teeFormat = name.trim().toLowerCase(Locale.ROOT);
+            if (!FORMATS.contains(teeFormat)) {
+                throw new IllegalArgumentException("Unknown format " + name + ", expected one of " + FORMATS);
+            }
+            if (!teeFormat.equals(format) && !formats.contains(teeFormat)) {
+                formats.add(teeFormat);
+            }
+        }
+        return formats;
+    }
+
+    /**
+     * @brief This method generates the hierarchy of managers shared by the people when --org-chart is given
+     * @details a bare --org-chart uses the default size, the hierarchy is seeded from the position before the first
+     * person of the dataset so it does not depend on the number of files and threads
+     * @param options named options
+     * @return the hierarchy, or null to generate a tree of managers per person
+     */
+    private static OrgChart createOrgChart(final Map<String, String> options) {
+        String size = options.get(ORG_CHART_OPTION);
+        if (size == null) {
+            return null;
+        }
+        long seed = Long.parseLong(options.getOrDefault(SEED_OPTION, String.valueOf(DEFAULT_SEED)));
+        return OrgChart.generate(RecordRandom.recordSeed(seed, -1),
+                Boolean.TRUE.toString().equals(size) ? OrgChart.DEFAULT_SIZE : Integer.parseInt(size));
+    }
+
+    /**
+     * @brief This method creates every file with its own task
+     * @param numberOfThreads number of threads writing the files
+     * @param options named options
+     * @param randomSource random number generator used by the files that are not counter based
+     * @param orgChart hierarchy of managers shared by the people, or null for a tree of managers per person
+     * @param firstIndices the first index of every file, followed by the total number of people
+     * @param outputFiles output files
+     * @param job type of person that is going to be created
+     * @param format output format of the files
+     * @param teeFiles the files every output file is also written to, in other formats
+     * @param manifest manifest of the completed files, or null to write the files directly
+     */
+    private static void createFiles(final int numberOfThreads, final Map<String, String> options, final RandomSource randomSource,
+                                    final OrgChart orgChart, final long[] firstIndices, final File[] outputFiles, final String job,
+                                    final String format, final File[][] teeFiles, final ProgressManifest manifest) {
+        ExecutorService executors;
+        // With virtual threads every file waits on its output on its own thread, while the permits bound the
+        // number of files generating people at the same time. The pipeline generates the people of every file on
+        // its own threads instead, so their number is bounded in place of the permits
+        Semaphore generationPermits = null;
+        int generatingThreads = numberOfThreads;
+        if (options.containsKey(VIRTUAL_THREADS_OPTION)) {
+            if (VirtualThreads.isSupported()) {
+                int maxGenerating = Integer.parseInt(options.getOrDefault(MAX_GENERATING_OPTION, String.valueOf(Runtime.getRuntime().availableProcessors())));
+                if (options.containsKey(PIPELINE_OPTION)) {
+                    generatingThreads = maxGenerating;
+                } else {
+                    generationPermits = new Semaphore(maxGenerating);
+                }
+            } else {
+                LOGGER.warn("Virtual threads need Java 21 or later, using a pool of {} threads instead", numberOfThreads);
+            }
+            executors = VirtualThreads.newExecutor(numberOfThreads, createDaemonThreadFactory());
+        } else {
+            executors = Executors.newFixedThreadPool(numberOfThreads, createDaemonThreadFactory());
+        }
+        // With the pipeline every file is written by its own task while all the threads generate its people
+        GenerationPipeline pipeline = null;
+        ExecutorService generators = null;
+        if (options.containsKey(PIPELINE_OPTION)) {
+            generators = Executors.newFixedThreadPool(generatingThreads, createDaemonThreadFactory());
+            int batchSize = Integer.parseInt(options.getOrDefault(BATCH_SIZE_OPTION, String.valueOf(DEFAULT_BATCH_SIZE)));
+            int queueDepth = Integer.parseInt(options.getOrDefault(QUEUE_DEPTH_OPTION, String.valueOf(QUEUE_DEPTH_PER_THREAD * generatingThreads)));
+            pipeline = new GenerationPipeline(generators, batchSize, queueDepth);
+        }
+        // With parallel encoding every file is written by its own task while all the threads encode its Avro blocks,
+        // or the gzip members of its JSON Lines
+        ExecutorService encoders = null;
+        if (options.containsKey(PARALLEL_ENCODING_OPTION)) {
+            encoders = Executors.newFixedThreadPool(numberOfThreads, createDaemonThreadFactory());
+        }
+        int blockSize = Integer.parseInt(options.getOrDefault(BLOCK_SIZE_OPTION, String.valueOf(DEFAULT_BATCH_SIZE)));
+        // The codec names of Avro and Parquet differ, so --codec is only read for the format of the files
+        CodecFactory codec = AVRO_FORMAT.equals(format) ? codec(options) : null;
+        CompressionCodecName parquetCodec = PARQUET_FORMAT.equals(format) ? parquetCodec(options) : null;
+        int rowGroupSize = Integer.parseInt(options.getOrDefault(ROW_GROUP_SIZE_OPTION, "0"));
+        int pageSize = Integer.parseInt(options.getOrDefault(PAGE_SIZE_OPTION, "0"));
+        int recordBatchSize = Integer.parseInt(options.getOrDefault(RECORD_BATCH_SIZE_OPTION, "0"));
+        int syncInterval = Integer.parseInt(options.getOrDefault(SYNC_INTERVAL_OPTION, "0"));
+        int bufferSize = Integer.parseInt(options.getOrDefault(BUFFER_SIZE_OPTION, "0"));
+        CsvSerialiser.Nesting csvNesting = csvNesting(options);
+        // With a dataset seed the files split the indices of one global sequence of people
+        boolean indexed = options.containsKey(SEED_OPTION);
+        CreateDataFile[] tasks = new CreateDataFile[outputFiles.length];
+        for (int i = 0; i < outputFiles.length; i++) {
+            tasks[i] = new CreateDataFile(firstIndices[i + 1] - firstIndices[i], i, outputFiles[i], job, randomSource)
+                    .encoding(codec, syncInterval, bufferSize)
+                    .csvNesting(csvNesting)
+                    .parquetLayout(parquetCodec, rowGroupSize, pageSize)
+                    .arrowBatchSize(recordBatchSize);
+            for (File teeFile : teeFiles[i]) {
+                tasks[i].tee(teeFile);
+            }
+            if (manifest != null) {
+                tasks[i].checkpoint(manifest);
+            }
+            if (options.containsKey(PARTITION_BY_OPTION)) {
+                tasks[i].partitionBy(options.get(PARTITION_BY_OPTION), maxOpenFiles(options, peopleClass(job)),
+                        Long.parseLong(options.getOrDefault(ROLL_RECORDS_OPTION, "0")),
+                        rollBytes(options));
+            }
+            if (indexed) {
+                tasks[i].indexed(Long.parseLong(options.get(SEED_OPTION)), firstIndices[i]);
+            }
+            if (pipeline != null) {
+                tasks[i].pipeline(pipeline);
+            }
+            if (generationPermits != null) {
+                tasks[i].generationPermits(generationPermits);
+            }
+            if (orgChart != null) {
+                tasks[i].orgChart(orgChart);
+            }
+            if (encoders != null) {
+                tasks[i].encodeInParallel(encoders, blockSize, QUEUE_DEPTH_PER_THREAD * numberOfThreads);
+            }
+        }
+        try {
+            List<Future<Boolean>> responses = executors.invokeAll(Arrays.asList(tasks));
+            for (Future<Boolean> response : responses) {
+                response.get();
+            }
+        } catch (final Exception e) {
+            LOGGER.error(e.getLocalizedMessage());
+            Thread.currentThread().interrupt();
+        } finally {
+            executors.shutdown();
+            if (generators != null) {
+                generators.shutdownNow();
+            }
+            if (encoders != null) {
+                encoders.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * @brief This method creates every file from chunks of counter based people
+     * @param scheduler scheduler generating the chunks
+     * @param options named options
+     * @param seed seed of the dataset
+     * @param orgChart hierarchy of managers shared by the people, or null for a tree of managers per person
+     * @param firstIndices the first index of every file, followed by the total number of people
+     * @param outputFiles output files
+     * @param job type of person that is going to be created
+     * @param format output format of the files
+     * @param teeFormats the other formats every file is also written in
+     * @param teeFiles the files every output file is also written to, in the other formats
+     * @param manifest manifest of the completed files, or null to write the files directly
+     * @return if every file was successfully written or not
+     */
+    private static boolean createChunks(final ChunkScheduler scheduler, final Map<String, String> options, final long seed,
+                                        final OrgChart orgChart, final long[] firstIndices, final File[] outputFiles, final String job,
+                                        final String format, final List<String> teeFormats, final File[][] teeFiles,
+                                        final ProgressManifest manifest) {
+        for (File outputFile : outputFiles) {
+            if (!outputFile.getParentFile().exists() && !outputFile.getParentFile().mkdirs()) {
+                LOGGER.warn("Failed to create parent directory {}", outputFile.getParent());
+            }
+        }
+        if (job.equalsIgnoreCase("E")) {
+            List<Serialiser<Employee>> serialisers = createSerialisers(Employee.class, options, format, teeFormats);
+            return scheduler.run(firstIndices, index -> CreateDataFile.employeeAt(seed, index, orgChart),
+                    file -> openFile(Employee.class, serialisers, options, manifest, outputFiles[file], teeFiles[file],
+                            CreateDataFile.syncMarker(seed, firstIndices[file]), firstIndices[file + 1] - firstIndices[file]),
+                    file -> manifest == null || !manifest.isComplete(files(outputFiles[file], teeFiles[file])));
+        } else if (job.equalsIgnoreCase("T")) {
+            List<Serialiser<Teacher>> serialisers = createSerialisers(Teacher.class, options, format, teeFormats);
+            return scheduler.run(firstIndices, index -> CreateDataFile.teacherAt(seed, index, orgChart),
+                    file -> openFile(Teacher.class, serialisers, options, manifest, outputFiles[file], teeFiles[file],
+                            CreateDataFile.syncMarker(seed, firstIndices[file]), firstIndices[file + 1] - firstIndices[file]),
+                    file -> manifest == null || !manifest.isComplete(files(outputFiles[file], teeFiles[file])));
+        }
+        return false;
+    }
+
+    /**
+     * @brief This method opens the writer of a file written from chunks, committed once complete when resumable
+     * @details with a manifest the files are written under their temporary names, and renamed and recorded as complete
+     * when the writer is closed after every person of the file, otherwise they are left under their temporary names
+     * @param type class of the people
+     * @param serialisers serialisers of the output file followed by those of the other files
+     * @param options named options
+     * @param manifest manifest of the completed files, or null to write the files directly
+     * @param outputFile output file
+     * @param teeFiles the files the output file is also written to, in other formats
+     * @param syncMarker sync marker of the files, used by Avro files only
+     * @param numberOfPeople number of people of the file
+     * @param <T> type of the people
+     * @return the writer
+     * @throws IOException found problems creating the files
+     */
+    private static <T> RecordWriter<T> openFile(final Class<T> type, final List<Serialiser<T>> serialisers, final Map<String, String> options,
+                                                final ProgressManifest manifest, final File outputFile, final File[] teeFiles,
+                                                final byte[] syncMarker, final long numberOfPeople) throws IOException {
+        if (manifest == null) {
+            return openWriters(type, serialisers, options, outputFile, teeFiles, syncMarker);
+        }
+        File[] temporaryTeeFiles = new File[teeFiles.length];
+        for (int i = 0; i < teeFiles.length; i++) {
+            temporaryTeeFiles[i] = ProgressManifest.temporary(teeFiles[i]);
+        }
+        RecordWriter<T> writer = openWriters(type, serialisers, options, ProgressManifest.temporary(outputFile), temporaryTeeFiles, syncMarker);
+        return new RecordWriter<T>() {
+            private long written;
+
+            @Override
+            public void write(final T object) throws IOException {
+                writer.write(object);
+                written++;
+            }
+
+            @Override
+            public void close() throws IOException {
+                writer.close();
+                if (written == numberOfPeople) {
+                    manifest.complete(files(outputFile, teeFiles));
+                } else {
+                    LOGGER.warn("Leaving {} incomplete, {} of {} people written", outputFile, written, numberOfPeople);
+                }
+            }
+        };
+    }
+
+    /**
+     * @brief This method returns an output file followed by the files it is also written to
+     * @param outputFile output file
+     * @param teeFiles the other files
+     * @return the files
+     */
+    private static File[] files(final File outputFile, final File[] teeFiles) {
+        File[] files = new File[teeFiles.length + 1];
+        files[0] = outputFile;
+        System.arraycopy(teeFiles, 0, files, 1, teeFiles.length);
+        return files;
+    }
+
+    /**
+     * @brief This method obtains the maximum number of files of partitions open at the same time, given with
+     * --max-open-files
+     * @param options named options
+     * @param type class of the people
+     * @return the maximum number of open files, by default 128 or the number of partitions of an enum field if larger
+     */
+    private static int maxOpenFiles(final Map<String, String> options, final Class<?> type) {
+        if (options.containsKey(MAX_OPEN_FILES_OPTION)) {
+            return Integer.parseInt(options.get(MAX_OPEN_FILES_OPTION));
+        }
+        return Math.max(PartitionedWriter.DEFAULT_MAX_OPEN_WRITERS, PartitionedWriter.partitionCount(type, options.get(PARTITION_BY_OPTION)));
+    }
+
+    /**
+     * @brief This method obtains the number of bytes after which a part of a partition rolls over, given with
+     * --roll-bytes as a size such as 256M
+     * @param options named options
+     * @return the number of bytes of a part, or 0 for no limit
+     */
+    private static long rollBytes(final Map<String, String> options) {
+        if (options.containsKey(ROLL_BYTES_OPTION)) {
+            return SizeEstimator.parseBytes(options.get(ROLL_BYTES_OPTION));
+        }
+        return 0;
+    }
+
+    /**
+     * @brief This method warns when the partitioning field has more values than files can be open, as every file
+     * then keeps being closed and its partition continued in a new part
+     * @param options named options
+     * @param type class of the people
+     */
+    private static void warnOfEvictions(final Map<String, String> options, final Class<?> type) {
+        int partitions = PartitionedWriter.partitionCount(type, options.get(PARTITION_BY_OPTION));
+        int maxOpenFiles = maxOpenFiles(options, type);
+        if (partitions > maxOpenFiles) {
+            LOGGER.warn("--partition-by={} gives up to {} partitions but --max-open-files is {}, so the partitions will be "
+                    + "split into many small parts", options.get(PARTITION_BY_OPTION), partitions, maxOpenFiles);
+        }
+    }
+
+    /**
+     * @brief This method returns the class of the people of a job
+     * @param job the type of people, t for teachers and e for employees
+     * @return the class of the people
+     */
+    private static Class<?> peopleClass(final String job) {
+        return "T".equalsIgnoreCase(job) ? Teacher.class : Employee.class;
+    }
+
+    /**
+     * @brief This method creates the serialisers of the files written from chunks, for the output format followed by
+     * the other formats
+     * @details the codec option only applies to the output format, while the layout options apply to every format
+     * @param type class of the people
+     * @param options named options
+     * @param format output format of the files
+     * @param teeFormats the other formats every file is also written in
+     * @param <T> type of the people
+     * @return the serialisers
+     */
+    private static <T> List<Serialiser<T>> createSerialisers(final Class<T> type, final Map<String, String> options,
+                                                             final String format, final List<String> teeFormats) {
+        List<Serialiser<T>> serialisers = new ArrayList<>();
+        serialisers.add(createSerialiser(type, options, format));
+        Map<String, String> teeOptions = new HashMap<>(options);
+        teeOptions.remove(CODEC_OPTION);
+        for (String teeFormat : teeFormats) {
+            serialisers.add(createSerialiser(type, teeOptions, teeFormat));
+        }
+        return serialisers;
+    }
+
+    /**
+     * @brief This method creates the serialiser of the files written from chunks
+     * @param type class of the people
+     * @param options named options
+     * @param format output format of the files
+     * @param <T> type of the people
+     * @return the serialiser
+     */
+    private static <T> Serialiser<T> createSerialiser(final Class<T> type, final Map<String, String> options, final String format) {
+        if (AVRO_FORMAT.equals(format)) {
+            return configureEncoding(new AvroSerialiser<>(type), options);
+        } else if (PARQUET_FORMAT.equals(format)) {
+            ParquetSerialiser<T> serialiser = new ParquetSerialiser<>(type).codec(parquetCodec(options));
+            if (options.containsKey(ROW_GROUP_SIZE_OPTION)) {
+                serialiser.rowGroupSize(Integer.parseInt(options.get(ROW_GROUP_SIZE_OPTION)));
+            }
+            if (options.containsKey(PAGE_SIZE_OPTION)) {
+                serialiser.pageSize(Integer.parseInt(options.get(PAGE_SIZE_OPTION)));
+            }
+            return serialiser;
+        } else if (ARROW_FORMAT.equals(format)) {
+            ArrowSerialiser<T> serialiser = new ArrowSerialiser<>(type);
+            if (options.containsKey(RECORD_BATCH_SIZE_OPTION)) {
+                serialiser.batchSize(Integer.parseInt(options.get(RECORD_BATCH_SIZE_OPTION)));
+            }
+            return serialiser;
+        }
+        int bufferSize = Integer.parseInt(options.getOrDefault(BUFFER_SIZE_OPTION, "0"));
+        if (JSON_LINES_FORMAT.equals(format)) {
+            JsonLinesSerialiser<T> serialiser = new JsonLinesSerialiser<>(type).gzip(jsonLinesGzip(options));
+            return bufferSize > 0 ? serialiser.bufferSize(bufferSize) : serialiser;
+        }
+        CsvSerialiser<T> serialiser = new CsvSerialiser<>(type).nesting(csvNesting(options));
+        return bufferSize > 0 ? serialiser.bufferSize(bufferSize) : serialiser;
+    }
+
+    /**
+     * @brief This method obtains how the arrays of the people are written to CSV files, given with --csv-nesting
+     * @param options named options
+     * @return the nesting policy, JSON by default
+     */
+    private static CsvSerialiser.Nesting csvNesting(final Map<String, String> options) {
+        return CsvSerialiser.Nesting.fromName(options.getOrDefault(CSV_NESTING_OPTION, CsvSerialiser.Nesting.JSON.name()));
+    }
+
+    /**
+     * @brief This method applies the codec, sync interval and buffer size options to a serialiser
+     * @param serialiser the serialiser
+     * @param options named options
+     * @param <T> type of the people
+     * @return the same serialiser
+     */
+    private static <T> AvroSerialiser<T> configureEncoding(final AvroSerialiser<T> serialiser, final Map<String, String> options) {
+        return serialiser.codec(codec(options))
+                .syncInterval(Integer.parseInt(options.getOrDefault(SYNC_INTERVAL_OPTION, "0")))
+                .bufferSize(Integer.parseInt(options.getOrDefault(BUFFER_SIZE_OPTION, "0")));
+    }
+
+    /**
+     * @brief This method obtains the codec given with --codec
+     * @param options named options
+     * @return the codec, or null for no compression
+     */
+    private static CodecFactory codec(final Map<String, String> options) {
+        String name = options.get(CODEC_OPTION);
+        return name == null ? null : AvroSerialiser.codecFromName(name);
+    }
+
+    /**
+     * @brief This method obtains the codec of Parquet files given with --codec
+     * @param options named options
+     * @return the codec, snappy by default
+     */
+    private static CompressionCodecName parquetCodec(final Map<String, String> options) {
+        return ParquetSerialiser.codecFromName(options.getOrDefault(CODEC_OPTION, CompressionCodecName.SNAPPY.name()));
+    }
+
+    /**
+     * @brief This method tells whether JSON Lines files are compressed, given with --codec=gzip
+     * @param options named options
+     * @return if the files are compressed with gzip, not by default
+     */
+    private static boolean jsonLinesGzip(final Map<String, String> options) {
+        return JsonLinesSerialiser.isGzip(options.getOrDefault(CODEC_OPTION, "uncompressed"));
+    }
+
+    /**
+     * @brief This method opens the writer of an output file
+     * @param serialiser serialiser of the people
+     * @param outputFile output file
+     * @param syncMarker sync marker of the file, used by Avro files only
+     * @param <T> type of the people
+     * @return the writer
+     * @throws IOException found problems creating the file
+     */
+    static <T> RecordWriter<T> openWriter(final Serialiser<T> serialiser, final File outputFile, final byte[] syncMarker) throws IOException {
+        OutputStream out = new FileOutputStream(outputFile);
+        try {
+            return createWriter(serialiser, out, syncMarker);
+        } catch (IOException | RuntimeException e) {
+            out.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @brief This method opens a writer on an output stream
+     * @param serialiser serialiser of the people
+     * @param out output stream, closed when the writer is closed
+     * @param syncMarker sync marker of the file, used by Avro files only
+     * @param <T> type of the people
+     * @return the writer
+     * @throws IOException found problems writing the start of the file
+     */
+    static <T> RecordWriter<T> createWriter(final Serialiser<T> serialiser, final OutputStream out, final byte[] syncMarker) throws IOException {
+        if (serialiser instanceof AvroSerialiser) {
+            return ((AvroSerialiser<T>) serialiser).createWriter(out, syncMarker);
+        }
+        return serialiser.createWriter(out);
+    }
+
+    /**
+     * @brief This method opens the writer of an output file, of its partitions or of the files it is also written to,
+     * in other formats
+     * @param type class of the people
+     * @param serialisers serialisers of the output file followed by those of the other files
+     * @param options named options
+     * @param outputFile output file
+     * @param teeFiles the other files
+     * @param syncMarker sync marker of the files, used by Avro files only
+     * @param <T> type of the people
+     * @return the writer of the output file alone or of its partitions, or a tee writing to every file on threads of
+     * its own
+     * @throws IOException found problems creating the files
+     */
+    private static <T> RecordWriter<T> openWriters(final Class<T> type, final List<Serialiser<T>> serialisers,
+                                                   final Map<String, String> options, final File outputFile, final File[] teeFiles,
+                                                   final byte[] syncMarker) throws IOException {
+        if (options.containsKey(PARTITION_BY_OPTION)) {
+            return openPartitions(type, serialisers.get(0), outputFile, syncMarker, options.get(PARTITION_BY_OPTION),
+                    maxOpenFiles(options, type), Long.parseLong(options.getOrDefault(ROLL_RECORDS_OPTION, "0")),
+                    rollBytes(options));
+        }
+        RecordWriter<T> writer = openWriter(serialisers.get(0), outputFile, syncMarker);
+        if (teeFiles.length == 0) {
+            return writer;
+        }
+        List<RecordWriter<T>> writers = new ArrayList<>();
+        writers.add(writer);
+        for (int i = 0; i < teeFiles.length; i++) {
+            try {
+                writers.add(openWriter(serialisers.get(i + 1), teeFiles[i], syncMarker));
+            } catch (IOException | RuntimeException e) {
+                closeQuietly(writers);
+                throw e;
+            }
+        }
+        return tee(writers);
+    }
+
+    /**
+     * @brief This method opens a writer routing the people to the files of their partition instead of to an output file
+     * @details the partitions are directories next to the output file, named after the last field of the path and the
+     * value of the field, such as department=FINANCE, and their files are named after the output file, such as
+     * part-0000-worker_e0.avro
+     * @param type class of the people
+     * @param serialiser serialiser of the files
+     * @param outputFile output file, giving the directory, name and extension of the files
+     * @param syncMarker sync marker of the files, used by Avro files only
+     * @param field name of the partitioning field, or its path through nested objects such as workLocation.workLocationName
+     * @param maxOpenFiles maximum number of files open at the same time
+     * @param rollRecords number of people after which a file is rolled over, or 0 for no limit
+     * @param rollBytes approximate number of bytes after which a file is rolled over, or 0 for no limit
+     * @param <T> type of the people
+     * @return the writer
+     */
+    static <T> RecordWriter<T> openPartitions(final Class<T> type, final Serialiser<T> serialiser, final File outputFile,
+                                              final byte[] syncMarker, final String field, final int maxOpenFiles,
+                                              final long rollRecords, final long rollBytes) {
+        String fileName = outputFile.getName();
+        int dot = fileName.indexOf('.');
+        String name = dot < 0 ? fileName : fileName.substring(0, dot);
+        String extension = dot < 0 ? "" : fileName.substring(dot);
+        String label = field.substring(field.lastIndexOf('.') + 1);
+        return new PartitionedWriter<>(PartitionedWriter.fieldPartitioner(type, field),
+                PartitionedWriter.files(outputFile.getParentFile(), label, name, extension),
+                out -> createWriter(serialiser, out, syncMarker))
+                .maxOpenWriters(maxOpenFiles)
+                .rollRecords(rollRecords)
+                .rollBytes(rollBytes);
+    }
+
+    /**
+     * @brief This method writes to several writers at the same time
+     * @param writers the writers, closed when the tee is closed
+     * @param <T> type of the people
+     * @return the tee
+     */
+    static <T> RecordWriter<T> tee(final List<RecordWriter<T>> writers) {
+        return new TeeWriter<>(writers, createDaemonThreadFactory());
+    }
+
+    /**
+     * @brief This method closes writers after a failure, logging the failures to close them
+     * @param writers the writers
+     * @param <T> type of the people
+     */
+    static <T> void closeQuietly(final List<RecordWriter<T>> writers) {
+        for (RecordWriter<T> writer : writers) {
+            try {
+                writer.close();
+            } catch (IOException | RuntimeException e) {
+                LOGGER.warn("Failed to close a writer", e);
+            }
+        }
+    }
+
+    /**
+     * @brief This method splits a number of records into contiguous index ranges
+     * @details the remainder of the division is spread over the first ranges, so no record is lost
+     * @param numberOfRecords total number of records
+     * @param numberOfRanges number of ranges
+     * @return the first index of every range, followed by the total number of records
+     */
+    static long[] partition(final long numberOfRecords, final int numberOfRanges) {
+        long[] firstIndices = new long[numberOfRanges + 1];
+        long recordsPerRange = numberOfRecords / numberOfRanges;
+        long remainder = numberOfRecords % numberOfRanges;
+        for (int i = 0; i < numberOfRanges; i++) {
+            firstIndices[i + 1] = firstIndices[i] + recordsPerRange + (i < remainder ? 1 : 0);
+        }
+        return firstIndices;
+    }
+
+    /**
+     * @brief This method obtains the positional arguments, skipping the named options
+     * @param args arguments given as input
+     * @return the positional arguments in their original order
+     */
+    static String[] positionalArgs(final String... args) {
+        List<String> positional = new ArrayList<>();
+        for (String arg : args) {
+            if (!arg.startsWith(OPTION_PREFIX)) {
+                positional.add(arg);
+            }
+        }
+        return positional.toArray(new String[0]);
+    }
+
+    /**
+     * @brief This method obtains the named options given as --name=value, a bare --name is read as true
+     * @param args arguments given as input
+     * @return the options keyed by their lower case name
+     */
+    static Map<String, String> parseOptions(final String... args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith(OPTION_PREFIX)) {
+                String option = arg.substring(OPTION_PREFIX.length());
+                int separator = option.indexOf('=');
+                if (separator < 0) {
+                    options.put(option.toLowerCase(Locale.ROOT), Boolean.TRUE.toString());
+                } else {
+                    options.put(option.substring(0, separator).toLowerCase(Locale.ROOT), option.substring(separator + 1));
+                }
+            }
+        }
+        return options;
+    }
+
     /**
      * Create a {@link ThreadFactory} that creates daemon threads that don't prevent JVM exit.
      *
@@ -16,21 +16,38 @@
 
 package uk.gov.gchq.syntheticdatagenerator;
 
+import org.apache.avro.file.CodecFactory;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import uk.gov.gchq.syntheticdatagenerator.random.RandomSource;
+import uk.gov.gchq.syntheticdatagenerator.random.RecordRandom;
+import uk.gov.gchq.syntheticdatagenerator.serialise.ArrowSerialiser;
 import uk.gov.gchq.syntheticdatagenerator.serialise.AvroSerialiser;
+import uk.gov.gchq.syntheticdatagenerator.serialise.CsvSerialiser;
+import uk.gov.gchq.syntheticdatagenerator.serialise.JsonLinesSerialiser;
+import uk.gov.gchq.syntheticdatagenerator.serialise.ParquetSerialiser;
+import uk.gov.gchq.syntheticdatagenerator.serialise.RecordWriter;
+import uk.gov.gchq.syntheticdatagenerator.serialise.Serialiser;
 import uk.gov.gchq.syntheticdatagenerator.types.Employee;
 import uk.gov.gchq.syntheticdatagenerator.types.Teacher;
 import uk.gov.gchq.syntheticdatagenerator.types.Manager;
+import uk.gov.gchq.syntheticdatagenerator.types.OrgChart;
 
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.security.SecureRandom;
-import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
 import com.google.common.io.Files;
@@ -44,12 +61,54 @@ public final class CreateDataFile implements Callable<Boolean> {
     private static final Logger LOGGER = LoggerFactory.getLogger(CreateDataFile.class);
     // When a large number of employees are requested, print the progress as feedback that the process has not frozen
     private static final long PRINT_EVERY = 100_000L;
+    private static final int SYNC_MARKER_SIZE = 16;
+    // Number of people generated for every generation permit
+    private static final int PERMIT_BATCH_SIZE = 1_000;
+    // The very first person of a dataset always has a well known manager
+    private static final String FIRST_EMPLOYEE_MANAGER = "Bob";
+    private static final String FIRST_TEACHER_MANAGER = "Peter";
 
     private final long numberOfPeople;
-    private final SecureRandom random;
+    private final Random random;
     private final File outputFile;
     private final String ocupation;
-    private boolean isCSVFile = false;
+    // Optional files the people are also written to, in the formats of their extensions
+    private final List<File> teeFiles = new ArrayList<>();
+    // Counter based generation, where the person at position i of this file is the person firstIndex + i of the dataset
+    private boolean indexed = false;
+    private long datasetSeed;
+    private long firstIndex;
+    // Optional pipeline generating the people of the file on several threads
+    private GenerationPipeline pipeline;
+    // Optional permits bounding the number of files generating people at the same time
+    private Semaphore generationPermits;
+    // Optional hierarchy of managers shared by the people, instead of a tree of managers per person
+    private OrgChart orgChart;
+    // Optional pool encoding the Avro blocks of the file in parallel
+    private ExecutorService encoders;
+    private int recordsPerBlock;
+    private int blocksAhead;
+    // Optional codec, block size and output buffer size of the Avro file
+    private CodecFactory codec;
+    private int syncInterval;
+    private int bufferSize;
+    // How the arrays of the people are written to the columns of a CSV file
+    private CsvSerialiser.Nesting csvNesting = CsvSerialiser.Nesting.JSON;
+    // Optional codec, row group size and page size of the Parquet file, or null and 0 for the defaults
+    private CompressionCodecName parquetCodec;
+    private int rowGroupSize;
+    private int pageSize;
+    // Optional number of rows of the record batches of the Arrow file, or 0 for the default
+    private int arrowBatchSize;
+    // Optional field partitioning the people into directories instead of writing the output file, with the
+    // maximum number of files open at the same time and the number of people and bytes rolling a file over
+    private String partitionField;
+    private int maxOpenFiles;
+    private long rollRecords;
+    private long rollBytes;
+    // Optional manifest of the completed files, with which the files are written under temporary names and renamed
+    // once complete, and skipped when already complete
+    private ProgressManifest manifest;
 
     /**
      * @brief This method creates a data file
@@ -59,12 +118,180 @@ public final class CreateDataFile implements Callable<Boolean> {
      * @param ocupation type of person that is going to be created: the selection will be among employees or teachers
      */
     public CreateDataFile(final long numberOfPeople, final int seed, final File outputFile, final String ocupation ) {
+        this(numberOfPeople, seed, outputFile, ocupation, RandomSource.XOSHIRO);
+    }
+
+    /**
+     * @brief This method creates a data file using the given random number generator
+     * @param numberOfPeople number of people that want to be created
+     * @param seed seed to create the data file
+     * @param outputFile output file
+     * @param ocupation type of person that is going to be created: the selection will be among employees or teachers
+     * @param randomSource random number generator used to create the data
+     */
+    public CreateDataFile(final long numberOfPeople, final int seed, final File outputFile, final String ocupation, final RandomSource randomSource) {
         this.numberOfPeople = numberOfPeople;
-        this.random = new SecureRandom(longToBytes(seed));
+        this.random = randomSource.create(seed);
         this.outputFile = outputFile;
         this.ocupation = ocupation.toUpperCase();
-        if(getExtensionByGuava(outputFile).equals("csv")){isCSVFile = true;}
-        else{isCSVFile = false;}
+    }
+
+    /**
+     * @brief This method switches the file to counter based generation
+     * @details every person is generated from the dataset seed and its position in the dataset, so the content of the
+     * file does not depend on the other files nor on the order in which they are generated
+     * @param seed seed of the dataset
+     * @param index position in the dataset of the first person of this file
+     * @return this data file
+     */
+    public CreateDataFile indexed(final long seed, final long index) {
+        this.indexed = true;
+        this.datasetSeed = seed;
+        this.firstIndex = index;
+        return this;
+    }
+
+    /**
+     * @brief This method generates the people of the file on the threads of a pipeline
+     * @details a file that is not counter based yet becomes one, seeded from its own random number generator, as the
+     * people generated in parallel must not depend on the order in which they are generated
+     * @param generationPipeline pipeline generating the people
+     * @return this data file
+     */
+    public CreateDataFile pipeline(final GenerationPipeline generationPipeline) {
+        if (!indexed) {
+            indexed(random.nextLong(), 0);
+        }
+        this.pipeline = generationPipeline;
+        return this;
+    }
+
+    /**
+     * @brief This method only generates people while holding a permit
+     * @details the people are generated in batches, one permit per batch, and written without the permit, so many
+     * files can wait on their output while only a few use the processors to generate people
+     * @param permits permits shared by the files
+     * @return this data file
+     */
+    public CreateDataFile generationPermits(final Semaphore permits) {
+        this.generationPermits = permits;
+        return this;
+    }
+
+    /**
+     * @brief This method gives the people managers from an organisational hierarchy shared by the whole dataset
+     * @param chart hierarchy of managers
+     * @return this data file
+     */
+    public CreateDataFile orgChart(final OrgChart chart) {
+        this.orgChart = chart;
+        return this;
+    }
+
+    /**
+     * @brief This method encodes and compresses the Avro blocks, or the gzip members of JSON Lines, of the file on a
+     * pool of threads
+     * @param encoderPool executor encoding the blocks, it can be shared between files
+     * @param blockSize number of people in a block
+     * @param maxBlocksAhead maximum number of blocks encoded ahead of the writer of the file
+     * @return this data file
+     */
+    public CreateDataFile encodeInParallel(final ExecutorService encoderPool, final int blockSize, final int maxBlocksAhead) {
+        this.encoders = encoderPool;
+        this.recordsPerBlock = blockSize;
+        this.blocksAhead = maxBlocksAhead;
+        return this;
+    }
+
+    /**
+     * @brief This method selects how the Avro blocks of the file are compressed, sized and buffered
+     * @param codecFactory codec compressing the blocks, or null for no compression
+     * @param blockBytes approximate number of uncompressed bytes of a block, or 0 for Avro's default
+     * @param bufferBytes size of the output buffer, or 0 to write every block as soon as it is complete
+     * @return this data file
+     */
+    public CreateDataFile encoding(final CodecFactory codecFactory, final int blockBytes, final int bufferBytes) {
+        this.codec = codecFactory;
+        this.syncInterval = blockBytes;
+        this.bufferSize = bufferBytes;
+        return this;
+    }
+
+    /**
+     * @brief This method selects how the arrays of the people, such as their phone numbers, are written to a CSV file
+     * @param nesting the nesting policy
+     * @return this data file
+     */
+    public CreateDataFile csvNesting(final CsvSerialiser.Nesting nesting) {
+        this.csvNesting = nesting;
+        return this;
+    }
+
+    /**
+     * @brief This method selects how the Parquet file is compressed and cut into row groups and pages
+     * @param codecName codec compressing the pages, or null for the default of snappy
+     * @param rowGroupBytes approximate number of bytes of a row group, or 0 for Parquet's default
+     * @param pageBytes approximate number of bytes of a page, or 0 for Parquet's default
+     * @return this data file
+     */
+    public CreateDataFile parquetLayout(final CompressionCodecName codecName, final int rowGroupBytes, final int pageBytes) {
+        this.parquetCodec = codecName;
+        this.rowGroupSize = rowGroupBytes;
+        this.pageSize = pageBytes;
+        return this;
+    }
+
+    /**
+     * @brief This method selects the number of rows of the record batches of the Arrow file
+     * @param rows number of rows of a record batch, or 0 for the default
+     * @return this data file
+     */
+    public CreateDataFile arrowBatchSize(final int rows) {
+        this.arrowBatchSize = rows;
+        return this;
+    }
+
+    /**
+     * @brief This method also writes the people to another file, in the format of its extension
+     * @details the people are generated once and written to every file at the same time, each file on a thread of
+     * its own. The file takes the layout options of its format, but the codecs only apply to the files of their own
+     * format, so an Avro or JSON Lines file is written uncompressed and a Parquet file with the default codec
+     * @param file the other file
+     * @return this data file
+     */
+    public CreateDataFile tee(final File file) {
+        this.teeFiles.add(file);
+        return this;
+    }
+
+    /**
+     * @brief This method writes the people to the files of their partition, in directories next to the output file
+     * such as department=FINANCE, instead of to the output file
+     * @param field name of the partitioning field, or its path through nested objects such as workLocation.workLocationName
+     * @param openFiles maximum number of files open at the same time
+     * @param records number of people after which a file is rolled over, or 0 for no limit
+     * @param bytes approximate number of bytes after which a file is rolled over, or 0 for no limit
+     * @return this data file
+     */
+    public CreateDataFile partitionBy(final String field, final int openFiles, final long records, final long bytes) {
+        this.partitionField = field;
+        this.maxOpenFiles = openFiles;
+        this.rollRecords = records;
+        this.rollBytes = bytes;
+        return this;
+    }
+
+    /**
+     * @brief This method commits the files atomically and records them in a manifest, skipping them if they are
+     * already complete
+     * @details the output file and the files it is also written to are written under temporary names and renamed
+     * once every person has been written, so an interrupted run leaves no partial file under the final names
+     * @param progress manifest of the completed files of the dataset
+     * @return this data file
+     */
+    public CreateDataFile checkpoint(final ProgressManifest progress) {
+        this.manifest = progress;
+        return this;
     }
 
     /**
@@ -78,80 +305,255 @@ public final class CreateDataFile implements Callable<Boolean> {
                 LOGGER.warn("Failed to create parent directory {}", outputFile.getParent());
             }
         }
-        try (OutputStream out = new FileOutputStream(outputFile)) {
+        for (File teeFile : teeFiles) {
+            if (!teeFile.getParentFile().exists() && !teeFile.getParentFile().mkdirs()) {
+                LOGGER.warn("Failed to create parent directory {}", teeFile.getParent());
+            }
+        }
+        if (manifest != null && manifest.isComplete(files())) {
+            LOGGER.info("Skipping {}, completed by a previous run", outputFile);
+            return true;
+        }
+        try {
             if(ocupation.equals("E")){
-                AvroSerialiser<Employee> employeeAvroSerialiser = new AvroSerialiser<>(Employee.class);
-
-                // Need at least one Employee
-                Employee firstEmployee = Employee.generate(random);
-                Manager[] managers = firstEmployee.getManager();
-                managers[0].setUid("Bob");
-                firstEmployee.setManager(managers);
+                Stream<Employee> employeeStream = Stream.empty();
+                if (numberOfPeople > 0) {
+                    Employee firstEmployee = generateEmployee(0);
+                    // Counter based people get the well known manager from their index in the dataset
+                    if (!indexed) {
+                        firstEmployee.setManager(withFirstManager(firstEmployee.getManager(), FIRST_EMPLOYEE_MANAGER));
+                    }
+                    employeeStream = Stream.of(firstEmployee);
+                }
 
                 // Create more employees if needed
-                Stream<Employee> employeeStream = Stream.of(firstEmployee);
                 if (numberOfPeople > 1) {
-                    if(isCSVFile == false){
-                        employeeStream = Stream.concat(employeeStream, generateStreamOfEmployees());
-                    }
-                    else{
-                        Stream aux = Stream.of(";");
-                        employeeStream = Stream.concat(employeeStream, aux);
-                        employeeStream = Stream.concat(employeeStream, generateStreamOfEmployees());
-                    }
+                    employeeStream = Stream.concat(employeeStream, generateStreamOfEmployees());
                 }
                 // Serialise stream to output
-                employeeAvroSerialiser.serialise(employeeStream, out);
+                write(Employee.class, employeeStream);
                 return true;
 
             }
             else if(ocupation.equals("T")){
-                AvroSerialiser<Teacher> teacherAvroSerialiser = new AvroSerialiser<>(Teacher.class);
-
-                // Need at least one Employee
-                Teacher firstTeacher = Teacher.generate(random);
-                Manager[] managers = firstTeacher.getManager();
-                managers[0].setUid("Peter");
-                firstTeacher.setManager(managers);
+                Stream<Teacher> teacherStream = Stream.empty();
+                if (numberOfPeople > 0) {
+                    Teacher firstTeacher = generateTeacher(0);
+                    // Counter based people get the well known manager from their index in the dataset
+                    if (!indexed) {
+                        firstTeacher.setManager(withFirstManager(firstTeacher.getManager(), FIRST_TEACHER_MANAGER));
+                    }
+                    teacherStream = Stream.of(firstTeacher);
+                }
 
                 // Create more teachers if needed
-                Stream<Teacher> teacherStream = Stream.of(firstTeacher);
                 if (numberOfPeople > 1) {
-                    if(isCSVFile == false){
-                        teacherStream = Stream.concat(teacherStream, generateStreamOfTeacher());
-                    }
-                    else{
-                        Stream aux = Stream.of(";");
-                        teacherStream = Stream.concat(teacherStream, aux);
-                        teacherStream = Stream.concat(teacherStream, generateStreamOfTeacher());
-                    }
+                    teacherStream = Stream.concat(teacherStream, generateStreamOfTeacher());
                 }
 
                 // Serialise stream to output
-                teacherAvroSerialiser.serialise(teacherStream, out);
+                write(Teacher.class, teacherStream);
                 return true;
             }
             
             
         } catch (IOException ex) {
-            LOGGER.error("IOException when serialising Employee or Teacher to Avro", ex);
+            LOGGER.error("IOException when serialising Employee or Teacher to Avro, CSV, Parquet, Arrow or JSON Lines", ex);
             return false;
         }
         return false;
     }
 
+    /**
+     * @brief This method writes the people to the output file, or to the files of their partitions
+     * @details the stream is closed once written, which stops the generation of a pipeline that is still ahead of a
+     * failed writer. With a manifest, the files are only committed once every person has been written to them
+     * @param type class of the people
+     * @param people stream of people
+     * @param <T> type of the people
+     * @throws IOException found problems writing the files
+     */
+    private <T> void write(final Class<T> type, final Stream<T> people) throws IOException {
+        try (Stream<T> stream = people) {
+            if (partitionField == null) {
+                AtomicLong written = new AtomicLong();
+                try (OutputStream out = new FileOutputStream(target(outputFile))) {
+                    serialise(type, stream.peek(person -> written.incrementAndGet()), out);
+                }
+                if (manifest != null) {
+                    if (written.get() != numberOfPeople) {
+                        throw new IOException("Leaving " + outputFile + " incomplete, " + written.get() + " of "
+                                + numberOfPeople + " people written");
+                    }
+                    manifest.complete(files());
+                }
+                return;
+            }
+            try (RecordWriter<T> partitions = CreateData.openPartitions(type, serialiser(type, outputFile), outputFile,
+                    syncMarker(), partitionField, maxOpenFiles, rollRecords, rollBytes)) {
+                Iterator<T> iterator = stream.iterator();
+                while (iterator.hasNext()) {
+                    partitions.write(iterator.next());
+                }
+            }
+        }
+    }
+
+    /**
+     * @brief This method writes the people to the output, and to the other files if any, at the same time
+     * @param type class of the people
+     * @param people stream of people
+     * @param out output stream of the file
+     * @param <T> type of the people
+     * @throws IOException found problems writing the files
+     */
+    private <T> void serialise(final Class<T> type, final Stream<T> people, final OutputStream out) throws IOException {
+        Serialiser<T> serialiser = serialiser(type, outputFile);
+        if (teeFiles.isEmpty()) {
+            if (serialiser instanceof AvroSerialiser) {
+                ((AvroSerialiser<T>) serialiser).serialise(people, out, syncMarker());
+            } else {
+                serialiser.serialise(people, out);
+            }
+            return;
+        }
+        List<RecordWriter<T>> writers = new ArrayList<>();
+        try {
+            writers.add(CreateData.createWriter(serialiser, out, syncMarker()));
+            for (File teeFile : teeFiles) {
+                writers.add(CreateData.openWriter(serialiser(type, teeFile), target(teeFile), syncMarker()));
+            }
+        } catch (IOException | RuntimeException e) {
+            CreateData.closeQuietly(writers);
+            throw e;
+        }
+        try (RecordWriter<T> tee = CreateData.tee(writers)) {
+            Iterator<T> iterator = people.iterator();
+            while (iterator.hasNext()) {
+                tee.write(iterator.next());
+            }
+        }
+    }
+
+    /**
+     * @brief This method returns the output file followed by the files it is also written to
+     * @return the files
+     */
+    private File[] files() {
+        List<File> files = new ArrayList<>();
+        files.add(outputFile);
+        files.addAll(teeFiles);
+        return files.toArray(new File[0]);
+    }
+
+    /**
+     * @brief This method returns the file written to, the temporary name of a file when it is committed once complete
+     * @param file the file
+     * @return the file written to
+     */
+    private File target(final File file) {
+        return manifest == null ? file : ProgressManifest.temporary(file);
+    }
+
+    /**
+     * @brief This method creates the serialiser of a file as CSV, Parquet, Arrow, JSON Lines or Avro, depending on its extension
+     * @param type class of the people
+     * @param file the file
+     * @param <T> type of the people
+     * @return the serialiser
+     */
+    private <T> Serialiser<T> serialiser(final Class<T> type, final File file) {
+        String extension = getExtensionByGuava(file);
+        if (extension.equals("csv")) {
+            CsvSerialiser<T> csvSerialiser = new CsvSerialiser<>(type).nesting(csvNesting);
+            if (bufferSize > 0) {
+                csvSerialiser.bufferSize(bufferSize);
+            }
+            return csvSerialiser;
+        } else if (extension.equals("parquet")) {
+            return configure(new ParquetSerialiser<>(type));
+        } else if (extension.equals("arrow")) {
+            ArrowSerialiser<T> arrowSerialiser = new ArrowSerialiser<>(type);
+            if (arrowBatchSize > 0) {
+                arrowSerialiser.batchSize(arrowBatchSize);
+            }
+            return arrowSerialiser;
+        } else if (file.getName().endsWith(".jsonl") || file.getName().endsWith(".jsonl.gz")) {
+            // JSON Lines files compressed with gzip end with .jsonl.gz
+            return configure(new JsonLinesSerialiser<>(type)).gzip(extension.equals("gz"));
+        }
+        return configure(new AvroSerialiser<>(type));
+    }
+
+    /**
+     * @brief This method applies the Parquet options of the file to a serialiser
+     * @param serialiser the serialiser
+     * @param <T> type of the people
+     * @return the same serialiser
+     */
+    private <T> ParquetSerialiser<T> configure(final ParquetSerialiser<T> serialiser) {
+        if (parquetCodec != null) {
+            serialiser.codec(parquetCodec);
+        }
+        if (rowGroupSize > 0) {
+            serialiser.rowGroupSize(rowGroupSize);
+        }
+        if (pageSize > 0) {
+            serialiser.pageSize(pageSize);
+        }
+        return serialiser;
+    }
+
+    /**
+     * @brief This method applies the buffer size and parallel compression options of the file to a JSON Lines serialiser
+     * @param serialiser the serialiser
+     * @param <T> type of the people
+     * @return the same serialiser
+     */
+    private <T> JsonLinesSerialiser<T> configure(final JsonLinesSerialiser<T> serialiser) {
+        if (bufferSize > 0) {
+            serialiser.bufferSize(bufferSize);
+        }
+        if (encoders != null) {
+            serialiser.compressInParallel(encoders, recordsPerBlock, blocksAhead);
+        }
+        return serialiser;
+    }
+
+    /**
+     * @brief This method applies the encoding options of the file to a serialiser
+     * @param serialiser the serialiser
+     * @param <T> type of the people
+     * @return the same serialiser
+     */
+    private <T> AvroSerialiser<T> configure(final AvroSerialiser<T> serialiser) {
+        serialiser.codec(codec).syncInterval(syncInterval).bufferSize(bufferSize);
+        if (encoders != null) {
+            serialiser.encodeInParallel(encoders, recordsPerBlock, blocksAhead);
+        }
+        return serialiser;
+    }
+
     /**
      * @brief This method creates a stream of employees
      * @return the list of generated employee data
      */
     private Stream<Employee> generateStreamOfEmployees() {
         LOGGER.info("Generating {} employees", numberOfPeople);
+        if (pipeline != null) {
+            // Excluding the one employee we had to generate above
+            return logProgress(pipeline.stream(this::generateEmployee, 1, numberOfPeople - 1));
+        }
+        if (generationPermits != null) {
+            return logProgress(generateWithPermits(this::generateEmployee));
+        }
         final AtomicLong counter = new AtomicLong(0);
         Stream<Employee> employeeStream = Stream.generate(() -> {
-            if (counter.incrementAndGet() % PRINT_EVERY == 0) {
-                LOGGER.info("Processing {} of {}", counter.get(), numberOfPeople);
+            long position = counter.incrementAndGet();
+            if (position % PRINT_EVERY == 0) {
+                LOGGER.info("Processing {} of {}", position, numberOfPeople);
             }
-            return Employee.generate(random);
+            return generateEmployee(position);
         });
         // Excluding the one employee we had to generate above
         return employeeStream.limit(numberOfPeople - 1);
@@ -163,12 +565,20 @@ public final class CreateDataFile implements Callable<Boolean> {
      */
     private Stream<Teacher> generateStreamOfTeacher() {
         LOGGER.info("Generating {} teachers", numberOfPeople);
+        if (pipeline != null) {
+            // Excluding the one teacher we had to generate above
+            return logProgress(pipeline.stream(this::generateTeacher, 1, numberOfPeople - 1));
+        }
+        if (generationPermits != null) {
+            return logProgress(generateWithPermits(this::generateTeacher));
+        }
         final AtomicLong counter = new AtomicLong(0);
         Stream<Teacher> teacherStream = Stream.generate(() -> {
-            if (counter.incrementAndGet() % PRINT_EVERY == 0) {
-                LOGGER.info("Processing {} of {}", counter.get(), numberOfPeople);
+            long position = counter.incrementAndGet();
+            if (position % PRINT_EVERY == 0) {
+                LOGGER.info("Processing {} of {}", position, numberOfPeople);
             }
-            return Teacher.generate(random);
+            return generateTeacher(position);
         });
         // Excluding the one employee we had to generate above
         return teacherStream.limit(numberOfPeople - 1);
@@ -176,14 +586,130 @@ public final class CreateDataFile implements Callable<Boolean> {
 
 
     /**
-     * @brief This method converts a long value to a byte value
-     * @param x long value
-     * @return long value in bytes
+     * @brief This method generates the people following the first one in batches, each while holding a permit
+     * @param generator function generating the person at a position of this file
+     * @param <T> type of the people
+     * @return the stream of people
+     */
+    private <T> Stream<T> generateWithPermits(final LongFunction<T> generator) {
+        long numberOfBatches = (numberOfPeople - 1 + PERMIT_BATCH_SIZE - 1) / PERMIT_BATCH_SIZE;
+        return LongStream.range(0, numberOfBatches).mapToObj(batch -> {
+            long start = 1 + batch * PERMIT_BATCH_SIZE;
+            long end = Math.min(numberOfPeople, start + PERMIT_BATCH_SIZE);
+            List<T> people = new ArrayList<>((int) (end - start));
+            generationPermits.acquireUninterruptibly();
+            try {
+                for (long position = start; position < end; position++) {
+                    people.add(generator.apply(position));
+                }
+            } finally {
+                generationPermits.release();
+            }
+            return people;
+        }).flatMap(List::stream);
+    }
+
+    /**
+     * @brief This method logs the progress of a stream of people as it is consumed
+     * @param people stream of people following the first one
+     * @param <T> type of the people
+     * @return the same stream of people
+     */
+    private <T> Stream<T> logProgress(final Stream<T> people) {
+        final AtomicLong counter = new AtomicLong(0);
+        return people.peek(person -> {
+            long position = counter.incrementAndGet();
+            if (position % PRINT_EVERY == 0) {
+                LOGGER.info("Processing {} of {}", position, numberOfPeople);
+            }
+        });
+    }
+
+    /**
+     * @brief This method obtains the Avro sync marker of the file
+     * @details counter based files derive it from their position in the dataset so that the same file is always
+     * written with the same bytes, the other files use a random one
+     * @return the sync marker, or null for a random one
+     */
+    private byte[] syncMarker() {
+        return indexed ? syncMarker(datasetSeed, firstIndex) : null;
+    }
+
+    /**
+     * @brief This method derives the Avro sync marker of a file from its position in the dataset
+     * @param seed seed of the dataset
+     * @param index position in the dataset of the first person of the file
+     * @return the sync marker
+     */
+    static byte[] syncMarker(final long seed, final long index) {
+        Random markerRandom = RandomSource.XOSHIRO.create(RecordRandom.recordSeed(seed, index));
+        byte[] marker = new byte[SYNC_MARKER_SIZE];
+        markerRandom.nextBytes(marker);
+        return marker;
+    }
+
+    /**
+     * @brief This method generates the employee at a position of a dataset
+     * @param seed seed of the dataset
+     * @param index position of the employee in the dataset
+     * @param orgChart hierarchy of managers shared by the people, or null for a tree of managers per person
+     * @return generated employee
+     */
+    static Employee employeeAt(final long seed, final long index, final OrgChart orgChart) {
+        Employee employee = Employee.generate(seed, index, orgChart);
+        if (index == 0) {
+            employee.setManager(withFirstManager(employee.getManager(), FIRST_EMPLOYEE_MANAGER));
+        }
+        return employee;
+    }
+
+    /**
+     * @brief This method generates the teacher at a position of a dataset
+     * @param seed seed of the dataset
+     * @param index position of the teacher in the dataset
+     * @param orgChart hierarchy of managers shared by the people, or null for a tree of managers per person
+     * @return generated teacher
+     */
+    static Teacher teacherAt(final long seed, final long index, final OrgChart orgChart) {
+        Teacher teacher = Teacher.generate(seed, index, orgChart);
+        if (index == 0) {
+            teacher.setManager(withFirstManager(teacher.getManager(), FIRST_TEACHER_MANAGER));
+        }
+        return teacher;
+    }
+
+    /**
+     * @brief This method gives the well known manager to the first person of a dataset
+     * @details the manager is replaced by a copy, as it may be shared with other people through an org chart
+     * @param managers the managers of the person
+     * @param uid identifier of the well known manager
+     * @return the managers of the person with the well known manager first
+     */
+    private static Manager[] withFirstManager(final Manager[] managers, final String uid) {
+        Manager firstManager = new Manager();
+        firstManager.setUid(uid);
+        firstManager.setManagerType(managers[0].getManagerType());
+        firstManager.setManager(managers[0].getManager().length == 0 ? null : managers[0].getManager());
+        managers[0] = firstManager;
+        return managers;
+    }
+
+    /**
+     * @brief This method generates one employee
+     * @param position position of the employee in this file
+     * @return generated employee
+     */
+    private Employee generateEmployee(final long position) {
+        return indexed ? employeeAt(datasetSeed, firstIndex + position, orgChart) : Employee.generate(random, orgChart);
+    }
+
+    /**
+     * @brief This method generates one teacher
+     * @param position position of the teacher in this file
+     * @return generated teacher
      */
-    private byte[] longToBytes(long x) {
-        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
-        buffer.putLong(x);
-        return buffer.array();
+    private Teacher generateTeacher(final long position) {
+        return indexed ? teacherAt(datasetSeed, firstIndex + position, orgChart) : Teacher.generate(random, orgChart);
     }
 
     /**
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2018-2021 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.syntheticdatagenerator;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.LongFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * @class Generation Pipeline
+ * @brief This class generates the records of a file on several threads while a single consumer reads them in order
+ * @details the records are cut into batches that are generated by a pool of generator threads. At most queueDepth
+ * batches are in flight for every stream, and the consumer always receives the batches in sequence order, so the
+ * records must only depend on their position, as with counter based generation.
+ */
+public final class GenerationPipeline {
+    private final ExecutorService generators;
+    private final int batchSize;
+    private final int queueDepth;
+
+    /**
+     * @brief This method creates a pipeline
+     * @param generators executor running the generation of the batches, it can be shared between pipelines
+     * @param batchSize number of records in a batch
+     * @param queueDepth maximum number of batches generated ahead of the consumer
+     */
+    public GenerationPipeline(final ExecutorService generators, final int batchSize, final int queueDepth) {
+        requireNonNull(generators, "generators");
+        if (batchSize < 1 || queueDepth < 1) {
+            throw new IllegalArgumentException("The batch size and the queue depth must be at least 1");
+        }
+        this.generators = generators;
+        this.batchSize = batchSize;
+        this.queueDepth = queueDepth;
+    }
+
+    /**
+     * @brief This method creates an ordered stream of generated records
+     * @param generator function generating the record at a position, called concurrently from the generator threads
+     * @param first position of the first record
+     * @param count number of records
+     * @param <T> type of the records
+     * @return the records in position order
+     */
+    public <T> Stream<T> stream(final LongFunction<T> generator, final long first, final long count) {
+        OrderedBatchIterator<T> iterator = new OrderedBatchIterator<>(generator, first, first + count);
+        return StreamSupport.stream(Spliterators.spliterator(iterator, count, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(iterator::cancel);
+    }
+
+    /**
+     * @brief This class submits the batches ahead of the consumer and hands out their records in order
+     * @param <T> type of the records
+     */
+    private final class OrderedBatchIterator<T> implements Iterator<T> {
+        private final LongFunction<T> generator;
+        private final long end;
+        private final Deque<Future<List<T>>> inFlight = new ArrayDeque<>();
+        private long nextBatchStart;
+        private Iterator<T> current = Collections.emptyIterator();
+
+        private OrderedBatchIterator(final LongFunction<T> generator, final long start, final long end) {
+            this.generator = generator;
+            this.nextBatchStart = start;
+            this.end = end;
+        }
+
+        @Override
+        public boolean hasNext() {
+            fill();
+            return current.hasNext() || !inFlight.isEmpty();
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            if (!current.hasNext()) {
+                current = take().iterator();
+            }
+            return current.next();
+        }
+
+        /**
+         * @brief This method submits batches until the queue is full or every batch has been submitted
+         */
+        private void fill() {
+            while (inFlight.size() < queueDepth && nextBatchStart < end) {
+                final long batchStart = nextBatchStart;
+                final long batchEnd = Math.min(end, batchStart + batchSize);
+                inFlight.addLast(generators.submit(() -> {
+                    List<T> batch = new ArrayList<>((int) (batchEnd - batchStart));
+                    for (long position = batchStart; position < batchEnd; position++) {
+                        batch.add(generator.apply(position));
+                    }
+                    return batch;
+                }));
+                nextBatchStart = batchEnd;
+            }
+        }
+
+        /**
+         * @brief This method waits for the oldest batch
+         * @return the records of the batch
+         */
+        private List<T> take() {
+            Future<List<T>> batch = inFlight.removeFirst();
+            fill();
+            try {
+                return batch.get();
+            } catch (InterruptedException e) {
+                cancel();
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for a batch of records", e);
+            } catch (ExecutionException e) {
+                cancel();
+                throw new IllegalStateException("Failed to generate a batch of records", e.getCause());
+            }
+        }
+
+        /**
+         * @brief This method cancels the batches still in flight
+         */
+        private void cancel() {
+            for (Future<List<T>> batch : inFlight) {
+                batch.cancel(true);
+            }
+            inFlight.clear();
+            nextBatchStart = end;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2018-2021 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.syntheticdatagenerator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * @class Progress Manifest
+ * @brief This class records the files of a dataset that have been completely written, so an interrupted run can be
+ * resumed by generating only the others
+ * @details every file is written under a temporary name, forced to the disk and renamed once complete, then recorded
+ * in the manifest, which is itself forced and replaced atomically, so a crash never leaves a committed file that is
+ * only partly on the disk. The manifest holds the parameters of the run, and only a run with the same
+ * parameters may resume it, as the people of a file must be generated again exactly as they were.
+ */
+public final class ProgressManifest {
+    /**
+     * Name of the manifest in the directory of the dataset, ignored by loaders as it starts with an underscore.
+     */
+    public static final String FILE_NAME = "_progress.json";
+    private static final String PARAMETERS = "parameters";
+    private static final String COMPLETED = "completed";
+    private static final String TEMPORARY_PREFIX = ".";
+    private static final String TEMPORARY_SUFFIX = ".inprogress";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final File file;
+    private final String parameters;
+    private final Set<String> completed = new TreeSet<>();
+
+    /**
+     * @brief This method opens the manifest of a dataset, reading the files already completed if any
+     * @param directory directory of the dataset
+     * @param parameters parameters of the run, which must be those of the run that started the manifest
+     * @throws IOException found problems reading the manifest
+     * @throws IllegalStateException the manifest was started by a run with other parameters
+     */
+    public ProgressManifest(final File directory, final String parameters) throws IOException {
+        requireNonNull(directory, "directory");
+        this.file = new File(directory, FILE_NAME);
+        this.parameters = requireNonNull(parameters, "parameters");
+        if (file.isFile()) {
+            JsonNode manifest = mapper.readTree(file);
+            String previous = manifest.path(PARAMETERS).asText();
+            if (!previous.equals(parameters)) {
+                throw new IllegalStateException("The dataset in " + directory + " was started with the parameters " + previous
+                        + ", resume it with the same parameters or delete " + file);
+            }
+            for (JsonNode name : manifest.path(COMPLETED)) {
+                completed.add(name.asText());
+            }
+        }
+    }
+
+    /**
+     * @brief This method tells whether a file, and the files written with it, have been completely written
+     * @param files the file, followed by the files written with it
+     * @return if the file is recorded as complete and every file exists
+     */
+    public synchronized boolean isComplete(final File... files) {
+        if (!completed.contains(files[0].getName())) {
+            return false;
+        }
+        for (File f : files) {
+            if (!f.isFile()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @brief This method commits files written under their temporary names, renaming them and recording them as complete
+     * @param files the file, followed by the files written with it
+     * @throws IOException found problems renaming the files or writing the manifest
+     */
+    public void complete(final File... files) throws IOException {
+        for (File f : files) {
+            move(temporary(f), f);
+        }
+        synchronized (this) {
+            completed.add(files[0].getName());
+            ObjectNode manifest = mapper.createObjectNode();
+            manifest.put(PARAMETERS, parameters);
+            ArrayNode names = manifest.putArray(COMPLETED);
+            completed.forEach(names::add);
+            File next = temporary(file);
+            mapper.writerWithDefaultPrettyPrinter().writeValue(next, manifest);
+            move(next, file);
+        }
+    }
+
+    /**
+     * @brief This method returns the number of files recorded as complete
+     * @return the number of complete files
+     */
+    public synchronized int getCompleted() {
+        return completed.size();
+    }
+
+    /**
+     * @brief This method names the file written before it is complete, a hidden file of the same directory so it is
+     * renamed within the same file system
+     * @param f the file
+     * @return the temporary file
+     */
+    public static File temporary(final File f) {
+        return new File(f.getParentFile(), TEMPORARY_PREFIX + f.getName() + TEMPORARY_SUFFIX);
+    }
+
+    /**
+     * @brief This method forces a complete file to the disk and renames it
+     * @details the data is forced before the rename, so the new name never points to data still in the page cache,
+     * and the directory afterwards, so the rename itself survives a crash
+     * @param from the complete file
+     * @param to its new name
+     * @throws IOException found problems forcing or renaming the file
+     */
+    private static void move(final File from, final File to) throws IOException {
+        try (FileChannel channel = FileChannel.open(from.toPath(), StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        rename(from, to);
+        forceDirectory(to.getAbsoluteFile().getParentFile());
+    }
+
+    private static void rename(final File from, final File to) throws IOException {
+        try {
+            Files.move(from.toPath(), to.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(from.toPath(), to.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void forceDirectory(final File directory) {
+        try (FileChannel channel = FileChannel.open(directory.toPath(), StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Some platforms, such as Windows, cannot open a directory, and persist renames without it
+        }
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2018-2021 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.syntheticdatagenerator;
+
+import org.apache.commons.io.output.CountingOutputStream;
+import org.apache.commons.io.output.NullOutputStream;
+import uk.gov.gchq.syntheticdatagenerator.serialise.Serialiser;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.function.LongFunction;
+import java.util.stream.LongStream;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * @class Size Estimator
+ * @brief This class estimates the encoded size of the records of a dataset and the rate at which they are generated
+ * @details a sample of records is generated and serialised to a stream that only counts the bytes, once to warm up
+ * the generators and the serialiser and once to measure them, so a dataset can be sized in bytes instead of records.
+ * The estimate includes the header of one file, which is negligible for a sample of a few thousand records.
+ */
+public final class SizeEstimator {
+    /**
+     * Default number of records of the sample.
+     */
+    public static final int DEFAULT_SAMPLE_SIZE = 2_000;
+    private static final String UNITS = "KMGTP";
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    private final int sampleSize;
+
+    /**
+     * @brief This method creates an estimator
+     * @param sampleSize number of records of the sample
+     */
+    public SizeEstimator(final int sampleSize) {
+        if (sampleSize < 1) {
+            throw new IllegalArgumentException("The sample must hold at least one record");
+        }
+        this.sampleSize = sampleSize;
+    }
+
+    /**
+     * @brief This method estimates the size and generation rate of the records
+     * @param generator function generating the record at an index, from the index 0
+     * @param serialiser serialiser of the output format
+     * @param <T> type of the records
+     * @return the estimate
+     * @throws IOException found problems serialising the sample
+     */
+    public <T> Estimate estimate(final LongFunction<T> generator, final Serialiser<T> serialiser) throws IOException {
+        requireNonNull(generator, "generator");
+        requireNonNull(serialiser, "serialiser");
+        // The first pass warms up the generators and the serialiser
+        encode(generator, serialiser);
+        long start = System.nanoTime();
+        long bytes = encode(generator, serialiser);
+        long nanos = Math.max(1, System.nanoTime() - start);
+        return new Estimate((double) bytes / sampleSize, sampleSize * NANOS_PER_SECOND / nanos);
+    }
+
+    private <T> long encode(final LongFunction<T> generator, final Serialiser<T> serialiser) throws IOException {
+        CountingOutputStream out = new CountingOutputStream(NullOutputStream.NULL_OUTPUT_STREAM);
+        serialiser.serialise(LongStream.range(0, sampleSize).mapToObj(generator), out);
+        out.flush();
+        return out.getByteCount();
+    }
+
+    /**
+     * @brief This method parses a number of bytes with an optional binary unit, such as 256M or 500GB
+     * @param size the number of bytes, followed by K, M, G, T or P for powers of 1024, and optionally by B or iB
+     * @return the number of bytes
+     */
+    public static long parseBytes(final String size) {
+        requireNonNull(size, "size");
+        String value = size.trim().toUpperCase(Locale.ROOT);
+        if (value.endsWith("IB")) {
+            value = value.substring(0, value.length() - 2);
+        } else if (value.endsWith("B")) {
+            value = value.substring(0, value.length() - 1);
+        }
+        long multiplier = 1;
+        int unit = value.isEmpty() ? -1 : UNITS.indexOf(value.charAt(value.length() - 1));
+        if (unit >= 0) {
+            multiplier = 1L << (10 * (unit + 1));
+            value = value.substring(0, value.length() - 1);
+        }
+        try {
+            double bytes = Double.parseDouble(value.trim()) * multiplier;
+            if (bytes < 1 || bytes >= Long.MAX_VALUE) {
+                throw new IllegalArgumentException("The size must be between 1 byte and 8 EiB: " + size);
+            }
+            return (long) bytes;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Cannot read the size " + size + ", expected a number of bytes such as 256M", e);
+        }
+    }
+
+    /**
+     * @brief This method formats a number of bytes with a binary unit, such as 256.0 MiB
+     * @param bytes the number of bytes
+     * @return the formatted size
+     */
+    public static String formatBytes(final double bytes) {
+        double value = bytes;
+        int unit = -1;
+        while (value >= 1024 && unit < UNITS.length() - 1) {
+            value /= 1024;
+            unit++;
+        }
+        return unit < 0 ? String.format(Locale.ROOT, "%.0f B", value)
+                : String.format(Locale.ROOT, "%.1f %ciB", value, UNITS.charAt(unit));
+    }
+
+    /**
+     * @class Estimate
+     * @brief This class holds the estimated size of a record and the rate at which records are generated on one thread
+     */
+    public static final class Estimate {
+        private final double bytesPerRecord;
+        private final double recordsPerSecond;
+
+        /**
+         * @brief This method creates an estimate
+         * @param bytesPerRecord encoded bytes of a record
+         * @param recordsPerSecond records generated and encoded per second on one thread
+         */
+        public Estimate(final double bytesPerRecord, final double recordsPerSecond) {
+            this.bytesPerRecord = bytesPerRecord;
+            this.recordsPerSecond = recordsPerSecond;
+        }
+
+        /**
+         * @brief This method returns the encoded bytes of a record
+         * @return the bytes of a record
+         */
+        public double getBytesPerRecord() {
+            return bytesPerRecord;
+        }
+
+        /**
+         * @brief This method returns the number of records generated and encoded per second on one thread
+         * @return the records per second
+         */
+        public double getRecordsPerSecond() {
+            return recordsPerSecond;
+        }
+
+        /**
+         * @brief This method estimates the number of records filling a number of bytes
+         * @param bytes the number of bytes
+         * @return the number of records, at least 1
+         */
+        public long records(final long bytes) {
+            return Math.max(1, (long) (bytes / bytesPerRecord));
+        }
+
+        /**
+         * @brief This method estimates the bytes of a number of records
+         * @param records the number of records
+         * @return the number of bytes
+         */
+        public double bytes(final long records) {
+            return records * bytesPerRecord;
+        }
+
+        /**
+         * @brief This method estimates the seconds taken to generate a number of records
+         * @param records the number of records
+         * @param threads number of threads generating records at the same time
+         * @return the number of seconds, assuming the threads scale linearly
+         */
+        public double seconds(final long records, final int threads) {
+            return records / (recordsPerSecond * Math.max(1, threads));
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2018-2021 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.syntheticdatagenerator.random;
+
+import java.nio.ByteBuffer;
+import java.security.SecureRandom;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * @enum Random Source
+ * @brief This enum lists the random number generators that can drive the data generation
+ * @details every generator is handed out as a {@link Random} so the {@code generate} methods of the types work unchanged
+ */
+public enum RandomSource {
+    /**
+     * The original {@link SecureRandom}, slow and not reproducible on most platforms
+     */
+    SECURE {
+        @Override
+        public Random create(final long seed) {
+            return new SecureRandom(longToBytes(seed));
+        }
+    },
+    /**
+     * A fast and reproducible {@link XoshiroRandom}
+     */
+    XOSHIRO {
+        @Override
+        public Random create(final long seed) {
+            return new XoshiroRandom(seed);
+        }
+    };
+
+    /**
+     * @brief This method creates a new generator
+     * @param seed seed of the generator
+     * @return the generator, which must only be used by one thread at a time
+     */
+    public abstract Random create(long seed);
+
+    /**
+     * @brief This method obtains a random source from its name, ignoring the case
+     * @param name name of the random source
+     * @return the random source
+     */
+    public static RandomSource fromName(final String name) {
+        try {
+            return RandomSource.valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown random source " + name + ", expected one of secure or xoshiro", e);
+        }
+    }
+
+    /**
+     * @brief This method converts a long value to a byte value
+     * @param x long value
+     * @return long value in bytes
+     */
+    private static byte[] longToBytes(final long x) {
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+        buffer.putLong(x);
+        return buffer.array();
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2018-2021 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.syntheticdatagenerator.random;
+
+import java.util.Random;
+
+/**
+ * @class Record Random
+ * @brief This class provides counter based randomness, where every record of a dataset has its own generator
+ * @details the generator of a record only depends on the dataset seed and the index of the record, so any record can be
+ * generated on any thread without generating the records before it
+ */
+public final class RecordRandom {
+    private static final ThreadLocal<XoshiroRandom> RANDOM = ThreadLocal.withInitial(() -> new XoshiroRandom(0));
+
+    private RecordRandom() {
+    }
+
+    /**
+     * @brief This method obtains the generator of a record
+     * @details the same instance is re-seeded on every call from a thread, so it is only valid until the next call
+     * @param seed seed of the dataset
+     * @param index index of the record in the dataset
+     * @return the generator positioned at the start of the record
+     */
+    public static Random forRecord(final long seed, final long index) {
+        XoshiroRandom random = RANDOM.get();
+        random.setSeed(recordSeed(seed, index));
+        return random;
+    }
+
+    /**
+     * @brief This method derives the seed of a record
+     * @param seed seed of the dataset
+     * @param index index of the record in the dataset
+     * @return the seed of the record, distinct for every index of the same dataset
+     */
+    public static long recordSeed(final long seed, final long index) {
+        return XoshiroRandom.mix64(XoshiroRandom.mix64(seed) + index);
+    }
+}
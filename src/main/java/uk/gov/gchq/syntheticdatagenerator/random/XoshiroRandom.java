@@ -0,0 +1,122 @@
+/*
+ * Copyright 2018-2021 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.syntheticdatagenerator.random;
+
+import java.util.Random;
+
+/**
+ * @class Xoshiro Random
+ * @brief A fast, non thread safe xoshiro256** generator exposed as a {@link Random}
+ * @details The state is seeded through SplitMix64 so that any long value, including small sequential seeds,
+ * gives a well mixed starting state. Instances must not be shared between threads, use {@link #split()} instead.
+ */
+public class XoshiroRandom extends Random {
+    private static final long serialVersionUID = 1L;
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    private static final double DOUBLE_UNIT = 0x1.0p-53;
+    private static final float FLOAT_UNIT = 0x1.0p-24f;
+
+    private long s0;
+    private long s1;
+    private long s2;
+    private long s3;
+
+    /**
+     * @brief This method creates a generator from a seed
+     * @param seed the seed value
+     */
+    public XoshiroRandom(final long seed) {
+        super(seed);
+    }
+
+    /**
+     * @brief This method re-initialises the generator state from a seed
+     * @details called by the {@link Random} constructor, so it must not rely on any field initialiser
+     * @param seed the seed value
+     */
+    @Override
+    public void setSeed(final long seed) {
+        super.setSeed(seed);
+        long x = seed;
+        x += GOLDEN_GAMMA;
+        s0 = mix64(x);
+        x += GOLDEN_GAMMA;
+        s1 = mix64(x);
+        x += GOLDEN_GAMMA;
+        s2 = mix64(x);
+        x += GOLDEN_GAMMA;
+        s3 = mix64(x);
+    }
+
+    /**
+     * @brief This method creates a new generator seeded from this one
+     * @return an independent generator
+     */
+    public XoshiroRandom split() {
+        return new XoshiroRandom(nextLong());
+    }
+
+    @Override
+    public long nextLong() {
+        final long result = Long.rotateLeft(s1 * 5, 7) * 9;
+        final long t = s1 << 17;
+        s2 ^= s0;
+        s3 ^= s1;
+        s1 ^= s2;
+        s0 ^= s3;
+        s2 ^= t;
+        s3 = Long.rotateLeft(s3, 45);
+        return result;
+    }
+
+    @Override
+    protected int next(final int bits) {
+        return (int) (nextLong() >>> (Long.SIZE - bits));
+    }
+
+    @Override
+    public int nextInt() {
+        return (int) (nextLong() >>> Integer.SIZE);
+    }
+
+    @Override
+    public double nextDouble() {
+        return (nextLong() >>> (Long.SIZE - 53)) * DOUBLE_UNIT;
+    }
+
+    @Override
+    public float nextFloat() {
+        return (nextLong() >>> (Long.SIZE - 24)) * FLOAT_UNIT;
+    }
+
+    @Override
+    public boolean nextBoolean() {
+        return nextLong() < 0;
+    }
+
+    /**
+     * @brief This method applies the SplitMix64 finaliser to a value
+     * @param value value to mix
+     * @return mixed value
+     */
+    public static long mix64(final long value) {
+        long z = value;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
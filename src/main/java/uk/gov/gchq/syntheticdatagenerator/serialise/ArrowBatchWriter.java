@@ -0,0 +1,343 @@
+/*
+ * Copyright 2018-2021 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.syntheticdatagenerator.serialise;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.BitVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.Float4Vector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.complex.ListVector;
+import org.apache.arrow.vector.complex.StructVector;
+import org.apache.arrow.vector.dictionary.Dictionary;
+import org.apache.arrow.vector.dictionary.DictionaryProvider;
+import org.apache.arrow.vector.ipc.ArrowFileWriter;
+import org.apache.arrow.vector.ipc.ArrowStreamWriter;
+import org.apache.arrow.vector.ipc.ArrowWriter;
+import org.apache.arrow.vector.types.FloatingPointPrecision;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.DictionaryEncoding;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.FieldType;
+import org.apache.avro.Schema;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandle;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An {@code ArrowBatchWriter} fills the vectors of an Arrow record batch with domain objects, through a tree of
+ * writers compiled once from their Avro schema as the {@link CompiledDatumWriter} does for the Avro encoding, and
+ * writes every full batch to an Arrow IPC file or stream.
+ * <p>
+ * Records become struct vectors, arrays list vectors and enums dictionary encoded vectors, whose indices point into a
+ * dictionary of the symbols of the enum written once at the start of the output. A null value leaves its slot unset,
+ * which Arrow reads as null, as the vectors are reset between batches.
+ * <p>
+ * Only the schemas the domain classes use are supported: records of fields, nullable unions, arrays of objects,
+ * enums, strings and the primitive types. Records nested in themselves must be unrolled first.
+ *
+ * @param <O> the domain object type
+ */
+final class ArrowBatchWriter<O> implements RecordWriter<O> {
+    private static final ArrowType.Int INDEX_TYPE = new ArrowType.Int(Integer.SIZE, true);
+    private static final String ELEMENT_NAME = "element";
+
+    private final BufferAllocator allocator;
+    private final List<FieldVector> dictionaryVectors = new ArrayList<>();
+    private final VectorSchemaRoot root;
+    private final ArrowWriter writer;
+    private final ValueWriter[] columns;
+    private final int batchSize;
+    private int rows;
+
+    /**
+     * @brief This method starts an Arrow IPC file or stream
+     * @param schema the Avro schema of the domain objects, without recursive records
+     * @param type the domain class
+     * @param batchSize number of rows of a record batch
+     * @param streamFormat if the IPC stream format is written instead of the file format
+     * @param output the output stream, closed when the writer is closed
+     * @throws IOException found problems writing the start of the output
+     */
+    ArrowBatchWriter(final Schema schema, final Class<O> type, final int batchSize, final boolean streamFormat,
+                     final OutputStream output) throws IOException {
+        this.batchSize = batchSize;
+        this.allocator = new RootAllocator();
+        VectorSchemaRoot batch = null;
+        try {
+            DictionaryProvider.MapDictionaryProvider dictionaries = new DictionaryProvider.MapDictionaryProvider();
+            Map<String, DictionaryEncoding> encodings = new HashMap<>();
+            List<Field> fields = new ArrayList<>();
+            for (Schema.Field field : schema.getFields()) {
+                fields.add(arrowField(field.name(), field.schema(), false, encodings, dictionaries));
+            }
+            batch = VectorSchemaRoot.create(new org.apache.arrow.vector.types.pojo.Schema(fields), allocator);
+            // Sized for a whole batch up front, rather than grown by doubling while the first batch is filled
+            for (FieldVector vector : batch.getFieldVectors()) {
+                vector.setInitialCapacity(batchSize);
+                vector.allocateNew();
+            }
+            this.columns = new ValueWriter[fields.size()];
+            for (int i = 0; i < columns.length; i++) {
+                Schema.Field field = schema.getFields().get(i);
+                columns[i] = compileField(field, type, batch.getVector(field.name()));
+            }
+            this.writer = streamFormat ? new ArrowStreamWriter(batch, dictionaries, Channels.newChannel(output))
+                    : new ArrowFileWriter(batch, dictionaries, Channels.newChannel(output));
+            writer.start();
+        } catch (IOException | RuntimeException e) {
+            closeVectors(batch);
+            throw e;
+        }
+        this.root = batch;
+    }
+
+    /**
+     * @brief This method adds one object to the batch, and writes the batch when it is full
+     * @param object the object to write
+     * @throws IOException found problems writing the batch
+     */
+    @Override
+    public void write(final O object) throws IOException {
+        for (ValueWriter column : columns) {
+            column.write(object, rows);
+        }
+        rows++;
+        if (rows == batchSize) {
+            writeBatch();
+        }
+    }
+
+    /**
+     * @brief This method writes the last batch and the end of the output, and releases the vectors
+     * @throws IOException found problems writing the output
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (rows > 0) {
+                writeBatch();
+            }
+            writer.end();
+        } finally {
+            writer.close();
+            closeVectors(root);
+        }
+    }
+
+    private void writeBatch() throws IOException {
+        root.setRowCount(rows);
+        writer.writeBatch();
+        // The buffers keep their capacity for the next batch
+        for (FieldVector vector : root.getFieldVectors()) {
+            vector.reset();
+        }
+        rows = 0;
+    }
+
+    private void closeVectors(final VectorSchemaRoot batch) {
+        if (batch != null) {
+            batch.close();
+        }
+        for (FieldVector dictionary : dictionaryVectors) {
+            dictionary.close();
+        }
+        allocator.close();
+    }
+
+    /**
+     * @brief This method converts the schema of a value to an Arrow field
+     * @param name name of the field
+     * @param schema the schema of the value
+     * @param nullable if the value may be null
+     * @param encodings the dictionary encoding of every enum already converted, by full name
+     * @param dictionaries the dictionaries of the enums
+     * @return the field
+     */
+    private Field arrowField(final String name, final Schema schema, final boolean nullable,
+                             final Map<String, DictionaryEncoding> encodings,
+                             final DictionaryProvider.MapDictionaryProvider dictionaries) {
+        switch (schema.getType()) {
+            case UNION:
+                return arrowField(name, JsonWriter.nonNullBranch(schema, Object.class), true, encodings, dictionaries);
+            case RECORD:
+                List<Field> children = new ArrayList<>();
+                for (Schema.Field field : schema.getFields()) {
+                    children.add(arrowField(field.name(), field.schema(), false, encodings, dictionaries));
+                }
+                return new Field(name, new FieldType(nullable, ArrowType.Struct.INSTANCE, null), children);
+            case ARRAY:
+                Field element = arrowField(ELEMENT_NAME, schema.getElementType(), false, encodings, dictionaries);
+                return new Field(name, new FieldType(nullable, ArrowType.List.INSTANCE, null), Collections.singletonList(element));
+            case ENUM:
+                // Every enum is encoded with one dictionary, however many fields it is used in
+                DictionaryEncoding encoding = encodings.get(schema.getFullName());
+                if (encoding == null) {
+                    encoding = new DictionaryEncoding(encodings.size(), false, INDEX_TYPE);
+                    encodings.put(schema.getFullName(), encoding);
+                    dictionaries.put(new Dictionary(symbols(schema), encoding));
+                }
+                return new Field(name, new FieldType(nullable, INDEX_TYPE, encoding), null);
+            case STRING:
+                return new Field(name, new FieldType(nullable, ArrowType.Utf8.INSTANCE, null), null);
+            case INT:
+                return new Field(name, new FieldType(nullable, new ArrowType.Int(Integer.SIZE, true), null), null);
+            case LONG:
+                return new Field(name, new FieldType(nullable, new ArrowType.Int(Long.SIZE, true), null), null);
+            case FLOAT:
+                return new Field(name, new FieldType(nullable, new ArrowType.FloatingPoint(FloatingPointPrecision.SINGLE), null), null);
+            case DOUBLE:
+                return new Field(name, new FieldType(nullable, new ArrowType.FloatingPoint(FloatingPointPrecision.DOUBLE), null), null);
+            case BOOLEAN:
+                return new Field(name, new FieldType(nullable, ArrowType.Bool.INSTANCE, null), null);
+            default:
+                throw new UnsupportedOperationException("No Arrow type for " + schema);
+        }
+    }
+
+    private VarCharVector symbols(final Schema schema) {
+        List<String> symbols = schema.getEnumSymbols();
+        VarCharVector vector = new VarCharVector(schema.getName(), allocator);
+        dictionaryVectors.add(vector);
+        vector.allocateNew(symbols.size());
+        for (int i = 0; i < symbols.size(); i++) {
+            vector.setSafe(i, symbols.get(i).getBytes(StandardCharsets.UTF_8));
+        }
+        vector.setValueCount(symbols.size());
+        return vector;
+    }
+
+    private static ValueWriter compile(final Schema schema, final Class<?> type, final FieldVector vector) {
+        switch (schema.getType()) {
+            case UNION:
+                ValueWriter nonNull = compile(JsonWriter.nonNullBranch(schema, type), type, vector);
+                return (value, index) -> {
+                    if (value != null) {
+                        nonNull.write(value, index);
+                    }
+                };
+            case RECORD:
+                StructVector struct = (StructVector) vector;
+                List<Schema.Field> fields = schema.getFields();
+                ValueWriter[] fieldWriters = new ValueWriter[fields.size()];
+                for (int i = 0; i < fieldWriters.length; i++) {
+                    fieldWriters[i] = compileField(fields.get(i), type, struct.getChild(fields.get(i).name()));
+                }
+                return (value, index) -> {
+                    struct.setIndexDefined(index);
+                    for (ValueWriter fieldWriter : fieldWriters) {
+                        fieldWriter.write(value, index);
+                    }
+                };
+            case ARRAY:
+                if (!type.isArray() || type.getComponentType().isPrimitive()) {
+                    throw unsupported(schema, type);
+                }
+                ListVector list = (ListVector) vector;
+                ValueWriter elementWriter = compile(schema.getElementType(), type.getComponentType(), list.getDataVector());
+                return (value, index) -> {
+                    Object[] elements = (Object[]) value;
+                    int first = list.startNewValue(index);
+                    for (int i = 0; i < elements.length; i++) {
+                        elementWriter.write(elements[i], first + i);
+                    }
+                    list.endValue(index, elements.length);
+                };
+            case ENUM:
+                if (!type.isEnum()) {
+                    throw unsupported(schema, type);
+                }
+                // The index of every constant in the dictionary, which lists the symbols in the order of the schema
+                Object[] constants = type.getEnumConstants();
+                int[] indices = new int[constants.length];
+                for (int i = 0; i < constants.length; i++) {
+                    indices[i] = schema.getEnumOrdinal(((Enum<?>) constants[i]).name());
+                }
+                IntVector enumVector = (IntVector) vector;
+                return (value, index) -> enumVector.setSafe(index, indices[((Enum<?>) value).ordinal()]);
+            case STRING:
+                VarCharVector varChars = (VarCharVector) vector;
+                return (value, index) -> varChars.setSafe(index, value.toString().getBytes(StandardCharsets.UTF_8));
+            case INT:
+                IntVector ints = (IntVector) vector;
+                return (value, index) -> ints.setSafe(index, ((Number) value).intValue());
+            case LONG:
+                BigIntVector longs = (BigIntVector) vector;
+                return (value, index) -> longs.setSafe(index, ((Number) value).longValue());
+            case FLOAT:
+                Float4Vector floats = (Float4Vector) vector;
+                return (value, index) -> floats.setSafe(index, ((Number) value).floatValue());
+            case DOUBLE:
+                Float8Vector doubles = (Float8Vector) vector;
+                return (value, index) -> doubles.setSafe(index, ((Number) value).doubleValue());
+            case BOOLEAN:
+                BitVector booleans = (BitVector) vector;
+                return (value, index) -> booleans.setSafe(index, (Boolean) value ? 1 : 0);
+            default:
+                throw unsupported(schema, type);
+        }
+    }
+
+    /**
+     * @brief This method compiles the writer of a field, reading the field of a record and writing it at the same row
+     * @param schemaField the field of the schema
+     * @param type the class of the records
+     * @param vector the vector of the field
+     * @return the writer, taking the record
+     */
+    private static ValueWriter compileField(final Schema.Field schemaField, final Class<?> type, final FieldVector vector) {
+        java.lang.reflect.Field field = FieldAccess.field(type, schemaField.name());
+        Class<?> fieldType = field.getType();
+        if (fieldType == int.class) {
+            MethodHandle intGetter = FieldAccess.getter(field, int.class);
+            IntVector ints = (IntVector) vector;
+            return (record, index) -> ints.setSafe(index, FieldAccess.getInt(intGetter, record));
+        } else if (fieldType == long.class) {
+            MethodHandle longGetter = FieldAccess.getter(field, long.class);
+            BigIntVector longs = (BigIntVector) vector;
+            return (record, index) -> longs.setSafe(index, FieldAccess.getLong(longGetter, record));
+        }
+        MethodHandle getter = FieldAccess.getter(field, Object.class);
+        ValueWriter valueWriter = compile(schemaField.schema(), FieldAccess.boxed(fieldType), vector);
+        return (record, index) -> valueWriter.write(FieldAccess.get(getter, record), index);
+    }
+
+    private static UnsupportedOperationException unsupported(final Schema schema, final Class<?> type) {
+        return new UnsupportedOperationException("Cannot write " + type + " with schema " + schema + " to Arrow");
+    }
+
+    /**
+     * Writes a value, or a record for the writers of fields, at a row of a vector.
+     */
+    @FunctionalInterface
+    private interface ValueWriter {
+        void write(Object value, int index);
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2018-2021 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.syntheticdatagenerator.serialise;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.apache.avro.Schema;
+import org.apache.avro.reflect.ReflectData;
+import org.apache.commons.io.output.CloseShieldOutputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import static java.util.Objects.nonNull;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An {@code ArrowSerialiser} is used to serialise domain objects to the Arrow IPC formats, in which the columns of a
+ * batch of rows are stored as they are laid out in memory, so a consumer can map a file and read its vectors without
+ * decoding them. The rows are gathered into record batches of a configurable number of rows, enums are dictionary
+ * encoded and arrays are written as list vectors.
+ * <p>
+ * The file format, with a footer indexing the record batches, is written by default, and the stream format, for a
+ * consumer reading the batches as they are written, on demand. The buffers are not compressed, as compressed buffers
+ * would have to be decompressed by the consumer.
+ * <p>
+ * Arrow has no recursive types, so a record nested in itself, such as the managers of a manager, is unrolled into a
+ * fixed number of levels, and deeper levels are left out. Arrow allocates its buffers off heap, which on Java 9 or
+ * later needs the JVM to be started with {@code --add-opens=java.base/java.nio=ALL-UNNAMED}.
+ *
+ * @param <O> the domain object type
+ */
+public class ArrowSerialiser<O> implements Serialiser<O> {
+    private static final long serialVersionUID = 1L;
+    /**
+     * @brief Default number of rows of a record batch
+     */
+    public static final int DEFAULT_BATCH_SIZE = 8_192;
+    /**
+     * @brief Default number of levels of a record nested in itself, enough for the deepest chain of managers
+     */
+    public static final int DEFAULT_RECURSION_LEVELS = 4;
+
+    private final Class<O> domainClass;
+    private transient Schema schema;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private boolean streamFormat = false;
+
+    /**
+     * @brief This method builds a serialiser writing the domain objects to Arrow IPC files
+     * @param domainClass class domain
+     */
+    @JsonCreator
+    public ArrowSerialiser(@JsonProperty("domainClass") final Class<O> domainClass) {
+        requireNonNull(domainClass, "domainClass is required");
+        this.domainClass = domainClass;
+        this.schema = RecursiveSchemas.unroll(ReflectData.AllowNull.get().getSchema(domainClass), DEFAULT_RECURSION_LEVELS);
+    }
+
+    /**
+     * @brief This method selects the number of rows of the record batches
+     * @details a batch is filled in memory before it is written, and is the unit the consumers read
+     * @param rows number of rows of a batch
+     * @return this serialiser
+     */
+    public ArrowSerialiser<O> batchSize(final int rows) {
+        if (rows < 1) {
+            throw new IllegalArgumentException("The batch size must be positive");
+        }
+        this.batchSize = rows;
+        return this;
+    }
+
+    /**
+     * @brief This method selects whether the IPC stream format is written instead of the file format
+     * @details the stream format has no footer, so it can be read while it is written but not mapped in random order
+     * @param enabled if the stream format is written
+     * @return this serialiser
+     */
+    public ArrowSerialiser<O> streamFormat(final boolean enabled) {
+        this.streamFormat = enabled;
+        return this;
+    }
+
+    /**
+     * @brief This method selects the number of levels of a record nested in itself that are written
+     * @param levels number of levels
+     * @return this serialiser
+     */
+    public ArrowSerialiser<O> recursionLevels(final int levels) {
+        if (levels < 1) {
+            throw new IllegalArgumentException("At least one level must be written");
+        }
+        this.schema = RecursiveSchemas.unroll(ReflectData.AllowNull.get().getSchema(domainClass), levels);
+        return this;
+    }
+
+    /**
+     * @brief This method serializes the objects to an Arrow IPC file or stream
+     * @details the output stream is flushed but not closed
+     * @param objects the stream of objects to be serialised
+     * @param output the output stream to write the serialised bytes to
+     * @throws IOException found problems in the serialization process
+     */
+    @Override
+    public void serialise(final Stream<O> objects, final OutputStream output) throws IOException {
+        requireNonNull(output, "output");
+        if (nonNull(objects)) {
+            try (RecordWriter<O> writer = createWriter(new CloseShieldOutputStream(output))) {
+                Iterator<O> objectIt = objects.iterator();
+                while (objectIt.hasNext()) {
+                    writer.write(objectIt.next());
+                }
+            }
+            output.flush();
+        }
+    }
+
+    /**
+     * @brief This method opens a writer appending objects one at a time to an Arrow IPC file or stream
+     * @param output the output stream to write the serialised bytes to
+     * @return the writer
+     * @throws IOException found problems starting the output
+     */
+    @Override
+    public RecordWriter<O> createWriter(final OutputStream output) throws IOException {
+        requireNonNull(output, "output");
+        return new ArrowBatchWriter<>(schema, domainClass, batchSize, streamFormat, output);
+    }
+
+    /**
+     * @brief This method is not supported, as the Arrow files are meant to be read as vectors rather than objects
+     * @param input the input stream
+     * @return never returns
+     */
+    @Override
+    public Stream<O> deserialise(final InputStream input) {
+        throw new UnsupportedOperationException("Arrow files cannot be deserialised to objects");
+    }
+
+    /**
+     * @brief This method returns the Avro schema the vectors are built from, after unrolling the nested records
+     * @return the schema
+     */
+    public Schema getSchema() {
+        return schema;
+    }
+
+    /**
+     * @brief This method return the domain class
+     * @return the domain class
+     */
+    public Class<O> getDomainClass() {
+        return domainClass;
+    }
+}
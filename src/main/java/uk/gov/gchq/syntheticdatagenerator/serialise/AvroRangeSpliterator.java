@@ -0,0 +1,162 @@
+/*
+ * Copyright 2018-2021 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.syntheticdatagenerator.serialise;
+
+import org.apache.avro.Schema;
+import org.apache.avro.file.DataFileReader;
+import org.apache.avro.file.SeekableInput;
+import org.apache.avro.reflect.ReflectDatumReader;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Queue;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * An {@code AvroRangeSpliterator} reads the records of the blocks of an Avro file that start in a range of bytes.
+ * <p>
+ * Splitting halves the range, and each half later opens the file on its own, seeks to the first sync marker after
+ * the start of its range and reads every block up to the first sync marker after its end, so every block is read by
+ * exactly one range whatever the split points, as in Hadoop's Avro input format. Ranges are split until they are
+ * smaller than a minimum number of bytes, and only before they start reading.
+ * <p>
+ * With reuse, every range decodes its records into one instance of its own, so a parallel stream recycles one
+ * instance per thread.
+ * <p>
+ * The ranges open their input from a source shared by all the ranges of the file, such as a new file input or a
+ * duplicate of one mapping of the file.
+ * <p>
+ * The readers are registered with a queue shared by all the ranges of the file, for the stream to close those left
+ * open when it is closed before the end.
+ *
+ * @param <O> the domain object type
+ */
+final class AvroRangeSpliterator<O> implements Spliterator<O> {
+    /**
+     * Opens an input of the file for every range that starts reading.
+     */
+    @FunctionalInterface
+    interface InputSource {
+        /**
+         * @brief This method opens an input of the whole file
+         * @return the input, closed by the range once read
+         * @throws IOException found problems opening the file
+         */
+        SeekableInput open() throws IOException;
+    }
+
+    private final String name;
+    private final InputSource source;
+    private final Schema schema;
+    private final boolean reuse;
+    private final long minSplitBytes;
+    private final Queue<Closeable> openReaders;
+    private long start;
+    private final long end;
+    private DataFileReader<O> reader;
+    private boolean done;
+    private O reused;
+
+    /**
+     * @param name the name of the file, for errors
+     * @param source the source of the inputs of the file
+     * @param schema the schema of the fields of the domain objects to read
+     * @param reuse if the records are decoded into one recycled instance
+     * @param start first byte of the range
+     * @param end byte after the range
+     * @param minSplitBytes ranges this small are not split
+     * @param openReaders the readers opened by the ranges of the file, closed with the stream
+     */
+    AvroRangeSpliterator(final String name, final InputSource source, final Schema schema, final boolean reuse,
+                         final long start, final long end, final long minSplitBytes, final Queue<Closeable> openReaders) {
+        this.name = name;
+        this.source = source;
+        this.schema = schema;
+        this.reuse = reuse;
+        this.start = start;
+        this.end = end;
+        this.minSplitBytes = minSplitBytes;
+        this.openReaders = openReaders;
+    }
+
+    @Override
+    public boolean tryAdvance(final Consumer<? super O> action) {
+        if (done) {
+            return false;
+        }
+        try {
+            if (reader == null) {
+                open();
+            }
+            if (reader.hasNext() && !reader.pastSync(end)) {
+                O record = reader.next(reused);
+                if (reuse) {
+                    reused = record;
+                }
+                action.accept(record);
+                return true;
+            }
+            close();
+            return false;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read " + name, e);
+        }
+    }
+
+    @Override
+    public Spliterator<O> trySplit() {
+        if (reader != null || done || end - start < 2 * minSplitBytes) {
+            return null;
+        }
+        // An ordered spliterator hands over the first half and keeps the second
+        long middle = start + (end - start) / 2;
+        Spliterator<O> prefix = new AvroRangeSpliterator<>(name, source, schema, reuse, start, middle, minSplitBytes, openReaders);
+        start = middle;
+        return prefix;
+    }
+
+    /**
+     * @brief This method estimates the size of the range in bytes, as the number of records is not known in advance
+     * @return the number of bytes of the range
+     */
+    @Override
+    public long estimateSize() {
+        return done ? 0 : end - start;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL;
+    }
+
+    private void open() throws IOException {
+        reader = new DataFileReader<>(source.open(), new ReflectDatumReader<>(schema));
+        openReaders.add(reader);
+        // The header ends with the sync marker, so the range starting at 0 finds the first block too
+        reader.sync(start);
+    }
+
+    private void close() throws IOException {
+        done = true;
+        if (reader != null) {
+            openReaders.remove(reader);
+            reader.close();
+        }
+    }
+}
@@ -19,18 +19,36 @@ package uk.gov.gchq.syntheticdatagenerator.serialise;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import org.apache.avro.Schema;
+import org.apache.avro.file.CodecFactory;
 import org.apache.avro.file.DataFileStream;
 import org.apache.avro.file.DataFileWriter;
+import org.apache.avro.file.SeekableFileInput;
+import org.apache.avro.io.DatumWriter;
 import org.apache.avro.reflect.ReflectData;
 import org.apache.avro.reflect.ReflectDatumReader;
 import org.apache.avro.reflect.ReflectDatumWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
@@ -47,10 +65,25 @@ import static java.util.Objects.requireNonNull;
 public class AvroSerialiser<O> implements Serialiser<O> {
     private static final long serialVersionUID = 1L;
     private static final Logger LOGGER = LoggerFactory.getLogger(AvroSerialiser.class);
-    private final ReflectDatumWriter<O> datumWriter;
+    private static final String LEVEL_SEPARATOR = ":";
+    /**
+     * @brief Default size in bytes below which the ranges of a file read in parallel are not split
+     */
+    public static final long DEFAULT_MIN_SPLIT_SIZE = 16L << 20;
+    private final DatumWriter<O> datumWriter;
 
     private final Class<O> domainClass;
     private final Schema schema;
+    // Codec of the files, or null for Avro's default of no compression
+    private transient CodecFactory codec;
+    // Approximate number of bytes of a block, or 0 for Avro's default
+    private int syncInterval;
+    // Size of the output buffer holding several blocks, or 0 to write every block as soon as it is complete
+    private int bufferSize;
+    // Optional pool encoding whole blocks in parallel
+    private transient ExecutorService encoders;
+    private int recordsPerBlock;
+    private int blocksAhead;
 
     /**
      * @brief This method builds a domain in order to create serialization in avro format
@@ -61,7 +94,111 @@ public class AvroSerialiser<O> implements Serialiser<O> {
         requireNonNull(domainClass, "domainClass is required");
         this.domainClass = domainClass;
         this.schema = ReflectData.AllowNull.get().getSchema(domainClass);
-        this.datumWriter = new ReflectDatumWriter<>(schema);
+        this.datumWriter = createDatumWriter(domainClass, schema);
+    }
+
+    /**
+     * @brief This method creates the writer of the domain objects
+     * @details the writer is compiled from the schema when the domain class only uses the supported types, otherwise
+     * the objects are written by reflection
+     * @param domainClass class domain
+     * @param schema schema of the domain class
+     * @param <O> the domain object type
+     * @return the writer
+     */
+    private static <O> DatumWriter<O> createDatumWriter(final Class<O> domainClass, final Schema schema) {
+        try {
+            return CompiledDatumWriter.compile(domainClass, schema);
+        } catch (UnsupportedOperationException e) {
+            LOGGER.debug("Writing {} by reflection: {}", domainClass.getSimpleName(), e.getMessage());
+            return new ReflectDatumWriter<>(schema);
+        }
+    }
+
+    /**
+     * @brief This method selects the codec compressing the blocks of the files
+     * @param codecFactory the codec, or null for no compression
+     * @return this serialiser
+     */
+    public AvroSerialiser<O> codec(final CodecFactory codecFactory) {
+        this.codec = codecFactory;
+        return this;
+    }
+
+    /**
+     * @brief This method selects the approximate size of the blocks of the files
+     * @details the blocks are the units Avro files are split at, so larger blocks compress better while smaller ones
+     * split a file into more parts for parallel readers
+     * @param blockBytes approximate number of uncompressed bytes of a block, or 0 for Avro's default of 64000
+     * @return this serialiser
+     */
+    public AvroSerialiser<O> syncInterval(final int blockBytes) {
+        if (blockBytes < 0) {
+            throw new IllegalArgumentException("The sync interval must not be negative");
+        }
+        this.syncInterval = blockBytes;
+        return this;
+    }
+
+    /**
+     * @brief This method buffers the output, so that several blocks are written to the output stream at once
+     * @param bytes size of the output buffer, or 0 to write every block to the output stream as soon as it is complete
+     * @return this serialiser
+     */
+    public AvroSerialiser<O> bufferSize(final int bytes) {
+        if (bytes < 0) {
+            throw new IllegalArgumentException("The buffer size must not be negative");
+        }
+        this.bufferSize = bytes;
+        return this;
+    }
+
+    /**
+     * @brief This method obtains a codec from its name
+     * @details the names are those of Avro, null, deflate, snappy, bzip2 and xz, and deflate and xz may be followed by
+     * a compression level, as in deflate:6. Zstandard is only available from Avro 1.9 and is rejected.
+     * @param name name of the codec
+     * @return the codec
+     */
+    public static CodecFactory codecFromName(final String name) {
+        requireNonNull(name, "name");
+        String[] parts = name.toLowerCase(Locale.ROOT).split(LEVEL_SEPARATOR, 2);
+        String codecName = parts[0];
+        if (codecName.startsWith("zstd") || codecName.startsWith("zstandard")) {
+            throw new IllegalArgumentException("The zstandard codec needs Avro 1.9 or later");
+        }
+        if (parts.length == 1) {
+            return CodecFactory.fromString(codecName);
+        }
+        int level = Integer.parseInt(parts[1]);
+        switch (codecName) {
+            case "deflate":
+                return CodecFactory.deflateCodec(level);
+            case "xz":
+                return CodecFactory.xzCodec(level);
+            default:
+                throw new IllegalArgumentException("The " + codecName + " codec has no compression level");
+        }
+    }
+
+    /**
+     * @brief This method encodes and compresses the blocks of the files on a pool of threads
+     * @details the records are cut into blocks of recordsPerBlock records, encoded in parallel and appended to the
+     * file in order by the thread writing the file
+     * @param encoderPool executor encoding the blocks, it can be shared between files
+     * @param blockSize number of records in a block
+     * @param maxBlocksAhead maximum number of blocks of a file encoded ahead of its writer
+     * @return this serialiser
+     */
+    public AvroSerialiser<O> encodeInParallel(final ExecutorService encoderPool, final int blockSize, final int maxBlocksAhead) {
+        requireNonNull(encoderPool, "encoderPool");
+        if (blockSize < 1 || maxBlocksAhead < 1) {
+            throw new IllegalArgumentException("The block size and the number of blocks ahead must be at least 1");
+        }
+        this.encoders = encoderPool;
+        this.recordsPerBlock = blockSize;
+        this.blocksAhead = maxBlocksAhead;
+        return this;
     }
 
     /**
@@ -72,12 +209,173 @@ public class AvroSerialiser<O> implements Serialiser<O> {
      */
     @Override
     public Stream<O> deserialise(final InputStream input) throws IOException {
-        DataFileStream<O> in;
-        in = new DataFileStream<>(input, new ReflectDatumReader<>(schema));
+        return deserialise(input, schema, false);
+    }
+
+    /**
+     * @brief This method deserializes the fields of a projection of the objects
+     * @details the fields left out of the projection are skipped by the decoder rather than decoded, and are left
+     * null, or 0, in the objects. With reuse, every object is decoded into the same instance, which is only valid
+     * until the next object is read, so it must not be kept, collected or handed to another thread
+     * @param input the stream of objects to be deserialized
+     * @param projection the schema of the fields to read, from {@link #projection(String...)}, or the full schema
+     * @param reuse if the objects are decoded into one recycled instance
+     * @return the output stream, to be closed to close the input
+     * @throws IOException found problems in the deserialization process
+     */
+    public Stream<O> deserialise(final InputStream input, final Schema projection, final boolean reuse) throws IOException {
+        requireNonNull(projection, "projection");
+        DataFileStream<O> in = new DataFileStream<>(input, new ReflectDatumReader<>(projection));
 
         //Don't use try-with-resources here! This input stream needs to stay open until it is closed manually by the
         //stream it is feeding below
-        return StreamSupport.stream(in.spliterator(), false);
+        Spliterator<O> records = new Spliterators.AbstractSpliterator<O>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            private O reused;
+
+            @Override
+            public boolean tryAdvance(final Consumer<? super O> action) {
+                if (!in.hasNext()) {
+                    return false;
+                }
+                try {
+                    O record = in.next(reused);
+                    if (reuse) {
+                        reused = record;
+                    }
+                    action.accept(record);
+                    return true;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+        return StreamSupport.stream(records, false).onClose(() -> {
+            try {
+                in.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * @brief This method deserializes an Avro file, in parallel when the returned stream is made parallel
+     * @details the file is split at its sync markers into ranges of at least DEFAULT_MIN_SPLIT_SIZE bytes, each read
+     * by its own reader, so the blocks of a large file are decoded on every thread of a parallel stream
+     * @param file the Avro file
+     * @return the sequential stream of objects, in the order of the file, to be closed to release the readers
+     * @throws IOException found problems opening the file
+     */
+    public Stream<O> deserialise(final File file) throws IOException {
+        return deserialise(file, schema, false, DEFAULT_MIN_SPLIT_SIZE);
+    }
+
+    /**
+     * @brief This method deserializes an Avro file, in parallel when the returned stream is made parallel
+     * @details the file is split at its sync markers into ranges, each read by its own reader
+     * @param file the Avro file
+     * @param minSplitBytes ranges of the file this small are not split further
+     * @return the sequential stream of objects, in the order of the file, to be closed to release the readers
+     * @throws IOException found problems opening the file
+     */
+    public Stream<O> deserialise(final File file, final long minSplitBytes) throws IOException {
+        return deserialise(file, schema, false, minSplitBytes);
+    }
+
+    /**
+     * @brief This method deserializes the fields of a projection of the objects of an Avro file, in parallel when
+     * the returned stream is made parallel
+     * @details the file is split at its sync markers into ranges, each read by its own reader. With reuse, every range
+     * decodes its objects into one instance of its own, so a parallel stream recycles one instance per thread, which
+     * is only valid until that thread reads the next object
+     * @param file the Avro file
+     * @param projection the schema of the fields to read, from {@link #projection(String...)}, or the full schema
+     * @param reuse if the objects of a range are decoded into one recycled instance
+     * @param minSplitBytes ranges of the file this small are not split further
+     * @return the sequential stream of objects, in the order of the file, to be closed to release the readers
+     * @throws IOException found problems opening the file
+     */
+    public Stream<O> deserialise(final File file, final Schema projection, final boolean reuse, final long minSplitBytes) throws IOException {
+        requireNonNull(file, "file");
+        requireNonNull(projection, "projection");
+        if (minSplitBytes < 1) {
+            throw new IllegalArgumentException("The minimum split size must be positive");
+        }
+        if (!file.isFile()) {
+            throw new FileNotFoundException(file.getPath());
+        }
+        return deserialise(file.getPath(), () -> new SeekableFileInput(file), file.length(), projection, reuse, minSplitBytes);
+    }
+
+    /**
+     * @brief This method deserializes an Avro file mapped into memory, in parallel when the returned stream is made
+     * parallel
+     * @details the file is mapped once and split at its sync markers into ranges of at least DEFAULT_MIN_SPLIT_SIZE
+     * bytes, each reading the mapping from its own position, so the blocks are read from the page cache without a
+     * system call per read
+     * @param path the Avro file
+     * @return the sequential stream of objects, in the order of the file, to be closed to release the readers
+     * @throws IOException found problems opening or mapping the file
+     */
+    public Stream<O> deserialise(final Path path) throws IOException {
+        return deserialise(path, schema, false, DEFAULT_MIN_SPLIT_SIZE);
+    }
+
+    /**
+     * @brief This method deserializes the fields of a projection of the objects of an Avro file mapped into memory,
+     * in parallel when the returned stream is made parallel
+     * @details the file is mapped once and split at its sync markers into ranges, each reading the mapping from its
+     * own position. With reuse, every range decodes its objects into one instance of its own
+     * @param path the Avro file
+     * @param projection the schema of the fields to read, from {@link #projection(String...)}, or the full schema
+     * @param reuse if the objects of a range are decoded into one recycled instance
+     * @param minSplitBytes ranges of the file this small are not split further
+     * @return the sequential stream of objects, in the order of the file, to be closed to release the readers
+     * @throws IOException found problems opening or mapping the file
+     */
+    public Stream<O> deserialise(final Path path, final Schema projection, final boolean reuse, final long minSplitBytes) throws IOException {
+        requireNonNull(path, "path");
+        requireNonNull(projection, "projection");
+        if (minSplitBytes < 1) {
+            throw new IllegalArgumentException("The minimum split size must be positive");
+        }
+        MappedFileInput mapped = new MappedFileInput(path);
+        return deserialise(path.toString(), mapped::duplicate, mapped.length(), projection, reuse, minSplitBytes);
+    }
+
+    private Stream<O> deserialise(final String name, final AvroRangeSpliterator.InputSource source, final long length,
+                                  final Schema projection, final boolean reuse, final long minSplitBytes) {
+        Queue<Closeable> openReaders = new ConcurrentLinkedQueue<>();
+        Spliterator<O> ranges = new AvroRangeSpliterator<>(name, source, projection, reuse, 0, length, minSplitBytes, openReaders);
+        return StreamSupport.stream(ranges, false)
+                .onClose(() -> {
+                    for (Closeable reader = openReaders.poll(); reader != null; reader = openReaders.poll()) {
+                        try {
+                            reader.close();
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }
+                });
+    }
+
+    /**
+     * @brief This method builds the schema of a projection of the domain objects, for reading only some of their
+     * fields
+     * @param fieldNames names of the top level fields to read, such as uid and salaryAmount
+     * @return the schema of the projection, a record with the name of the domain class and only those fields
+     */
+    public Schema projection(final String... fieldNames) {
+        List<Schema.Field> fields = new ArrayList<>();
+        for (String fieldName : fieldNames) {
+            Schema.Field field = schema.getField(fieldName);
+            if (field == null) {
+                throw new IllegalArgumentException("No field " + fieldName + " in " + schema.getName());
+            }
+            // A field belongs to one schema, so it is copied
+            fields.add(new Schema.Field(field.name(), field.schema(), field.doc(), field.defaultVal()));
+        }
+        return Schema.createRecord(schema.getName(), schema.getDoc(), schema.getNamespace(), schema.isError(), fields);
     }
 
     /**
@@ -88,14 +386,38 @@ public class AvroSerialiser<O> implements Serialiser<O> {
      */
     @Override
     public void serialise(final Stream<O> objects, final OutputStream output) throws IOException {
+        serialise(objects, output, null);
+    }
+
+    /**
+     * @brief This method serialize the format of the input data using a given sync marker
+     * @details a fixed sync marker makes the output reproducible, as Avro otherwise picks a random one for every file
+     * @param objects the stream of objects to be serialised
+     * @param output  the output stream to write the serialised bytes to
+     * @param syncMarker the 16 byte sync marker of the file, or null for a random one
+     * @throws IOException found problems in the serialization process
+     */
+    public void serialise(final Stream<O> objects, final OutputStream output, final byte[] syncMarker) throws IOException {
         requireNonNull(output, "output");
-        if (nonNull(objects)) {
+        // The failures of the stream or of the writer are thrown, so a caller never takes a partial file for a whole one
+        if (nonNull(objects) && nonNull(encoders)) {
+            try (RecordWriter<O> writer = createWriter(output, syncMarker)) {
+                Iterator<O> objectIt = objects.iterator();
+                while (objectIt.hasNext()) {
+                    writer.write(objectIt.next());
+                }
+            }
+        } else if (nonNull(objects)) {
             //create a data file writer around the output stream
             //since we didn't create the output stream, we shouldn't close it either, someone else might want it afterwards!
-            final DataFileWriter<O> dataFileWriter = new DataFileWriter<>(datumWriter);
+            final DataFileWriter<O> dataFileWriter = newFileWriter();
             LOGGER.debug("Creating data file writer");
             try {
-                dataFileWriter.create(schema, output);
+                if (syncMarker == null) {
+                    dataFileWriter.create(schema, buffer(output));
+                } else {
+                    dataFileWriter.create(schema, buffer(output), syncMarker);
+                }
                 //iterate and append items -- we can't use forEach on the stream as the lambda can't throw an IOException
                 Iterator<O> objectIt = objects.iterator();
 
@@ -104,8 +426,6 @@ public class AvroSerialiser<O> implements Serialiser<O> {
                     dataFileWriter.append(next);
                 }
 
-            } catch (Exception ex) {
-                LOGGER.error("Error occurred: {}", ex.getMessage());
             } finally {
                 try {
                     dataFileWriter.flush();
@@ -117,6 +437,75 @@ public class AvroSerialiser<O> implements Serialiser<O> {
         }
     }
 
+    /**
+     * @brief This method opens a writer appending objects one at a time to an Avro file
+     * @param output the output stream to write the serialised bytes to
+     * @return the writer
+     * @throws IOException found problems writing the header of the file
+     */
+    @Override
+    public RecordWriter<O> createWriter(final OutputStream output) throws IOException {
+        return createWriter(output, null);
+    }
+
+    /**
+     * @brief This method opens a writer appending objects one at a time to an Avro file with a given sync marker
+     * @param output the output stream to write the serialised bytes to
+     * @param syncMarker the 16 byte sync marker of the file, or null for a random one
+     * @return the writer
+     * @throws IOException found problems writing the header of the file
+     */
+    public RecordWriter<O> createWriter(final OutputStream output, final byte[] syncMarker) throws IOException {
+        requireNonNull(output, "output");
+        final DataFileWriter<O> dataFileWriter = newFileWriter();
+        if (syncMarker == null) {
+            dataFileWriter.create(schema, buffer(output));
+        } else {
+            dataFileWriter.create(schema, buffer(output), syncMarker);
+        }
+        if (nonNull(encoders)) {
+            return new ParallelBlockWriter<>(dataFileWriter, this::newFileWriter, schema, encoders, recordsPerBlock, blocksAhead);
+        }
+        return new RecordWriter<O>() {
+            @Override
+            public void write(final O object) throws IOException {
+                dataFileWriter.append(object);
+            }
+
+            @Override
+            public void close() throws IOException {
+                dataFileWriter.close();
+            }
+        };
+    }
+
+    /**
+     * @brief This method creates a data file writer with the codec and sync interval of the serialiser
+     * @return the data file writer, not created yet
+     */
+    private DataFileWriter<O> newFileWriter() {
+        DataFileWriter<O> dataFileWriter = new DataFileWriter<>(datumWriter);
+        if (nonNull(codec)) {
+            dataFileWriter.setCodec(codec);
+        }
+        if (syncInterval > 0) {
+            dataFileWriter.setSyncInterval(syncInterval);
+        }
+        if (bufferSize > 0) {
+            dataFileWriter.setFlushOnEveryBlock(false);
+        }
+        return dataFileWriter;
+    }
+
+    /**
+     * @brief This method wraps an output stream in the output buffer of the serialiser
+     * @param output the output stream
+     * @return the buffered output stream, or the same one without an output buffer
+     */
+    private OutputStream buffer(final OutputStream output) {
+        return bufferSize > 0 ? new BufferedOutputStream(output, bufferSize) : output;
+    }
+
     /**
      * @brief This class return the domain class
      * @return the domain class
@@ -124,4 +513,12 @@ public class AvroSerialiser<O> implements Serialiser<O> {
     public Class<O> getDomainClass() {
         return domainClass;
     }
+
+    /**
+     * @brief This method returns the Avro schema of the domain objects, which is also the schema read by default
+     * @return the schema
+     */
+    public Schema getSchema() {
+        return schema;
+    }
 }
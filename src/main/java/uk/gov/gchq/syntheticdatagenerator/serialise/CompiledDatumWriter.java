@@ -0,0 +1,260 @@
+/*
+ * Copyright 2018-2021 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.syntheticdatagenerator.serialise;
+
+import org.apache.avro.Schema;
+import org.apache.avro.io.DatumWriter;
+import org.apache.avro.io.Encoder;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@code CompiledDatumWriter} writes domain objects with a tree of writers compiled once from their Avro schema.
+ * Every field of a record is read through a {@link MethodHandle} and written straight to the {@link Encoder}, instead
+ * of looking the fields, unions and enum symbols up by reflection for every object as the
+ * {@link org.apache.avro.reflect.ReflectDatumWriter} does. The bytes written are the same.
+ * <p>
+ * Only the schemas the domain classes use are supported: records of fields, nullable unions, arrays of objects,
+ * enums, strings and the primitive types. {@link #compile(Class, Schema)} throws an
+ * {@link UnsupportedOperationException} for anything else.
+ *
+ * @param <T> the domain object type
+ */
+public final class CompiledDatumWriter<T> implements DatumWriter<T> {
+    private final Class<T> domainClass;
+    private Schema schema;
+    private ValueWriter writer;
+
+    private CompiledDatumWriter(final Class<T> domainClass, final Schema schema) {
+        this.domainClass = domainClass;
+        setSchema(schema);
+    }
+
+    /**
+     * @brief This method compiles the writer of a domain class
+     * @param domainClass the domain class
+     * @param schema the reflected schema of the domain class
+     * @param <T> the domain object type
+     * @return the writer
+     */
+    public static <T> CompiledDatumWriter<T> compile(final Class<T> domainClass, final Schema schema) {
+        requireNonNull(domainClass, "domainClass");
+        requireNonNull(schema, "schema");
+        return new CompiledDatumWriter<>(domainClass, schema);
+    }
+
+    /**
+     * @brief This method recompiles the writer when the data file is created with another schema
+     * @param newSchema the schema of the data file
+     */
+    @Override
+    public void setSchema(final Schema newSchema) {
+        if (writer == null || !newSchema.equals(schema)) {
+            writer = compile(newSchema, domainClass, new HashMap<>());
+            schema = newSchema;
+        }
+    }
+
+    /**
+     * @brief This method writes one domain object
+     * @param datum the domain object
+     * @param out the encoder to write to
+     * @throws IOException found problems writing to the encoder
+     */
+    @Override
+    public void write(final T datum, final Encoder out) throws IOException {
+        writer.write(datum, out);
+    }
+
+    private static ValueWriter compile(final Schema schema, final Class<?> type, final Map<String, RecordValueWriter> records) {
+        switch (schema.getType()) {
+            case UNION:
+                return compileUnion(schema, type, records);
+            case RECORD:
+                return compileRecord(schema, type, records);
+            case ARRAY:
+                if (!type.isArray() || type.getComponentType().isPrimitive()) {
+                    throw unsupported(schema, type);
+                }
+                return new ArrayWriter(compile(schema.getElementType(), type.getComponentType(), records));
+            case ENUM:
+                if (!type.isEnum()) {
+                    throw unsupported(schema, type);
+                }
+                return new EnumWriter(schema, type.getEnumConstants());
+            case STRING:
+                return (value, out) -> out.writeString(value.toString());
+            case INT:
+                return (value, out) -> out.writeInt(((Number) value).intValue());
+            case LONG:
+                return (value, out) -> out.writeLong(((Number) value).longValue());
+            case FLOAT:
+                return (value, out) -> out.writeFloat(((Number) value).floatValue());
+            case DOUBLE:
+                return (value, out) -> out.writeDouble(((Number) value).doubleValue());
+            case BOOLEAN:
+                return (value, out) -> out.writeBoolean((Boolean) value);
+            default:
+                throw unsupported(schema, type);
+        }
+    }
+
+    private static ValueWriter compileUnion(final Schema schema, final Class<?> type,
+                                            final Map<String, RecordValueWriter> records) {
+        List<Schema> branches = schema.getTypes();
+        if (branches.size() != 2) {
+            throw unsupported(schema, type);
+        }
+        int nullIndex = branches.get(0).getType() == Schema.Type.NULL ? 0 : 1;
+        if (branches.get(nullIndex).getType() != Schema.Type.NULL) {
+            throw unsupported(schema, type);
+        }
+        int valueIndex = 1 - nullIndex;
+        ValueWriter valueWriter = compile(branches.get(valueIndex), type, records);
+        return (value, out) -> {
+            if (value == null) {
+                out.writeIndex(nullIndex);
+                out.writeNull();
+            } else {
+                out.writeIndex(valueIndex);
+                valueWriter.write(value, out);
+            }
+        };
+    }
+
+    private static ValueWriter compileRecord(final Schema schema, final Class<?> type,
+                                             final Map<String, RecordValueWriter> records) {
+        // Recursive records, such as the managers of a manager, reuse the writer being compiled
+        RecordValueWriter recordValueWriter = records.get(schema.getFullName());
+        if (recordValueWriter != null) {
+            return recordValueWriter;
+        }
+        List<Schema.Field> fields = schema.getFields();
+        recordValueWriter = new RecordValueWriter(new FieldWriter[fields.size()]);
+        records.put(schema.getFullName(), recordValueWriter);
+        for (int i = 0; i < fields.size(); i++) {
+            recordValueWriter.fields[i] = compileField(fields.get(i), type, records);
+        }
+        return recordValueWriter;
+    }
+
+    private static FieldWriter compileField(final Schema.Field schemaField, final Class<?> type,
+                                            final Map<String, RecordValueWriter> records) {
+        Field field = FieldAccess.field(type, schemaField.name());
+        Class<?> fieldType = field.getType();
+        Schema.Type schemaType = schemaField.schema().getType();
+        if (fieldType == int.class && schemaType == Schema.Type.INT) {
+            MethodHandle intGetter = FieldAccess.getter(field, int.class);
+            return (record, out) -> out.writeInt(FieldAccess.getInt(intGetter, record));
+        } else if (fieldType == long.class && schemaType == Schema.Type.LONG) {
+            MethodHandle longGetter = FieldAccess.getter(field, long.class);
+            return (record, out) -> out.writeLong(FieldAccess.getLong(longGetter, record));
+        } else if (FieldAccess.boxed(fieldType).isPrimitive()) {
+            throw unsupported(schemaField.schema(), fieldType);
+        }
+        ValueWriter valueWriter = compile(schemaField.schema(), FieldAccess.boxed(fieldType), records);
+        MethodHandle objectGetter = FieldAccess.getter(field, Object.class);
+        return (record, out) -> valueWriter.write(FieldAccess.get(objectGetter, record), out);
+    }
+
+    private static UnsupportedOperationException unsupported(final Schema schema, final Class<?> type) {
+        return new UnsupportedOperationException("Cannot compile a writer of " + type + " for schema " + schema);
+    }
+
+    /**
+     * Writes a value of a given schema.
+     */
+    @FunctionalInterface
+    private interface ValueWriter {
+        void write(Object value, Encoder out) throws IOException;
+    }
+
+    /**
+     * Writes a field of a record.
+     */
+    @FunctionalInterface
+    private interface FieldWriter {
+        void write(Object record, Encoder out) throws IOException;
+    }
+
+    /**
+     * Writes every field of a record in schema order.
+     */
+    private static final class RecordValueWriter implements ValueWriter {
+        private final FieldWriter[] fields;
+
+        RecordValueWriter(final FieldWriter[] fields) {
+            this.fields = fields;
+        }
+
+        @Override
+        public void write(final Object value, final Encoder out) throws IOException {
+            for (FieldWriter field : fields) {
+                field.write(value, out);
+            }
+        }
+    }
+
+    /**
+     * Writes an array of objects as a single block.
+     */
+    private static final class ArrayWriter implements ValueWriter {
+        private final ValueWriter items;
+
+        ArrayWriter(final ValueWriter items) {
+            this.items = items;
+        }
+
+        @Override
+        public void write(final Object value, final Encoder out) throws IOException {
+            Object[] array = (Object[]) value;
+            out.writeArrayStart();
+            out.setItemCount(array.length);
+            for (Object item : array) {
+                out.startItem();
+                items.write(item, out);
+            }
+            out.writeArrayEnd();
+        }
+    }
+
+    /**
+     * Writes an enum as the position of its symbol in the schema.
+     */
+    private static final class EnumWriter implements ValueWriter {
+        // The position in the schema of every constant, by ordinal
+        private final int[] symbolIndices;
+
+        EnumWriter(final Schema schema, final Object[] constants) {
+            symbolIndices = new int[constants.length];
+            for (int i = 0; i < constants.length; i++) {
+                symbolIndices[i] = schema.getEnumOrdinal(((Enum<?>) constants[i]).name());
+            }
+        }
+
+        @Override
+        public void write(final Object value, final Encoder out) throws IOException {
+            out.writeEnum(symbolIndices[((Enum<?>) value).ordinal()]);
+        }
+    }
+}
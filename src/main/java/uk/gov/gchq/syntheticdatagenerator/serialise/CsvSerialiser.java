@@ -0,0 +1,595 @@
+/*
+ * Copyright 2018-2021 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.syntheticdatagenerator.serialise;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.apache.avro.Schema;
+import org.apache.avro.reflect.ReflectData;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static java.util.Objects.nonNull;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@code CsvSerialiser} is used to serialise domain objects to CSV files, one row per object after a header row.
+ * Nested records are flattened into columns named after their path, as in address.city, and the arrays of records are
+ * written following a {@link Nesting} policy. The rows are encoded as UTF-8 straight into a large reusable buffer by
+ * cells compiled once from the Avro schema of the domain class, and values are quoted as in RFC 4180 only when they
+ * hold a comma, a quote or a line break.
+ *
+ * @param <O> the domain object type
+ */
+public class CsvSerialiser<O> implements Serialiser<O> {
+    private static final long serialVersionUID = 1L;
+    private static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+    private static final byte SEPARATOR = ',';
+    private static final byte QUOTE = '"';
+    private static final byte[] LINE_BREAK = {'\r', '\n'};
+    private static final String PATH_SEPARATOR = ".";
+
+    private final Class<O> domainClass;
+    private final Schema schema;
+    private Nesting nesting = Nesting.JSON;
+    private int bufferSize = DEFAULT_BUFFER_SIZE;
+    // Compiled on first use, so only once whatever the options selected after the constructor
+    private transient volatile Compiled compiled;
+
+    /**
+     * How an array of values is written to the columns of a row.
+     */
+    public enum Nesting {
+        /**
+         * The whole array as a compact JSON array in a single column.
+         */
+        JSON,
+        /**
+         * The first element only, flattened as if the field held that element. The fields of a record nested in
+         * itself, such as the managers of a manager, are left out.
+         */
+        FIRST,
+        /**
+         * The number of elements in a single column.
+         */
+        COUNT;
+
+        /**
+         * @brief This method obtains a policy from its name, ignoring the case
+         * @param name name of the policy
+         * @return the policy
+         */
+        public static Nesting fromName(final String name) {
+            return valueOf(name.toUpperCase(Locale.ROOT));
+        }
+    }
+
+    /**
+     * @brief This method builds a serialiser writing the domain objects as CSV rows
+     * @param domainClass class domain
+     */
+    @JsonCreator
+    public CsvSerialiser(@JsonProperty("domainClass") final Class<O> domainClass) {
+        requireNonNull(domainClass, "domainClass is required");
+        this.domainClass = domainClass;
+        this.schema = ReflectData.AllowNull.get().getSchema(domainClass);
+    }
+
+    /**
+     * @brief This method selects how the arrays of the domain objects are written
+     * @param policy the nesting policy
+     * @return this serialiser
+     */
+    public CsvSerialiser<O> nesting(final Nesting policy) {
+        requireNonNull(policy, "policy");
+        this.nesting = policy;
+        this.compiled = null;
+        return this;
+    }
+
+    /**
+     * @brief This method selects the size of the buffer the rows are encoded into before being written to the output
+     * @param bytes size of the buffer
+     * @return this serialiser
+     */
+    public CsvSerialiser<O> bufferSize(final int bytes) {
+        if (bytes < 1) {
+            throw new IllegalArgumentException("The buffer size must be positive");
+        }
+        this.bufferSize = bytes;
+        return this;
+    }
+
+    /**
+     * @brief This method returns the names of the columns
+     * @return the names of the columns, in order
+     */
+    public List<String> header() {
+        return compiled().header;
+    }
+
+    /**
+     * @brief This method serializes the objects as a header row followed by one row per object
+     * @details the output stream is flushed but not closed
+     * @param objects the stream of objects to be serialised
+     * @param output the output stream to write the serialised bytes to
+     * @throws IOException found problems in the serialization process
+     */
+    @Override
+    public void serialise(final Stream<O> objects, final OutputStream output) throws IOException {
+        requireNonNull(output, "output");
+        if (nonNull(objects)) {
+            Cells cells = compiled().cells;
+            Utf8Output out = new Utf8Output(output, bufferSize);
+            writeHeader(out);
+            Iterator<O> objectIt = objects.iterator();
+            while (objectIt.hasNext()) {
+                cells.write(objectIt.next(), out);
+                out.write(LINE_BREAK);
+            }
+            out.flush();
+        }
+    }
+
+    /**
+     * @brief This method opens a writer appending objects one row at a time after the header row
+     * @param output the output stream to write the serialised bytes to
+     * @return the writer
+     * @throws IOException found problems writing the header
+     */
+    @Override
+    public RecordWriter<O> createWriter(final OutputStream output) throws IOException {
+        requireNonNull(output, "output");
+        Cells cells = compiled().cells;
+        Utf8Output out = new Utf8Output(output, bufferSize);
+        writeHeader(out);
+        return new RecordWriter<O>() {
+            @Override
+            public void write(final O object) throws IOException {
+                cells.write(object, out);
+                out.write(LINE_BREAK);
+            }
+
+            @Override
+            public void close() throws IOException {
+                out.close();
+            }
+        };
+    }
+
+    /**
+     * @brief This method is not supported, as the CSV files do not keep enough of the objects to read them back
+     * @param input the input stream
+     * @return never returns
+     */
+    @Override
+    public Stream<O> deserialise(final InputStream input) {
+        throw new UnsupportedOperationException("CSV files cannot be deserialised");
+    }
+
+    /**
+     * @brief This method return the domain class
+     * @return the domain class
+     */
+    public Class<O> getDomainClass() {
+        return domainClass;
+    }
+
+    /**
+     * @brief This method returns how the arrays of the domain objects are written
+     * @return the nesting policy
+     */
+    public Nesting getNesting() {
+        return nesting;
+    }
+
+    private void writeHeader(final Utf8Output out) throws IOException {
+        List<String> header = compiled().header;
+        for (int i = 0; i < header.size(); i++) {
+            if (i > 0) {
+                out.write(SEPARATOR);
+            }
+            writeText(header.get(i), out);
+        }
+        out.write(LINE_BREAK);
+    }
+
+    /**
+     * @brief This method returns the cells and the header, compiling them on first use
+     * @details threads racing on the first use compile the same cells, and keep either of them
+     * @return the cells and the header
+     */
+    private Compiled compiled() {
+        Compiled current = compiled;
+        if (current == null) {
+            List<String> names = new ArrayList<>();
+            Cells cells = compile(schema, domainClass, "", new HashSet<>(), names);
+            if (cells == null) {
+                throw new UnsupportedOperationException("No column to write for " + domainClass);
+            }
+            current = new Compiled(cells, Collections.unmodifiableList(names));
+            compiled = current;
+        }
+        return current;
+    }
+
+    /**
+     * @brief This method compiles the cells of a value
+     * @param valueSchema schema of the value
+     * @param type class of the value
+     * @param name name of the column, or prefix of the names of the columns of a record
+     * @param records full names of the records containing the value
+     * @param names names of the columns compiled so far, to which the new columns are added
+     * @return the cells, or null when the value has no column
+     */
+    private Cells compile(final Schema valueSchema, final Class<?> type, final String name, final Set<String> records,
+                          final List<String> names) {
+        switch (valueSchema.getType()) {
+            case UNION:
+                return compile(JsonWriter.nonNullBranch(valueSchema, type), type, name, records, names);
+            case RECORD:
+                return compileRecord(valueSchema, type, name, records, names);
+            case ARRAY:
+                if (!type.isArray() || type.getComponentType().isPrimitive()) {
+                    throw unsupported(valueSchema, type);
+                }
+                return compileArray(valueSchema, type, name, records, names);
+            case ENUM:
+                if (!type.isEnum()) {
+                    throw unsupported(valueSchema, type);
+                }
+                return new EnumCell(column(name, names), type.getEnumConstants());
+            case STRING:
+                return new TextCell(column(name, names));
+            case INT:
+            case LONG:
+            case FLOAT:
+            case DOUBLE:
+            case BOOLEAN:
+                return new NumberCell(column(name, names));
+            default:
+                throw unsupported(valueSchema, type);
+        }
+    }
+
+    private Cells compileRecord(final Schema recordSchema, final Class<?> type, final String prefix, final Set<String> records,
+                                final List<String> names) {
+        // A record nested in itself would need an infinite number of columns
+        if (!records.add(recordSchema.getFullName())) {
+            return null;
+        }
+        List<Cells> fields = new ArrayList<>();
+        for (Schema.Field schemaField : recordSchema.getFields()) {
+            String name = prefix.isEmpty() ? schemaField.name() : prefix + PATH_SEPARATOR + schemaField.name();
+            Cells fieldCells = compileField(schemaField, type, name, records, names);
+            if (fieldCells != null) {
+                fields.add(fieldCells);
+            }
+        }
+        records.remove(recordSchema.getFullName());
+        return fields.isEmpty() ? null : new RecordCells(fields.toArray(new Cells[0]));
+    }
+
+    private Cells compileField(final Schema.Field schemaField, final Class<?> type, final String name, final Set<String> records,
+                               final List<String> names) {
+        Field field = FieldAccess.field(type, schemaField.name());
+        Class<?> fieldType = field.getType();
+        if (fieldType == int.class) {
+            return new IntFieldCell(column(name, names), FieldAccess.getter(field, int.class));
+        } else if (fieldType == long.class) {
+            return new LongFieldCell(column(name, names), FieldAccess.getter(field, long.class));
+        } else if (FieldAccess.boxed(fieldType).isPrimitive()) {
+            throw unsupported(schemaField.schema(), fieldType);
+        }
+        Cells valueCells = compile(schemaField.schema(), FieldAccess.boxed(fieldType), name, records, names);
+        return valueCells == null ? null : new FieldCells(valueCells, FieldAccess.getter(field, Object.class));
+    }
+
+    private Cells compileArray(final Schema arraySchema, final Class<?> type, final String name, final Set<String> records,
+                               final List<String> names) {
+        switch (nesting) {
+            case COUNT:
+                return new CountCell(column(name, names));
+            case FIRST:
+                Cells elementCells = compile(arraySchema.getElementType(), type.getComponentType(), name, records, names);
+                return elementCells == null ? null : new FirstElementCells(elementCells);
+            default:
+                return new JsonCell(column(name, names), JsonWriter.compile(arraySchema, type, JsonWriter.CSV_QUOTE));
+        }
+    }
+
+    /**
+     * @brief This method adds a column to the header
+     * @param name name of the column
+     * @param names names of the columns compiled so far
+     * @return if the column starts the row
+     */
+    private static boolean column(final String name, final List<String> names) {
+        names.add(name);
+        return names.size() == 1;
+    }
+
+    /**
+     * @brief This method writes a string as a CSV value, quoted only when it holds a comma, a quote or a line break
+     * @param text the string
+     * @param out the output to write to
+     * @throws IOException found problems writing to the output
+     */
+    private static void writeText(final String text, final Utf8Output out) throws IOException {
+        int length = text.length();
+        int i = 0;
+        while (i < length && !needsQuotes(text.charAt(i))) {
+            i++;
+        }
+        if (i == length) {
+            out.writeUtf8(text, 0, length);
+            return;
+        }
+        out.write(QUOTE);
+        int start = 0;
+        for (; i < length; i++) {
+            if (text.charAt(i) == QUOTE) {
+                // The quote is written twice, once at the end of this part and again at the start of the next one
+                out.writeUtf8(text, start, i + 1);
+                start = i;
+            }
+        }
+        out.writeUtf8(text, start, length);
+        out.write(QUOTE);
+    }
+
+    private static boolean needsQuotes(final char c) {
+        return c == SEPARATOR || c == QUOTE || c == '\n' || c == '\r';
+    }
+
+    private static UnsupportedOperationException unsupported(final Schema schema, final Class<?> type) {
+        return new UnsupportedOperationException("Cannot write " + type + " of schema " + schema + " as CSV");
+    }
+
+    /**
+     * The cells of a row with the names of their columns.
+     */
+    private static final class Compiled {
+        private final Cells cells;
+        private final List<String> header;
+
+        private Compiled(final Cells cells, final List<String> header) {
+            this.cells = cells;
+            this.header = header;
+        }
+    }
+
+    /**
+     * The cells written for a value, the first one after a separator unless it starts the row.
+     */
+    private abstract static class Cells {
+        private final int count;
+        private final boolean leading;
+
+        Cells(final int count, final boolean leading) {
+            this.count = count;
+            this.leading = leading;
+        }
+
+        /**
+         * @brief This method writes the cells of a value
+         * @param value the value, which may be null
+         * @param out the output of the row
+         * @throws IOException found problems writing to the output
+         */
+        abstract void write(Object value, Utf8Output out) throws IOException;
+
+        final void writeEmpty(final Utf8Output out) throws IOException {
+            for (int i = leading ? 1 : 0; i < count; i++) {
+                out.write(SEPARATOR);
+            }
+        }
+
+        final void separate(final Utf8Output out) throws IOException {
+            if (!leading) {
+                out.write(SEPARATOR);
+            }
+        }
+    }
+
+    private static final class RecordCells extends Cells {
+        private final Cells[] fields;
+
+        private RecordCells(final Cells[] fields) {
+            super(countOf(fields), fields[0].leading);
+            this.fields = fields;
+        }
+
+        private static int countOf(final Cells[] fields) {
+            int count = 0;
+            for (Cells field : fields) {
+                count += field.count;
+            }
+            return count;
+        }
+
+        @Override
+        void write(final Object value, final Utf8Output out) throws IOException {
+            if (value == null) {
+                writeEmpty(out);
+                return;
+            }
+            for (Cells field : fields) {
+                field.write(value, out);
+            }
+        }
+    }
+
+    private static final class FieldCells extends Cells {
+        private final Cells valueCells;
+        private final MethodHandle getter;
+
+        private FieldCells(final Cells valueCells, final MethodHandle getter) {
+            super(valueCells.count, valueCells.leading);
+            this.valueCells = valueCells;
+            this.getter = getter;
+        }
+
+        @Override
+        void write(final Object record, final Utf8Output out) throws IOException {
+            valueCells.write(FieldAccess.get(getter, record), out);
+        }
+    }
+
+    private static final class IntFieldCell extends Cells {
+        private final MethodHandle getter;
+
+        private IntFieldCell(final boolean leading, final MethodHandle getter) {
+            super(1, leading);
+            this.getter = getter;
+        }
+
+        @Override
+        void write(final Object record, final Utf8Output out) throws IOException {
+            separate(out);
+            out.writeInt(FieldAccess.getInt(getter, record));
+        }
+    }
+
+    private static final class LongFieldCell extends Cells {
+        private final MethodHandle getter;
+
+        private LongFieldCell(final boolean leading, final MethodHandle getter) {
+            super(1, leading);
+            this.getter = getter;
+        }
+
+        @Override
+        void write(final Object record, final Utf8Output out) throws IOException {
+            separate(out);
+            out.writeLong(FieldAccess.getLong(getter, record));
+        }
+    }
+
+    private static final class TextCell extends Cells {
+        private TextCell(final boolean leading) {
+            super(1, leading);
+        }
+
+        @Override
+        void write(final Object value, final Utf8Output out) throws IOException {
+            separate(out);
+            if (value != null) {
+                writeText(value.toString(), out);
+            }
+        }
+    }
+
+    private static final class NumberCell extends Cells {
+        private NumberCell(final boolean leading) {
+            super(1, leading);
+        }
+
+        @Override
+        void write(final Object value, final Utf8Output out) throws IOException {
+            separate(out);
+            if (value instanceof Integer) {
+                out.writeInt((Integer) value);
+            } else if (value != null) {
+                out.writeUtf8(value.toString());
+            }
+        }
+    }
+
+    private static final class EnumCell extends Cells {
+        private final byte[][] names;
+
+        private EnumCell(final boolean leading, final Object[] constants) {
+            super(1, leading);
+            // Enum names are identifiers, which never need quotes
+            names = new byte[constants.length][];
+            for (int i = 0; i < constants.length; i++) {
+                names[i] = ((Enum<?>) constants[i]).name().getBytes(StandardCharsets.UTF_8);
+            }
+        }
+
+        @Override
+        void write(final Object value, final Utf8Output out) throws IOException {
+            separate(out);
+            if (value != null) {
+                out.write(names[((Enum<?>) value).ordinal()]);
+            }
+        }
+    }
+
+    private static final class CountCell extends Cells {
+        private CountCell(final boolean leading) {
+            super(1, leading);
+        }
+
+        @Override
+        void write(final Object value, final Utf8Output out) throws IOException {
+            separate(out);
+            if (value != null) {
+                out.writeInt(((Object[]) value).length);
+            }
+        }
+    }
+
+    private static final class FirstElementCells extends Cells {
+        private final Cells elementCells;
+
+        private FirstElementCells(final Cells elementCells) {
+            super(elementCells.count, elementCells.leading);
+            this.elementCells = elementCells;
+        }
+
+        @Override
+        void write(final Object value, final Utf8Output out) throws IOException {
+            Object[] elements = (Object[]) value;
+            elementCells.write(elements == null || elements.length == 0 ? null : elements[0], out);
+        }
+    }
+
+    private static final class JsonCell extends Cells {
+        private final JsonWriter writer;
+
+        private JsonCell(final boolean leading, final JsonWriter writer) {
+            super(1, leading);
+            this.writer = writer;
+        }
+
+        @Override
+        void write(final Object value, final Utf8Output out) throws IOException {
+            separate(out);
+            if (value != null) {
+                // JSON always holds quotes, so the value is always quoted, and the writer doubles the quotes it holds
+                out.write(QUOTE);
+                writer.write(value, out);
+                out.write(QUOTE);
+            }
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2018-2021 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.syntheticdatagenerator.serialise;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+
+/**
+ * {@code FieldAccess} reads the fields of the domain objects through {@link MethodHandle}s, for the writers compiled
+ * from a schema.
+ */
+final class FieldAccess {
+
+    private FieldAccess() {
+    }
+
+    /**
+     * @brief This method finds a field of a class or of one of its super classes
+     * @param type the class
+     * @param name name of the field
+     * @return the field
+     */
+    static Field field(final Class<?> type, final String name) {
+        for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+            try {
+                return c.getDeclaredField(name);
+            } catch (NoSuchFieldException e) {
+                // look in the super class
+            }
+        }
+        throw new UnsupportedOperationException("No field " + name + " in " + type);
+    }
+
+    /**
+     * @brief This method creates the getter of a field taking the object as an Object
+     * @param field the field
+     * @param valueType type returned by the getter, either the type of the field or Object
+     * @return the getter
+     */
+    static MethodHandle getter(final Field field, final Class<?> valueType) {
+        try {
+            field.setAccessible(true);
+            return MethodHandles.lookup().unreflectGetter(field).asType(MethodType.methodType(valueType, Object.class));
+        } catch (IllegalAccessException | RuntimeException e) {
+            throw new UnsupportedOperationException("Cannot read field " + field, e);
+        }
+    }
+
+    /**
+     * @brief This method reads a field with a getter returning an Object
+     * @param getter the getter
+     * @param object the object
+     * @return the value of the field
+     */
+    static Object get(final MethodHandle getter, final Object object) {
+        try {
+            return (Object) getter.invokeExact(object);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    /**
+     * @brief This method reads a field with a getter returning an int
+     * @param getter the getter
+     * @param object the object
+     * @return the value of the field
+     */
+    static int getInt(final MethodHandle getter, final Object object) {
+        try {
+            return (int) getter.invokeExact(object);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    /**
+     * @brief This method reads a field with a getter returning a long
+     * @param getter the getter
+     * @param object the object
+     * @return the value of the field
+     */
+    static long getLong(final MethodHandle getter, final Object object) {
+        try {
+            return (long) getter.invokeExact(object);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    /**
+     * @brief This method returns the wrapper class of the primitive types that are read as objects
+     * @param type a class
+     * @return the wrapper class of a boolean, float or double, otherwise the same class
+     */
+    static Class<?> boxed(final Class<?> type) {
+        if (type == boolean.class) {
+            return Boolean.class;
+        } else if (type == float.class) {
+            return Float.class;
+        }
+        return type == double.class ? Double.class : type;
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2018-2021 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.syntheticdatagenerator.serialise;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.apache.avro.Schema;
+import org.apache.avro.reflect.ReflectData;
+import org.apache.commons.io.output.CloseShieldOutputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import static java.util.Objects.nonNull;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@code JsonLinesSerialiser} is used to serialise domain objects to JSON Lines, also known as NDJSON. Each object
+ * is written as one compact JSON object on its own line. The lines come from a {@link JsonWriter} compiled once from
+ * the Avro schema of the domain class, not from a Jackson {@code JsonGenerator}. The {@code jsonl-jackson} format of
+ * {@code JsonLinesBenchmark} writes the same lines with a generator, and shows why. Enums are written as their names.
+ * NaN and infinite numbers, which JSON cannot represent, are written as null.
+ * <p>
+ * The lines can be compressed with gzip, either on the thread writing the output or on a pool of threads, which
+ * compresses blocks of lines into gzip members written one after the other.
+ *
+ * @param <O> the domain object type
+ */
+public class JsonLinesSerialiser<O> implements Serialiser<O> {
+    private static final long serialVersionUID = 1L;
+    private static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+    private static final byte LINE_BREAK = '\n';
+
+    private final Class<O> domainClass;
+    private final Schema schema;
+    private int bufferSize = DEFAULT_BUFFER_SIZE;
+    private boolean gzip = false;
+    // Optional pool encoding and compressing whole blocks of lines in parallel
+    private transient ExecutorService encoders;
+    private int recordsPerBlock;
+    private int blocksAhead;
+    private transient JsonWriter json;
+
+    /**
+     * @brief This method builds a serialiser writing the domain objects as JSON Lines
+     * @param domainClass class domain
+     */
+    @JsonCreator
+    public JsonLinesSerialiser(@JsonProperty("domainClass") final Class<O> domainClass) {
+        requireNonNull(domainClass, "domainClass is required");
+        this.domainClass = domainClass;
+        this.schema = ReflectData.AllowNull.get().getSchema(domainClass);
+        this.json = JsonWriter.compile(schema, domainClass, JsonWriter.QUOTE);
+    }
+
+    /**
+     * @brief This method selects the size of the buffer the lines are encoded into before being written to the output
+     * @param bytes size of the buffer
+     * @return this serialiser
+     */
+    public JsonLinesSerialiser<O> bufferSize(final int bytes) {
+        if (bytes < 1) {
+            throw new IllegalArgumentException("The buffer size must be positive");
+        }
+        this.bufferSize = bytes;
+        return this;
+    }
+
+    /**
+     * @brief This method selects whether the lines are compressed with gzip
+     * @param enabled if the lines are compressed
+     * @return this serialiser
+     */
+    public JsonLinesSerialiser<O> gzip(final boolean enabled) {
+        this.gzip = enabled;
+        return this;
+    }
+
+    /**
+     * @brief This method encodes and compresses the lines on a pool of threads, when they are compressed with gzip
+     * @details the records are cut into blocks of blockSize records, each encoded and compressed into a gzip member
+     * in parallel, and the members are appended to the output in order by the thread writing the output
+     * @param encoderPool executor encoding the blocks, it can be shared between outputs
+     * @param blockSize number of records in a block
+     * @param maxBlocksAhead maximum number of blocks of an output encoded ahead of its writer
+     * @return this serialiser
+     */
+    public JsonLinesSerialiser<O> compressInParallel(final ExecutorService encoderPool, final int blockSize, final int maxBlocksAhead) {
+        requireNonNull(encoderPool, "encoderPool");
+        if (blockSize < 1 || maxBlocksAhead < 1) {
+            throw new IllegalArgumentException("The block size and the number of blocks ahead must be at least 1");
+        }
+        this.encoders = encoderPool;
+        this.recordsPerBlock = blockSize;
+        this.blocksAhead = maxBlocksAhead;
+        return this;
+    }
+
+    /**
+     * @brief This method tells whether a codec name, as given to the other serialisers, selects gzip compression
+     * @param name name of the codec: null or uncompressed for none, or gzip
+     * @return if the lines are compressed with gzip
+     */
+    public static boolean isGzip(final String name) {
+        requireNonNull(name, "name");
+        switch (name.toLowerCase(Locale.ROOT)) {
+            case "null":
+            case "uncompressed":
+                return false;
+            case "gzip":
+                return true;
+            default:
+                throw new IllegalArgumentException("The " + name + " codec is not available for JSON Lines, use uncompressed or gzip");
+        }
+    }
+
+    /**
+     * @brief This method serializes the objects as one line of JSON per object
+     * @details the output stream is flushed but not closed
+     * @param objects the stream of objects to be serialised
+     * @param output the output stream to write the serialised bytes to
+     * @throws IOException found problems in the serialization process
+     */
+    @Override
+    public void serialise(final Stream<O> objects, final OutputStream output) throws IOException {
+        requireNonNull(output, "output");
+        if (nonNull(objects)) {
+            try (RecordWriter<O> writer = createWriter(new CloseShieldOutputStream(output))) {
+                Iterator<O> objectIt = objects.iterator();
+                while (objectIt.hasNext()) {
+                    writer.write(objectIt.next());
+                }
+            }
+            output.flush();
+        }
+    }
+
+    /**
+     * @brief This method opens a writer appending objects one line at a time
+     * @param output the output stream to write the serialised bytes to
+     * @return the writer
+     * @throws IOException found problems starting the gzip stream
+     */
+    @Override
+    public RecordWriter<O> createWriter(final OutputStream output) throws IOException {
+        requireNonNull(output, "output");
+        if (gzip && encoders != null) {
+            return new ParallelGzipWriter<>(json, output, encoders, recordsPerBlock, blocksAhead);
+        }
+        Utf8Output out = new Utf8Output(gzip ? new GZIPOutputStream(output, bufferSize) : output, bufferSize);
+        return new RecordWriter<O>() {
+            @Override
+            public void write(final O object) throws IOException {
+                json.write(object, out);
+                out.write(LINE_BREAK);
+            }
+
+            @Override
+            public void close() throws IOException {
+                out.close();
+            }
+        };
+    }
+
+    /**
+     * @brief This method is not supported, as the lines are plain JSON rather than the JSON encoding of Avro
+     * @param input the input stream
+     * @return never returns
+     */
+    @Override
+    public Stream<O> deserialise(final InputStream input) {
+        throw new UnsupportedOperationException("JSON Lines cannot be deserialised");
+    }
+
+    /**
+     * @brief This method return the domain class
+     * @return the domain class
+     */
+    public Class<O> getDomainClass() {
+        return domainClass;
+    }
+}
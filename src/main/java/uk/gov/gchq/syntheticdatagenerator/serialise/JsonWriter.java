@@ -0,0 +1,359 @@
+/*
+ * Copyright 2018-2021 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.syntheticdatagenerator.serialise;
+
+import org.apache.avro.Schema;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@code JsonWriter} writes domain objects as compact JSON with a tree of writers compiled once from their Avro
+ * schema, as the {@link CompiledDatumWriter} does for the Avro encoding. The names of the fields and the enum symbols
+ * are encoded once, and the values are written straight to a {@link Utf8Output}. Every quote of the JSON text can be
+ * written twice, to embed the text in a quoted CSV value without copying it.
+ * <p>
+ * Only the schemas the domain classes use are supported: records of fields, nullable unions, arrays of objects,
+ * enums, strings and the primitive types. {@link #compile(Schema, Class)} throws an
+ * {@link UnsupportedOperationException} for anything else.
+ */
+final class JsonWriter {
+    /**
+     * @brief The quote of plain JSON text
+     */
+    static final String QUOTE = "\"";
+    /**
+     * @brief The quote of JSON text embedded in a quoted CSV value
+     */
+    static final String CSV_QUOTE = "\"\"";
+    private static final byte[] NULL = bytes("null");
+
+    private final ValueWriter writer;
+
+    private JsonWriter(final ValueWriter writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * @brief This method compiles the writer of the values of a schema
+     * @param schema the reflected schema of the values
+     * @param type the class of the values
+     * @param quote the characters written for every quote of the JSON text, QUOTE or CSV_QUOTE
+     * @return the writer
+     */
+    static JsonWriter compile(final Schema schema, final Class<?> type, final String quote) {
+        return new JsonWriter(compile(schema, type, bytes(quote), new HashMap<>()));
+    }
+
+    /**
+     * @brief This method writes one value
+     * @param value the value, which may be null
+     * @param out the output to write to
+     * @throws IOException found problems writing to the output
+     */
+    void write(final Object value, final Utf8Output out) throws IOException {
+        writer.write(value, out);
+    }
+
+    private static ValueWriter compile(final Schema schema, final Class<?> type, final byte[] quote,
+                                       final Map<String, RecordValueWriter> records) {
+        switch (schema.getType()) {
+            case UNION:
+                return compile(nonNullBranch(schema, type), type, quote, records);
+            case RECORD:
+                return compileRecord(schema, type, quote, records);
+            case ARRAY:
+                if (!type.isArray() || type.getComponentType().isPrimitive()) {
+                    throw unsupported(schema, type);
+                }
+                return new ArrayWriter(compile(schema.getElementType(), type.getComponentType(), quote, records));
+            case ENUM:
+                if (!type.isEnum()) {
+                    throw unsupported(schema, type);
+                }
+                return new EnumWriter(type.getEnumConstants(), quote);
+            case STRING:
+                return (value, out) -> out.writeJsonString(quote, value.toString(), quote);
+            case INT:
+                return (value, out) -> out.writeInt(((Number) value).intValue());
+            case LONG:
+                return (value, out) -> out.writeLong(((Number) value).longValue());
+            case FLOAT:
+            case DOUBLE:
+                // JSON has no literal for NaN and the infinities, they are written as null
+                return (value, out) -> {
+                    double number = ((Number) value).doubleValue();
+                    if (Double.isNaN(number) || Double.isInfinite(number)) {
+                        out.write(NULL);
+                    } else {
+                        out.writeUtf8(value.toString());
+                    }
+                };
+            case BOOLEAN:
+                return (value, out) -> out.writeUtf8(value.toString());
+            default:
+                throw unsupported(schema, type);
+        }
+    }
+
+    /**
+     * @brief This method returns the branch of a nullable union that is not null, as JSON writes null for the other
+     * @param schema the union
+     * @param type the class of the values
+     * @return the branch that is not null
+     */
+    static Schema nonNullBranch(final Schema schema, final Class<?> type) {
+        List<Schema> branches = schema.getTypes();
+        if (branches.size() != 2) {
+            throw unsupported(schema, type);
+        }
+        int nullIndex = branches.get(0).getType() == Schema.Type.NULL ? 0 : 1;
+        if (branches.get(nullIndex).getType() != Schema.Type.NULL) {
+            throw unsupported(schema, type);
+        }
+        return branches.get(1 - nullIndex);
+    }
+
+    private static ValueWriter compileRecord(final Schema schema, final Class<?> type, final byte[] quote,
+                                             final Map<String, RecordValueWriter> records) {
+        // Recursive records, such as the managers of a manager, reuse the writer being compiled
+        RecordValueWriter recordValueWriter = records.get(schema.getFullName());
+        if (recordValueWriter != null) {
+            return recordValueWriter;
+        }
+        List<Schema.Field> fields = schema.getFields();
+        recordValueWriter = new RecordValueWriter(new FieldWriter[fields.size()]);
+        records.put(schema.getFullName(), recordValueWriter);
+        for (int i = 0; i < fields.size(); i++) {
+            recordValueWriter.fields[i] = compileField(fields.get(i), type, i == 0, quote, records);
+        }
+        return recordValueWriter;
+    }
+
+    private static FieldWriter compileField(final Schema.Field schemaField, final Class<?> type, final boolean first,
+                                            final byte[] quote, final Map<String, RecordValueWriter> records) {
+        Field field = FieldAccess.field(type, schemaField.name());
+        // The name, a Java identifier that needs no escaping, is written with its quotes and colon, after the brace
+        // opening the record if it is the first field and after a comma otherwise
+        String quoteText = new String(quote, StandardCharsets.UTF_8);
+        String prefixText = (first ? "{" : ",") + quoteText + schemaField.name() + quoteText + ":";
+        byte[] prefix = bytes(prefixText);
+        Class<?> fieldType = field.getType();
+        if (fieldType == int.class) {
+            MethodHandle intGetter = FieldAccess.getter(field, int.class);
+            return (record, out) -> {
+                out.write(prefix);
+                out.writeInt(FieldAccess.getInt(intGetter, record));
+            };
+        } else if (fieldType == long.class) {
+            MethodHandle longGetter = FieldAccess.getter(field, long.class);
+            return (record, out) -> {
+                out.write(prefix);
+                out.writeLong(FieldAccess.getLong(longGetter, record));
+            };
+        } else if (FieldAccess.boxed(fieldType).isPrimitive()) {
+            throw unsupported(schemaField.schema(), fieldType);
+        }
+        // The name is written in the same copy as a null value, the opening quote of a string or the symbol of an enum
+        byte[] prefixNull = bytes(prefixText + "null");
+        MethodHandle getter = FieldAccess.getter(field, Object.class);
+        Schema valueSchema = schemaField.schema().getType() == Schema.Type.UNION
+                ? nonNullBranch(schemaField.schema(), fieldType) : schemaField.schema();
+        if (valueSchema.getType() == Schema.Type.STRING) {
+            return new StringFieldWriter(getter, prefixNull, bytes(prefixText + quoteText), quote);
+        } else if (valueSchema.getType() == Schema.Type.ENUM && fieldType.isEnum()) {
+            Object[] constants = fieldType.getEnumConstants();
+            byte[][] prefixSymbols = new byte[constants.length][];
+            for (int i = 0; i < constants.length; i++) {
+                prefixSymbols[i] = bytes(prefixText + quoteText + ((Enum<?>) constants[i]).name() + quoteText);
+            }
+            return (record, out) -> {
+                Object value = FieldAccess.get(getter, record);
+                out.write(value == null ? prefixNull : prefixSymbols[((Enum<?>) value).ordinal()]);
+            };
+        }
+        ValueWriter valueWriter = compile(schemaField.schema(), FieldAccess.boxed(fieldType), quote, records);
+        return (record, out) -> {
+            Object value = FieldAccess.get(getter, record);
+            if (value == null) {
+                out.write(prefixNull);
+            } else {
+                out.write(prefix);
+                valueWriter.write(value, out);
+            }
+        };
+    }
+
+    private static byte[] bytes(final String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static UnsupportedOperationException unsupported(final Schema schema, final Class<?> type) {
+        return new UnsupportedOperationException("Cannot compile a JSON writer of " + type + " for schema " + schema);
+    }
+
+    /**
+     * Writes a value that is not null.
+     */
+    @FunctionalInterface
+    private interface ValueWriter {
+        void write(Object value, Utf8Output out) throws IOException;
+    }
+
+    /**
+     * Writes one field of a record, including its name.
+     */
+    @FunctionalInterface
+    private interface FieldWriter {
+        void write(Object record, Utf8Output out) throws IOException;
+    }
+
+    /**
+     * Writes a string field, keeping the encoding of the last strings written twice. The strings drawn from a few
+     * values, such as the manager types, are the same instances every time, so they are found by identity and copied
+     * whole with the name of the field. The entries are immutable, so the threads sharing the writer can race on them.
+     */
+    private static final class StringFieldWriter implements FieldWriter {
+        private static final int CACHE_SIZE = 4;
+        private final MethodHandle getter;
+        private final byte[] prefixNull;
+        private final byte[] prefixQuote;
+        private final byte[] quote;
+        private final EncodedString[] cache = new EncodedString[CACHE_SIZE];
+        private int next;
+
+        private StringFieldWriter(final MethodHandle getter, final byte[] prefixNull, final byte[] prefixQuote,
+                                  final byte[] quote) {
+            this.getter = getter;
+            this.prefixNull = prefixNull;
+            this.prefixQuote = prefixQuote;
+            this.quote = quote;
+        }
+
+        @Override
+        public void write(final Object record, final Utf8Output out) throws IOException {
+            Object value = FieldAccess.get(getter, record);
+            if (value == null) {
+                out.write(prefixNull);
+                return;
+            }
+            String text = value.toString();
+            for (int i = 0; i < CACHE_SIZE; i++) {
+                EncodedString cached = cache[i];
+                if (cached != null && cached.text == text) {
+                    if (cached.bytes == null) {
+                        // Seen a second time, the string is encoded once for all
+                        cached = new EncodedString(text, encode(text));
+                        cache[i] = cached;
+                    }
+                    out.write(cached.bytes);
+                    return;
+                }
+            }
+            cache[next++ & (CACHE_SIZE - 1)] = new EncodedString(text, null);
+            out.writeJsonString(prefixQuote, text, quote);
+        }
+
+        private byte[] encode(final String text) throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (Utf8Output encoded = new Utf8Output(bytes, 0)) {
+                encoded.writeJsonString(prefixQuote, text, quote);
+            }
+            return bytes.toByteArray();
+        }
+    }
+
+    /**
+     * A string with its encoding as a field, or null until the string is written a second time.
+     */
+    private static final class EncodedString {
+        private final String text;
+        private final byte[] bytes;
+
+        private EncodedString(final String text, final byte[] bytes) {
+            this.text = text;
+            this.bytes = bytes;
+        }
+    }
+
+    private static final class RecordValueWriter implements ValueWriter {
+        private final FieldWriter[] fields;
+
+        private RecordValueWriter(final FieldWriter[] fields) {
+            this.fields = fields;
+        }
+
+        @Override
+        public void write(final Object value, final Utf8Output out) throws IOException {
+            // The first field opens the record
+            if (fields.length == 0) {
+                out.write('{');
+            }
+            for (FieldWriter field : fields) {
+                field.write(value, out);
+            }
+            out.write('}');
+        }
+    }
+
+    private static final class ArrayWriter implements ValueWriter {
+        private final ValueWriter elementWriter;
+
+        private ArrayWriter(final ValueWriter elementWriter) {
+            this.elementWriter = elementWriter;
+        }
+
+        @Override
+        public void write(final Object value, final Utf8Output out) throws IOException {
+            Object[] elements = (Object[]) value;
+            out.write('[');
+            for (int i = 0; i < elements.length; i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                if (elements[i] == null) {
+                    out.write(NULL);
+                } else {
+                    elementWriter.write(elements[i], out);
+                }
+            }
+            out.write(']');
+        }
+    }
+
+    private static final class EnumWriter implements ValueWriter {
+        private final byte[][] symbols;
+
+        private EnumWriter(final Object[] constants, final byte[] quote) {
+            String quoteText = new String(quote, StandardCharsets.UTF_8);
+            symbols = new byte[constants.length][];
+            for (int i = 0; i < constants.length; i++) {
+                symbols[i] = bytes(quoteText + ((Enum<?>) constants[i]).name() + quoteText);
+            }
+        }
+
+        @Override
+        public void write(final Object value, final Utf8Output out) throws IOException {
+            out.write(symbols[((Enum<?>) value).ordinal()]);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2018-2021 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.syntheticdatagenerator.serialise;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * An {@code OrderedBlockWriter} encodes blocks of records on a pool of threads while a single writer appends the
+ * encoded blocks to the output in the order of the records.
+ * <p>
+ * The records are cut into blocks of a fixed number of records, and every block is encoded into bytes by an encoder
+ * thread. At most {@code blocksAhead} blocks are encoded ahead of the writer, which waits for the oldest one before
+ * cutting another. The subclasses encode a block, append the encoded bytes and close the output.
+ *
+ * @param <O> the domain object type
+ */
+abstract class OrderedBlockWriter<O> implements RecordWriter<O> {
+    private final ExecutorService encoders;
+    private final int recordsPerBlock;
+    private final int blocksAhead;
+    private final String blockName;
+    private final Deque<Future<byte[]>> inFlight = new ArrayDeque<>();
+    private List<O> block;
+    private boolean submitted;
+
+    /**
+     * @param encoders executor encoding the blocks, it can be shared between writers
+     * @param recordsPerBlock number of records in a block
+     * @param blocksAhead maximum number of blocks encoded ahead of the writer
+     * @param blockName name of the encoded blocks, for the error messages
+     */
+    OrderedBlockWriter(final ExecutorService encoders, final int recordsPerBlock, final int blocksAhead,
+                       final String blockName) {
+        this.encoders = encoders;
+        this.recordsPerBlock = recordsPerBlock;
+        this.blocksAhead = blocksAhead;
+        this.blockName = blockName;
+        this.block = new ArrayList<>(recordsPerBlock);
+    }
+
+    @Override
+    public final void write(final O object) throws IOException {
+        block.add(object);
+        if (block.size() == recordsPerBlock) {
+            submit();
+            while (inFlight.size() > blocksAhead) {
+                appendOldest();
+            }
+        }
+    }
+
+    @Override
+    public final void close() throws IOException {
+        try {
+            // An output without records still gets one empty block when the format needs one
+            if (!block.isEmpty() || (!submitted && encodesEmptyBlock())) {
+                submit();
+            }
+            while (!inFlight.isEmpty()) {
+                appendOldest();
+            }
+        } finally {
+            for (Future<byte[]> pending : inFlight) {
+                pending.cancel(true);
+            }
+            inFlight.clear();
+            closeOutput();
+        }
+    }
+
+    /**
+     * @brief This method encodes a block of records, called concurrently from the encoder threads
+     * @param records the records of the block, which may be empty
+     * @return the encoded bytes
+     * @throws IOException found problems encoding the records
+     */
+    abstract byte[] encode(List<O> records) throws IOException;
+
+    /**
+     * @brief This method appends an encoded block to the output, called in the order of the blocks
+     * @param encoded the bytes of the block
+     * @throws IOException found problems appending the block
+     */
+    abstract void append(byte[] encoded) throws IOException;
+
+    /**
+     * @brief This method closes the output once every block is appended, or after a failure
+     * @throws IOException found problems closing the output
+     */
+    abstract void closeOutput() throws IOException;
+
+    /**
+     * @brief This method tells whether an output without any records holds one empty block
+     * @return if an empty block is encoded when no record is written
+     */
+    boolean encodesEmptyBlock() {
+        return false;
+    }
+
+    /**
+     * @brief This method hands the current block to the encoders
+     */
+    private void submit() {
+        final List<O> records = block;
+        inFlight.addLast(encoders.submit(() -> encode(records)));
+        block = new ArrayList<>(recordsPerBlock);
+        submitted = true;
+    }
+
+    /**
+     * @brief This method waits for the oldest block and appends it to the output
+     * @throws IOException found problems encoding or appending the block
+     */
+    private void appendOldest() throws IOException {
+        byte[] encoded;
+        try {
+            encoded = inFlight.removeFirst().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for " + blockName);
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to encode " + blockName, e.getCause());
+        }
+        append(encoded);
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2018-2021 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.syntheticdatagenerator.serialise;
+
+import org.apache.avro.Schema;
+import org.apache.avro.file.DataFileStream;
+import org.apache.avro.file.DataFileWriter;
+import org.apache.avro.generic.GenericDatumReader;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
+
+/**
+ * A {@code ParallelBlockWriter} encodes and compresses the blocks of an Avro file on a pool of threads while a single
+ * writer appends them to the file in order.
+ * <p>
+ * Every block of records is encoded by an encoder thread into an in-memory Avro file, itself split into Avro blocks at
+ * the usual sync interval, and the writer copies those blocks as they are into the output file with
+ * {@link DataFileWriter#appendAllFrom(DataFileStream, boolean)}, which frames them with the sync marker of the output
+ * file.
+ *
+ * @param <O> the domain object type
+ */
+final class ParallelBlockWriter<O> extends OrderedBlockWriter<O> {
+    // The sync marker of the in-memory files is not copied, a fixed one saves generating a random one for every block
+    private static final byte[] BLOCK_SYNC_MARKER = new byte[16];
+
+    private final DataFileWriter<O> fileWriter;
+    private final Supplier<DataFileWriter<O>> blockWriters;
+    private final Schema schema;
+
+    /**
+     * @param fileWriter the writer of the output file, already created
+     * @param blockWriters factory of the writers of the in-memory files, with the codec of the output file, called
+     *                     concurrently from the encoder threads
+     * @param schema the schema of the output file
+     * @param encoders executor encoding the blocks, it can be shared between writers
+     * @param recordsPerBlock number of records in a block
+     * @param blocksAhead maximum number of blocks encoded ahead of the writer
+     */
+    ParallelBlockWriter(final DataFileWriter<O> fileWriter, final Supplier<DataFileWriter<O>> blockWriters, final Schema schema,
+                        final ExecutorService encoders, final int recordsPerBlock, final int blocksAhead) {
+        super(encoders, recordsPerBlock, blocksAhead, "an Avro block");
+        this.fileWriter = fileWriter;
+        this.blockWriters = blockWriters;
+        this.schema = schema;
+    }
+
+    /**
+     * @brief This method encodes a block into an in-memory Avro file
+     * @param records the records of the block
+     * @return the bytes of the in-memory file
+     * @throws IOException found problems encoding the records
+     */
+    @Override
+    byte[] encode(final List<O> records) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (DataFileWriter<O> blockWriter = blockWriters.get()) {
+            blockWriter.create(schema, out, BLOCK_SYNC_MARKER);
+            for (O record : records) {
+                blockWriter.append(record);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    @Override
+    void append(final byte[] encoded) throws IOException {
+        try (DataFileStream<Object> blockStream = new DataFileStream<>(new ByteArrayInputStream(encoded), new GenericDatumReader<>())) {
+            appendAll(blockStream);
+        }
+    }
+
+    @Override
+    void closeOutput() throws IOException {
+        fileWriter.close();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void appendAll(final DataFileStream<?> blockStream) throws IOException {
+        fileWriter.appendAllFrom((DataFileStream<O>) blockStream, false);
+    }
+}
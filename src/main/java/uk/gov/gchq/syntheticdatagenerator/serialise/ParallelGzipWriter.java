@@ -0,0 +1,91 @@
+/*
+ * Copyright 2018-2021 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.syntheticdatagenerator.serialise;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A {@code ParallelGzipWriter} encodes and compresses JSON Lines on a pool of threads while a single writer appends
+ * them to the output in order.
+ * <p>
+ * Every block of records is encoded by an encoder thread and compressed into a gzip member of its own, and the writer
+ * copies the members one after the other into the output. A gzip file may hold any number of members, which gzip,
+ * zcat and {@link java.util.zip.GZIPInputStream} read as one stream. An output without records holds one empty
+ * member, as a gzip file cannot be empty.
+ *
+ * @param <O> the domain object type
+ */
+final class ParallelGzipWriter<O> extends OrderedBlockWriter<O> {
+    // Size of the buffers a block is encoded and compressed through
+    private static final int MEMBER_BUFFER_SIZE = 64 << 10;
+    private static final byte LINE_BREAK = '\n';
+
+    private final JsonWriter json;
+    private final OutputStream output;
+
+    /**
+     * @param json the writer of the records, used concurrently from the encoder threads
+     * @param output the output stream, closed when this writer is closed
+     * @param encoders executor encoding the blocks, it can be shared between writers
+     * @param recordsPerBlock number of records in a block
+     * @param blocksAhead maximum number of blocks encoded ahead of the writer
+     */
+    ParallelGzipWriter(final JsonWriter json, final OutputStream output, final ExecutorService encoders,
+                       final int recordsPerBlock, final int blocksAhead) {
+        super(encoders, recordsPerBlock, blocksAhead, "a gzip member");
+        this.json = json;
+        this.output = output;
+    }
+
+    /**
+     * @brief This method encodes a block of records into a gzip member
+     * @param records the records of the block
+     * @return the bytes of the member
+     * @throws IOException found problems encoding the records
+     */
+    @Override
+    byte[] encode(final List<O> records) throws IOException {
+        ByteArrayOutputStream member = new ByteArrayOutputStream(MEMBER_BUFFER_SIZE);
+        try (Utf8Output out = new Utf8Output(new GZIPOutputStream(member, MEMBER_BUFFER_SIZE), MEMBER_BUFFER_SIZE)) {
+            for (O record : records) {
+                json.write(record, out);
+                out.write(LINE_BREAK);
+            }
+        }
+        return member.toByteArray();
+    }
+
+    @Override
+    void append(final byte[] member) throws IOException {
+        output.write(member);
+    }
+
+    @Override
+    void closeOutput() throws IOException {
+        output.close();
+    }
+
+    @Override
+    boolean encodesEmptyBlock() {
+        return true;
+    }
+}
@@ -0,0 +1,256 @@
+/*
+ * Copyright 2018-2021 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.syntheticdatagenerator.serialise;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.apache.avro.Schema;
+import org.apache.avro.reflect.ReflectData;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.avro.AvroParquetWriter;
+import org.apache.parquet.avro.AvroWriteSupport;
+import org.apache.parquet.hadoop.ParquetFileWriter;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+import static java.util.Objects.nonNull;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@code ParquetSerialiser} is used to serialise domain objects to Parquet files, written to any output stream
+ * without a Hadoop cluster or file system. The rows are cut into row groups of a configurable size, the columns into
+ * pages, and the pages are dictionary encoded, which stores the enum columns such as the department, grade and
+ * nationality as small integers into a dictionary of their names, and compressed.
+ * <p>
+ * Parquet has no recursive types, so a record nested in itself, such as the managers of a manager, is unrolled into a
+ * fixed number of levels, and deeper levels are left out.
+ *
+ * @param <O> the domain object type
+ */
+public class ParquetSerialiser<O> implements Serialiser<O> {
+    private static final long serialVersionUID = 1L;
+    /**
+     * @brief Default number of levels of a record nested in itself, enough for the deepest chain of managers
+     */
+    public static final int DEFAULT_RECURSION_LEVELS = 4;
+
+    private final Class<O> domainClass;
+    private int recursionLevels = DEFAULT_RECURSION_LEVELS;
+    private transient Schema schema;
+    private CompressionCodecName codec = CompressionCodecName.SNAPPY;
+    private int rowGroupSize = ParquetWriter.DEFAULT_BLOCK_SIZE;
+    private int pageSize = ParquetWriter.DEFAULT_PAGE_SIZE;
+    private boolean dictionaryEncoding = true;
+
+    /**
+     * @brief This method builds a serialiser writing the domain objects to Parquet files
+     * @param domainClass class domain
+     */
+    @JsonCreator
+    public ParquetSerialiser(@JsonProperty("domainClass") final Class<O> domainClass) {
+        requireNonNull(domainClass, "domainClass is required");
+        this.domainClass = domainClass;
+        this.schema = RecursiveSchemas.unroll(ReflectData.AllowNull.get().getSchema(domainClass), recursionLevels);
+    }
+
+    /**
+     * @brief This method selects the codec compressing the pages of the files
+     * @param codecName the codec
+     * @return this serialiser
+     */
+    public ParquetSerialiser<O> codec(final CompressionCodecName codecName) {
+        requireNonNull(codecName, "codecName");
+        this.codec = codecName;
+        return this;
+    }
+
+    /**
+     * @brief This method selects the size of the row groups of the files
+     * @details a row group is buffered in memory until it is complete, and is the unit of work of the readers, so
+     * larger row groups give longer sequential reads but use more memory
+     * @param bytes approximate number of bytes of a row group, Parquet's default is 128 MiB
+     * @return this serialiser
+     */
+    public ParquetSerialiser<O> rowGroupSize(final int bytes) {
+        if (bytes < 1) {
+            throw new IllegalArgumentException("The row group size must be positive");
+        }
+        this.rowGroupSize = bytes;
+        return this;
+    }
+
+    /**
+     * @brief This method selects the size of the pages of the columns, which are compressed one at a time
+     * @param bytes approximate number of bytes of a page, Parquet's default is 1 MiB
+     * @return this serialiser
+     */
+    public ParquetSerialiser<O> pageSize(final int bytes) {
+        if (bytes < 1) {
+            throw new IllegalArgumentException("The page size must be positive");
+        }
+        this.pageSize = bytes;
+        return this;
+    }
+
+    /**
+     * @brief This method selects whether the columns are dictionary encoded
+     * @details a column whose dictionary outgrows a page, such as the identifiers, falls back to plain encoding
+     * @param enabled if the columns are dictionary encoded
+     * @return this serialiser
+     */
+    public ParquetSerialiser<O> dictionaryEncoding(final boolean enabled) {
+        this.dictionaryEncoding = enabled;
+        return this;
+    }
+
+    /**
+     * @brief This method selects the number of levels of a record nested in itself that are written
+     * @param levels number of levels
+     * @return this serialiser
+     */
+    public ParquetSerialiser<O> recursionLevels(final int levels) {
+        if (levels < 1) {
+            throw new IllegalArgumentException("At least one level must be written");
+        }
+        this.recursionLevels = levels;
+        this.schema = RecursiveSchemas.unroll(ReflectData.AllowNull.get().getSchema(domainClass), levels);
+        return this;
+    }
+
+    /**
+     * @brief This method obtains a codec from its name
+     * @details the codecs are those that need no native Hadoop library: uncompressed (or null), snappy and gzip
+     * @param name name of the codec
+     * @return the codec
+     */
+    public static CompressionCodecName codecFromName(final String name) {
+        requireNonNull(name, "name");
+        switch (name.toLowerCase(Locale.ROOT)) {
+            case "null":
+            case "uncompressed":
+                return CompressionCodecName.UNCOMPRESSED;
+            case "snappy":
+                return CompressionCodecName.SNAPPY;
+            case "gzip":
+                return CompressionCodecName.GZIP;
+            default:
+                throw new IllegalArgumentException("The " + name + " codec is not available for Parquet files, use uncompressed, snappy or gzip");
+        }
+    }
+
+    /**
+     * @brief This method serializes the objects to a Parquet file
+     * @details the output stream is flushed but not closed
+     * @param objects the stream of objects to be serialised
+     * @param output the output stream to write the serialised bytes to
+     * @throws IOException found problems in the serialization process
+     */
+    @Override
+    public void serialise(final Stream<O> objects, final OutputStream output) throws IOException {
+        requireNonNull(output, "output");
+        if (nonNull(objects)) {
+            try (ParquetWriter<O> writer = createParquetWriter(new StreamOutputFile(output, false))) {
+                Iterator<O> objectIt = objects.iterator();
+                while (objectIt.hasNext()) {
+                    writer.write(objectIt.next());
+                }
+            }
+        }
+    }
+
+    /**
+     * @brief This method opens a writer appending objects one at a time to a Parquet file
+     * @param output the output stream to write the serialised bytes to
+     * @return the writer
+     * @throws IOException found problems starting the file
+     */
+    @Override
+    public RecordWriter<O> createWriter(final OutputStream output) throws IOException {
+        requireNonNull(output, "output");
+        final StreamOutputFile outputFile = new StreamOutputFile(output, true);
+        final ParquetWriter<O> writer = createParquetWriter(outputFile);
+        return new RecordWriter<O>() {
+            @Override
+            public void write(final O object) throws IOException {
+                writer.write(object);
+            }
+
+            @Override
+            public long bufferedBytes() {
+                // The data size counts the row groups written and the one buffered in memory
+                return Math.max(0, writer.getDataSize() - outputFile.getPos());
+            }
+
+            @Override
+            public void close() throws IOException {
+                writer.close();
+            }
+        };
+    }
+
+    /**
+     * @brief This method is not supported, as Parquet files are read from their footer, which an input stream cannot
+     * seek to
+     * @param input the input stream
+     * @return never returns
+     */
+    @Override
+    public Stream<O> deserialise(final InputStream input) {
+        throw new UnsupportedOperationException("Parquet files cannot be deserialised from a stream");
+    }
+
+    /**
+     * @brief This method returns the Avro schema the files are written with, after unrolling the nested records
+     * @return the schema
+     */
+    public Schema getSchema() {
+        return schema;
+    }
+
+    /**
+     * @brief This method return the domain class
+     * @return the domain class
+     */
+    public Class<O> getDomainClass() {
+        return domainClass;
+    }
+
+    private ParquetWriter<O> createParquetWriter(final StreamOutputFile outputFile) throws IOException {
+        // An empty configuration, as the files are written without reading any Hadoop site file
+        Configuration conf = new Configuration(false);
+        // Arrays of nullable elements need the three level lists of the Parquet specification
+        conf.setBoolean(AvroWriteSupport.WRITE_OLD_LIST_STRUCTURE, false);
+        return AvroParquetWriter.<O>builder(outputFile)
+                .withConf(conf)
+                .withSchema(schema)
+                .withDataModel(ReflectData.AllowNull.get())
+                .withWriteMode(ParquetFileWriter.Mode.OVERWRITE)
+                .withCompressionCodec(codec)
+                .withRowGroupSize(rowGroupSize)
+                .withPageSize(pageSize)
+                .withDictionaryPageSize(pageSize)
+                .withDictionaryEncoding(dictionaryEncoding)
+                .build();
+    }
+}
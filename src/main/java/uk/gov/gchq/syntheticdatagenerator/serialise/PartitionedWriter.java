@@ -0,0 +1,334 @@
+/*
+ * Copyright 2018-2021 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.syntheticdatagenerator.serialise;
+
+import org.apache.commons.io.output.CountingOutputStream;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Field;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@code PartitionedWriter} routes every object to the writer of its partition, such as the department of an
+ * employee, so a partitioned layout like {@code department=FINANCE/part-0003-worker_e0.avro} is written in one pass.
+ * <p>
+ * The writers of the partitions are kept open in least recently used order, and the least recently used one is closed
+ * when a new one would exceed the maximum number of open writers. A file can only be written once, so the next object
+ * of a closed partition starts a new part of it. The parts also roll over once they hold a number of objects or of
+ * bytes. The bytes are those written out by the serialiser and those its writer still buffers, as reported by
+ * {@link RecordWriter#bufferedBytes()}, so a Parquet part ends within the row group that crosses the limit, and the
+ * other formats end after the buffered block that crosses it.
+ *
+ * @param <I> the domain object type
+ */
+public final class PartitionedWriter<I> implements RecordWriter<I> {
+    /**
+     * Default maximum number of writers open at the same time, raised to {@link #partitionCount(Class, String)} by
+     * the generator for the fields whose values are known in advance.
+     */
+    public static final int DEFAULT_MAX_OPEN_WRITERS = 128;
+    /**
+     * Partition of the objects whose key is null, named as by Hive.
+     */
+    public static final String NULL_PARTITION = "__HIVE_DEFAULT_PARTITION__";
+
+    /**
+     * Opens the output of a part of a partition.
+     */
+    @FunctionalInterface
+    public interface Outputs {
+        /**
+         * @brief This method opens the output of a part
+         * @param partition the partition
+         * @param part the number of the part in its partition, from 0
+         * @return the output, closed with the writer of the part
+         * @throws IOException found problems creating the output
+         */
+        OutputStream open(String partition, int part) throws IOException;
+    }
+
+    /**
+     * Opens the writer of a part on its output.
+     *
+     * @param <I> the domain object type
+     */
+    @FunctionalInterface
+    public interface Writers<I> {
+        /**
+         * @brief This method opens a writer, such as {@link Serialiser#createWriter(OutputStream)}
+         * @param output the output of the part, closed when the writer is closed
+         * @return the writer
+         * @throws IOException found problems writing the start of the part
+         */
+        RecordWriter<I> open(OutputStream output) throws IOException;
+    }
+
+    private final Function<? super I, String> partitioner;
+    private final Outputs outputs;
+    private final Writers<I> writers;
+    // The open parts in least recently used order
+    private final LinkedHashMap<String, Part<I>> open = new LinkedHashMap<>(16, 0.75f, true);
+    // The number of the next part of every partition
+    private final Map<String, Integer> nextParts = new HashMap<>();
+    private int maxOpenWriters = DEFAULT_MAX_OPEN_WRITERS;
+    private long maxRecords;
+    private long maxBytes;
+    private boolean closed;
+
+    /**
+     * @brief This method creates a writer with no open partition
+     * @param partitioner function giving the partition of an object, or null for the null partition
+     * @param outputs opens the output of every part
+     * @param writers opens the writer of every part on its output
+     */
+    public PartitionedWriter(final Function<? super I, String> partitioner, final Outputs outputs, final Writers<I> writers) {
+        this.partitioner = requireNonNull(partitioner, "partitioner");
+        this.outputs = requireNonNull(outputs, "outputs");
+        this.writers = requireNonNull(writers, "writers");
+    }
+
+    /**
+     * @brief This method selects the maximum number of writers open at the same time
+     * @param writersOpen maximum number of open writers
+     * @return this writer
+     */
+    public PartitionedWriter<I> maxOpenWriters(final int writersOpen) {
+        if (writersOpen < 1) {
+            throw new IllegalArgumentException("At least one writer must be open");
+        }
+        this.maxOpenWriters = writersOpen;
+        return this;
+    }
+
+    /**
+     * @brief This method rolls the parts over once they hold a number of objects
+     * @param records number of objects of a part, or 0 for no limit
+     * @return this writer
+     */
+    public PartitionedWriter<I> rollRecords(final long records) {
+        if (records < 0) {
+            throw new IllegalArgumentException("The number of records of a part cannot be negative");
+        }
+        this.maxRecords = records;
+        return this;
+    }
+
+    /**
+     * @brief This method rolls the parts over once they hold a number of bytes
+     * @param bytes approximate number of bytes of a part, or 0 for no limit
+     * @return this writer
+     */
+    public PartitionedWriter<I> rollBytes(final long bytes) {
+        if (bytes < 0) {
+            throw new IllegalArgumentException("The number of bytes of a part cannot be negative");
+        }
+        this.maxBytes = bytes;
+        return this;
+    }
+
+    @Override
+    public void write(final I object) throws IOException {
+        if (closed) {
+            throw new IOException("The writer is closed");
+        }
+        String partition = partitioner.apply(object);
+        if (partition == null) {
+            partition = NULL_PARTITION;
+        }
+        Part<I> part = open.get(partition);
+        if (part == null) {
+            part = openPart(partition);
+        }
+        part.writer.write(object);
+        part.records++;
+        if ((maxRecords > 0 && part.records >= maxRecords)
+                || (maxBytes > 0 && part.bytes.getByteCount() + part.writer.bufferedBytes() >= maxBytes)) {
+            open.remove(partition);
+            part.writer.close();
+        }
+    }
+
+    /**
+     * @brief This method closes the writer of every open part
+     * @throws IOException the first failure to close a part, with the others suppressed
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        IOException failure = null;
+        for (Part<I> part : open.values()) {
+            try {
+                part.writer.close();
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        open.clear();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * @brief This method returns the number of parts started in every partition so far
+     * @return the number of parts keyed by partition
+     */
+    public Map<String, Integer> getParts() {
+        return new HashMap<>(nextParts);
+    }
+
+    private Part<I> openPart(final String partition) throws IOException {
+        if (open.size() >= maxOpenWriters) {
+            Iterator<Part<I>> leastRecentlyUsed = open.values().iterator();
+            Part<I> evicted = leastRecentlyUsed.next();
+            leastRecentlyUsed.remove();
+            evicted.writer.close();
+        }
+        int number = nextParts.getOrDefault(partition, 0);
+        nextParts.put(partition, number + 1);
+        CountingOutputStream bytes = new CountingOutputStream(outputs.open(partition, number));
+        RecordWriter<I> writer;
+        try {
+            writer = writers.open(bytes);
+        } catch (IOException | RuntimeException e) {
+            bytes.close();
+            throw e;
+        }
+        Part<I> part = new Part<>(writer, bytes);
+        open.put(partition, part);
+        return part;
+    }
+
+    /**
+     * @brief This method creates a partitioner reading a field of the objects, as the string of its value
+     * @param type the domain class
+     * @param path name of the field, or names of the fields of the nested objects separated by dots, such as
+     * workLocation.workLocationName
+     * @param <I> the domain object type
+     * @return the partitioner, giving null when the field or an object on its path is null
+     */
+    public static <I> Function<I, String> fieldPartitioner(final Class<I> type, final String path) {
+        requireNonNull(type, "type");
+        requireNonNull(path, "path");
+        List<MethodHandle> getters = new ArrayList<>();
+        Class<?> current = type;
+        for (String name : path.split("\\.")) {
+            Field field = FieldAccess.field(current, name);
+            getters.add(FieldAccess.getter(field, Object.class));
+            current = field.getType();
+        }
+        return object -> {
+            Object value = object;
+            for (MethodHandle getter : getters) {
+                value = FieldAccess.get(getter, value);
+                if (value == null) {
+                    return null;
+                }
+            }
+            return String.valueOf(value);
+        };
+    }
+
+    /**
+     * @brief This method counts the partitions of a field, when its values are the constants of an enum
+     * @param type the domain class
+     * @param path name of the field, or names of the fields of the nested objects separated by dots
+     * @return the number of constants and the null partition, or 0 when the values of the field are not known in
+     * advance
+     */
+    public static int partitionCount(final Class<?> type, final String path) {
+        requireNonNull(type, "type");
+        requireNonNull(path, "path");
+        Class<?> current = type;
+        for (String name : path.split("\\.")) {
+            current = FieldAccess.field(current, name).getType();
+        }
+        return current.isEnum() ? current.getEnumConstants().length + 1 : 0;
+    }
+
+    /**
+     * @brief This method creates the outputs of the parts as files of a directory per partition, named as by Hive
+     * @details the part 3 of the FINANCE partition of the department field, with the name worker_e0 and the extension
+     * .avro, is the file department=FINANCE/part-0003-worker_e0.avro of the directory
+     * @param directory the directory of the partitions
+     * @param label name of the partitioning field in the names of the directories
+     * @param name name of the parts, to tell apart the parts of different writers
+     * @param extension extension of the parts, with its dot
+     * @return the outputs
+     */
+    public static Outputs files(final File directory, final String label, final String name, final String extension) {
+        requireNonNull(directory, "directory");
+        return (partition, part) -> {
+            File partitionDirectory = new File(directory, label + "=" + escape(partition));
+            if (!partitionDirectory.isDirectory() && !partitionDirectory.mkdirs() && !partitionDirectory.isDirectory()) {
+                throw new IOException("Failed to create the directory " + partitionDirectory);
+            }
+            return new FileOutputStream(new File(partitionDirectory,
+                    String.format(Locale.ROOT, "part-%04d-%s%s", part, name, extension)));
+        };
+    }
+
+    /**
+     * @brief This method escapes a partition for the name of a directory
+     * @param partition the partition
+     * @return the partition URL encoded, so a value holding a '/' stays in one directory
+     */
+    private static String escape(final String partition) {
+        try {
+            return URLEncoder.encode(partition, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * An open part of a partition.
+     *
+     * @param <I> the domain object type
+     */
+    private static final class Part<I> {
+        private final RecordWriter<I> writer;
+        private final CountingOutputStream bytes;
+        private long records;
+
+        private Part(final RecordWriter<I> writer, final CountingOutputStream bytes) {
+            this.writer = writer;
+            this.bytes = bytes;
+        }
+    }
+}
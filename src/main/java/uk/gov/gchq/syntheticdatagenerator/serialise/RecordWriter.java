@@ -0,0 +1,49 @@
+/*
+ * Copyright 2018-2021 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.syntheticdatagenerator.serialise;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * A {@code RecordWriter} writes objects one at a time to an output opened by a {@link Serialiser}, for callers that
+ * cannot hand over a whole {@link java.util.stream.Stream} at once. Closing the writer completes the output and closes
+ * the underlying stream. Writers are not thread safe.
+ *
+ * @param <I> the domain object type
+ */
+public interface RecordWriter<I> extends Closeable {
+
+    /**
+     * Writes one object.
+     *
+     * @param object the object to write
+     * @throws IOException if the object couldn't be written
+     */
+    void write(I object) throws IOException;
+
+    /**
+     * Returns the approximate number of bytes of the objects written so far that the writer still holds in memory
+     * and has not written to its output, such as the row group of a Parquet file. Writers that only buffer a block
+     * of bytes before writing it out return 0.
+     *
+     * @return the number of bytes buffered by the writer
+     */
+    default long bufferedBytes() {
+        return 0;
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2018-2021 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.syntheticdatagenerator.serialise;
+
+import org.apache.avro.Schema;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code RecursiveSchemas} copies the schemas of records nested in themselves, such as the managers of a manager,
+ * into a fixed number of levels, for the columnar formats that have no recursive types.
+ */
+final class RecursiveSchemas {
+    private static final String LEVEL_SUFFIX = "Level";
+
+    private RecursiveSchemas() {
+    }
+
+    /**
+     * @brief This method copies a schema, unrolling the records nested in themselves into a number of levels
+     * @details the copies nested in a record get the name of their level, as in ManagerLevel2, as every record of a
+     * schema needs its own name, and deeper levels are left out
+     * @param schema the schema
+     * @param levels number of levels of a record nested in itself
+     * @return the copy
+     */
+    static Schema unroll(final Schema schema, final int levels) {
+        Schema unrolled = unroll(schema, levels, new HashMap<>());
+        if (unrolled == null) {
+            throw new IllegalArgumentException("Nothing is left of " + schema.getFullName() + " in " + levels + " levels");
+        }
+        return unrolled;
+    }
+
+    /**
+     * @brief This method copies a schema nested in records
+     * @param original the schema
+     * @param levels number of levels of a record nested in itself
+     * @param enclosing number of copies of every record enclosing the schema
+     * @return the copy, or null when nothing is left of the schema
+     */
+    private static Schema unroll(final Schema original, final int levels, final Map<String, Integer> enclosing) {
+        switch (original.getType()) {
+            case RECORD:
+                String name = original.getFullName();
+                int level = enclosing.getOrDefault(name, 0);
+                if (level == levels) {
+                    return null;
+                }
+                enclosing.put(name, level + 1);
+                List<Schema.Field> fields = new ArrayList<>();
+                for (Schema.Field field : original.getFields()) {
+                    Schema fieldSchema = unroll(field.schema(), levels, enclosing);
+                    if (fieldSchema != null) {
+                        fields.add(new Schema.Field(field.name(), fieldSchema, field.doc(), field.defaultVal()));
+                    }
+                }
+                enclosing.put(name, level);
+                if (fields.isEmpty()) {
+                    return null;
+                }
+                return Schema.createRecord(level == 0 ? original.getName() : original.getName() + LEVEL_SUFFIX + (level + 1),
+                        original.getDoc(), original.getNamespace(), original.isError(), fields);
+            case UNION:
+                List<Schema> branches = new ArrayList<>();
+                for (Schema branch : original.getTypes()) {
+                    Schema branchSchema = unroll(branch, levels, enclosing);
+                    if (branchSchema == null) {
+                        return null;
+                    }
+                    branches.add(branchSchema);
+                }
+                return Schema.createUnion(branches);
+            case ARRAY:
+                Schema elementSchema = unroll(original.getElementType(), levels, enclosing);
+                return elementSchema == null ? null : Schema.createArray(elementSchema);
+            default:
+                return original;
+        }
+    }
+}
@@ -54,6 +54,15 @@ public interface Serialiser<I> extends Serializable {
      */
     Stream<I> deserialise(final InputStream stream) throws IOException;
 
+    /**
+     * Opens a {@link RecordWriter} that serialises objects one at a time to an {@link OutputStream}.
+     *
+     * @param output the output stream to write the serialised bytes to, closed when the writer is closed
+     * @return the writer
+     * @throws IOException if the output couldn't be initialised
+     */
+    RecordWriter<I> createWriter(final OutputStream output) throws IOException;
+
     @JsonGetter("class")
     default String getClassName() {
         return getClass().getName();
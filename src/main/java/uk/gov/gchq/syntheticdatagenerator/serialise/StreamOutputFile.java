@@ -0,0 +1,101 @@
+/*
+ * Copyright 2018-2021 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.syntheticdatagenerator.serialise;
+
+import org.apache.parquet.io.OutputFile;
+import org.apache.parquet.io.PositionOutputStream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * A {@code StreamOutputFile} lets Parquet write a file to any {@link OutputStream}, counting the bytes written for the
+ * offsets of the footer, so that the files are written without a Hadoop file system.
+ */
+final class StreamOutputFile implements OutputFile {
+    private final OutputStream output;
+    private final boolean closeOutput;
+    private long position;
+
+    /**
+     * @brief This method wraps an output stream
+     * @param output the output stream
+     * @param closeOutput if closing the Parquet writer closes the output stream, otherwise it is only flushed
+     */
+    StreamOutputFile(final OutputStream output, final boolean closeOutput) {
+        this.output = output;
+        this.closeOutput = closeOutput;
+    }
+
+    @Override
+    public PositionOutputStream create(final long blockSizeHint) {
+        return new PositionOutputStream() {
+            @Override
+            public long getPos() {
+                return position;
+            }
+
+            @Override
+            public void write(final int b) throws IOException {
+                output.write(b);
+                position++;
+            }
+
+            @Override
+            public void write(final byte[] bytes, final int offset, final int length) throws IOException {
+                output.write(bytes, offset, length);
+                position += length;
+            }
+
+            @Override
+            public void flush() throws IOException {
+                output.flush();
+            }
+
+            @Override
+            public void close() throws IOException {
+                if (closeOutput) {
+                    output.close();
+                } else {
+                    output.flush();
+                }
+            }
+        };
+    }
+
+    /**
+     * @brief This method returns the number of bytes written to the output stream so far
+     * @return number of bytes written
+     */
+    long getPos() {
+        return position;
+    }
+
+    @Override
+    public PositionOutputStream createOrOverwrite(final long blockSizeHint) {
+        return create(blockSizeHint);
+    }
+
+    @Override
+    public boolean supportsBlockSize() {
+        return false;
+    }
+
+    @Override
+    public long defaultBlockSize() {
+        return 0;
+    }
+}
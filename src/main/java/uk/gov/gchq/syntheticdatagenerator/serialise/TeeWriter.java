@@ -0,0 +1,267 @@
+/*
+ * Copyright 2018-2021 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.syntheticdatagenerator.serialise;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadFactory;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@code TeeWriter} writes every object to several {@link RecordWriter}s, such as the Avro, CSV and JSON Lines files
+ * of the same people, so the people are generated once whatever the number of formats.
+ * <p>
+ * The objects are handed over in batches. Every sink has a bounded queue of batches and a thread of its own writing
+ * them, so the sinks write at the same time as each other and as the caller generates the objects, and a sink that
+ * is briefly slower than the others is absorbed by its queue. Once the queue of a sink is full the caller waits for
+ * it, as the objects are kept in memory until every sink has written them. The objects are shared by the sinks, so
+ * they must not be changed once written.
+ * <p>
+ * A sink that fails stops writing but keeps draining its queue, and the next write, or closing the tee, throws its
+ * failure. Closing the tee closes every sink.
+ *
+ * @param <I> the domain object type
+ */
+public final class TeeWriter<I> implements RecordWriter<I> {
+    /**
+     * Default number of objects handed over to the sinks at once.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 1_000;
+    /**
+     * Default number of batches queued for a sink.
+     */
+    public static final int DEFAULT_QUEUE_DEPTH = 8;
+
+    // Marks the end of the objects in the queue of a sink
+    private final List<I> endOfObjects = Collections.emptyList();
+    private final List<Sink> sinks = new ArrayList<>();
+    private final int batchSize;
+    private List<I> batch;
+    private boolean failed;
+    private boolean closed;
+
+    /**
+     * @brief This method starts the threads writing to the sinks, with the default batch size and queue depth
+     * @param writers the sinks, closed when the tee is closed
+     * @param threadFactory factory of the threads writing to the sinks
+     */
+    public TeeWriter(final List<? extends RecordWriter<I>> writers, final ThreadFactory threadFactory) {
+        this(writers, threadFactory, DEFAULT_BATCH_SIZE, DEFAULT_QUEUE_DEPTH);
+    }
+
+    /**
+     * @brief This method starts the threads writing to the sinks
+     * @param writers the sinks, closed when the tee is closed
+     * @param threadFactory factory of the threads writing to the sinks
+     * @param batchSize number of objects handed over to the sinks at once
+     * @param queueDepth maximum number of batches queued for a sink
+     */
+    public TeeWriter(final List<? extends RecordWriter<I>> writers, final ThreadFactory threadFactory,
+                     final int batchSize, final int queueDepth) {
+        requireNonNull(writers, "writers");
+        requireNonNull(threadFactory, "threadFactory");
+        if (writers.isEmpty()) {
+            throw new IllegalArgumentException("At least one sink is required");
+        }
+        if (batchSize < 1 || queueDepth < 1) {
+            throw new IllegalArgumentException("The batch size and the queue depth must be at least 1");
+        }
+        this.batchSize = batchSize;
+        this.batch = new ArrayList<>(batchSize);
+        for (RecordWriter<I> writer : writers) {
+            Sink sink = new Sink(requireNonNull(writer, "writer"), queueDepth);
+            sink.thread = threadFactory.newThread(sink);
+            sinks.add(sink);
+        }
+        for (Sink sink : sinks) {
+            sink.thread.start();
+        }
+    }
+
+    @Override
+    public void write(final I object) throws IOException {
+        if (closed) {
+            throw new IOException("The tee is closed");
+        }
+        batch.add(object);
+        if (batch.size() == batchSize) {
+            publish(batch);
+            batch = new ArrayList<>(batchSize);
+        }
+    }
+
+    /**
+     * @brief This method writes the last batch, waits for every sink to write its queue and closes the sinks
+     * @throws IOException the first failure of a sink not thrown yet, with those of the other sinks suppressed
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        IOException failure = null;
+        try {
+            if (!failed && !batch.isEmpty()) {
+                publish(batch);
+            }
+        } catch (IOException e) {
+            failure = e;
+        }
+        boolean interrupted = false;
+        for (Sink sink : sinks) {
+            interrupted |= sink.end();
+        }
+        for (Sink sink : sinks) {
+            if (sink.failure != null && !sink.reported) {
+                sink.reported = true;
+                failure = suppress(failure, sink.failure);
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+            failure = suppress(failure, new InterruptedIOException("Interrupted while closing the sinks"));
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * @brief This method queues a batch for every sink, waiting for the sinks whose queue is full
+     * @param objects the batch, read by every sink
+     * @throws IOException a sink failed, or the caller was interrupted
+     */
+    private void publish(final List<I> objects) throws IOException {
+        for (Sink sink : sinks) {
+            if (sink.failure != null) {
+                failed = true;
+                sink.reported = true;
+                throw sink.failure;
+            }
+        }
+        try {
+            for (Sink sink : sinks) {
+                sink.queue.put(objects);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failed = true;
+            throw new InterruptedIOException("Interrupted while waiting for a sink");
+        }
+    }
+
+    private static IOException suppress(final IOException failure, final IOException other) {
+        if (failure == null) {
+            return other;
+        }
+        failure.addSuppressed(other);
+        return failure;
+    }
+
+    /**
+     * The queue and thread of one sink.
+     */
+    private final class Sink implements Runnable {
+        private final RecordWriter<I> writer;
+        private final BlockingQueue<List<I>> queue;
+        private Thread thread;
+        private volatile IOException failure;
+        // If the failure has been thrown to the caller
+        private boolean reported;
+
+        private Sink(final RecordWriter<I> writer, final int queueDepth) {
+            this.writer = writer;
+            this.queue = new ArrayBlockingQueue<>(queueDepth);
+        }
+
+        @Override
+        public void run() {
+            try {
+                for (List<I> objects = take(); objects != endOfObjects; objects = take()) {
+                    // A failed sink keeps taking the batches, so the caller never waits for it
+                    if (failure == null) {
+                        write(objects);
+                    }
+                }
+            } finally {
+                try {
+                    writer.close();
+                } catch (IOException | RuntimeException e) {
+                    fail(e instanceof IOException ? (IOException) e : new IOException(e));
+                }
+            }
+        }
+
+        private List<I> take() {
+            while (true) {
+                try {
+                    return queue.take();
+                } catch (InterruptedException e) {
+                    fail(new InterruptedIOException("Interrupted while waiting for objects"));
+                }
+            }
+        }
+
+        private void write(final List<I> objects) {
+            try {
+                for (I object : objects) {
+                    writer.write(object);
+                }
+            } catch (IOException e) {
+                fail(e);
+            } catch (RuntimeException e) {
+                fail(new IOException(e));
+            }
+        }
+
+        private void fail(final IOException e) {
+            if (failure == null) {
+                failure = e;
+            }
+        }
+
+        /**
+         * @brief This method queues the end of the objects and waits for the sink to be closed
+         * @return if the caller was interrupted while waiting
+         */
+        private boolean end() {
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    queue.put(endOfObjects);
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            while (true) {
+                try {
+                    thread.join();
+                    return interrupted;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+    }
+}
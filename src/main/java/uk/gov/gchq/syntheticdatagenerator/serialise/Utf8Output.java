@@ -0,0 +1,337 @@
+/*
+ * Copyright 2018-2021 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.syntheticdatagenerator.serialise;
+
+import uk.gov.gchq.syntheticdatagenerator.utils.DigitText;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * A {@code Utf8Output} encodes text as UTF-8 straight into a reusable byte buffer, which is written to an
+ * {@link OutputStream} whenever it is full, so the text formats neither build a String per field nor go through a
+ * {@link java.io.Writer}. Outputs are not thread safe.
+ */
+final class Utf8Output implements Closeable {
+    // Number of chars encoded between two checks of the space left in the buffer, at most 3 bytes each
+    private static final int CHARS_PER_CHECK = 256;
+    private static final int MAX_BYTES_PER_CHAR = 3;
+    private static final int MIN_BUFFER_SIZE = CHARS_PER_CHECK * MAX_BYTES_PER_CHAR + 1;
+    // Number of chars of a JSON string encoded between two checks, at most 6 bytes each, keeping room for a prefix
+    // such as the name of a field and for a quote
+    private static final int MAX_ESCAPE_BYTES = 6;
+    private static final int MAX_PREFIX_BYTES = 64;
+    private static final int MAX_QUOTE_BYTES = 2;
+    private static final int JSON_CHARS_PER_CHECK = (MIN_BUFFER_SIZE - MAX_PREFIX_BYTES - MAX_QUOTE_BYTES) / MAX_ESCAPE_BYTES;
+    private static final int MAX_INT_BYTES = 11;
+    private static final byte[] MIN_INT = Integer.toString(Integer.MIN_VALUE).getBytes();
+    private static final byte REPLACEMENT = '?';
+    private static final int CONTROL_CHARS = 0x20;
+    private static final byte[] HEX = {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'};
+
+    private final OutputStream out;
+    private final byte[] buffer;
+    private int count;
+
+    /**
+     * @brief This method creates an output writing to a stream
+     * @param out the output stream, closed when this output is closed
+     * @param bufferSize size of the buffer
+     */
+    Utf8Output(final OutputStream out, final int bufferSize) {
+        this.out = out;
+        this.buffer = new byte[Math.max(bufferSize, MIN_BUFFER_SIZE)];
+    }
+
+    /**
+     * @brief This method writes one byte
+     * @param b the byte
+     * @throws IOException found problems writing to the output stream
+     */
+    void write(final int b) throws IOException {
+        if (count == buffer.length) {
+            ensure(1);
+        }
+        buffer[count++] = (byte) b;
+    }
+
+    /**
+     * @brief This method writes bytes
+     * @param bytes the bytes
+     * @throws IOException found problems writing to the output stream
+     */
+    void write(final byte[] bytes) throws IOException {
+        write(bytes, 0, bytes.length);
+    }
+
+    /**
+     * @brief This method writes part of an array of bytes
+     * @param bytes the bytes
+     * @param offset position of the first byte
+     * @param length number of bytes
+     * @throws IOException found problems writing to the output stream
+     */
+    void write(final byte[] bytes, final int offset, final int length) throws IOException {
+        if (length > buffer.length) {
+            drain();
+            out.write(bytes, offset, length);
+            return;
+        }
+        ensure(length);
+        System.arraycopy(bytes, offset, buffer, count, length);
+        count += length;
+    }
+
+    /**
+     * @brief This method writes an int in decimal
+     * @param value the int
+     * @throws IOException found problems writing to the output stream
+     */
+    void writeInt(final int value) throws IOException {
+        if (value == Integer.MIN_VALUE) {
+            write(MIN_INT);
+            return;
+        }
+        ensure(MAX_INT_BYTES);
+        int positive = value;
+        if (value < 0) {
+            buffer[count++] = '-';
+            positive = -value;
+        }
+        count = DigitText.write(positive, 1, buffer, count);
+    }
+
+    /**
+     * @brief This method writes a long in decimal
+     * @param value the long
+     * @throws IOException found problems writing to the output stream
+     */
+    void writeLong(final long value) throws IOException {
+        if (value == (int) value) {
+            writeInt((int) value);
+        } else {
+            writeUtf8(Long.toString(value));
+        }
+    }
+
+    /**
+     * @brief This method writes a string as UTF-8
+     * @param text the string
+     * @throws IOException found problems writing to the output stream
+     */
+    void writeUtf8(final String text) throws IOException {
+        writeUtf8(text, 0, text.length());
+    }
+
+    /**
+     * @brief This method writes part of a string as UTF-8
+     * @details unpaired surrogates are written as a question mark, as String.getBytes does
+     * @param text the string
+     * @param from position of the first char
+     * @param to position after the last char
+     * @throws IOException found problems writing to the output stream
+     */
+    void writeUtf8(final String text, final int from, final int to) throws IOException {
+        int i = from;
+        while (i < to) {
+            ensure(MIN_BUFFER_SIZE);
+            int end = Math.min(to, i + CHARS_PER_CHECK);
+            byte[] bytes = buffer;
+            int position = count;
+            // ASCII fast path
+            while (i < end) {
+                char c = text.charAt(i);
+                if (c >= 0x80) {
+                    break;
+                }
+                bytes[position++] = (byte) c;
+                i++;
+            }
+            while (i < end) {
+                char c = text.charAt(i++);
+                if (c < 0x80) {
+                    bytes[position++] = (byte) c;
+                } else {
+                    count = position;
+                    i = encode(c, text, i, to);
+                    position = count;
+                }
+            }
+            count = position;
+        }
+    }
+
+    /**
+     * @brief This method writes a string as a quoted JSON string after a prefix, escaping its quotes, backslashes and
+     * control characters in the same pass as it is encoded
+     * @details the prefix ends with the opening quote, and usually starts with the name of the field holding the
+     * string. An escaped control character takes 6 bytes, so the space left in the buffer is checked every 117 chars,
+     * keeping room for a short prefix and the closing quote.
+     * @param prefix the bytes before the string, ending with its opening quote
+     * @param text the string
+     * @param quote the bytes written for every quote, one quote or two to embed the JSON text in a quoted CSV value
+     * @throws IOException found problems writing to the output stream
+     */
+    void writeJsonString(final byte[] prefix, final String text, final byte[] quote) throws IOException {
+        if (prefix.length > MAX_PREFIX_BYTES) {
+            write(prefix);
+            ensure(MIN_BUFFER_SIZE);
+        } else {
+            ensure(MIN_BUFFER_SIZE);
+            System.arraycopy(prefix, 0, buffer, count, prefix.length);
+            count += prefix.length;
+        }
+        int length = text.length();
+        int i = 0;
+        while (true) {
+            int end = Math.min(length, i + JSON_CHARS_PER_CHECK);
+            byte[] bytes = buffer;
+            int position = count;
+            while (i < end) {
+                char c = text.charAt(i++);
+                if (c >= CONTROL_CHARS && c < 0x80 && c != '"' && c != '\\') {
+                    bytes[position++] = (byte) c;
+                } else if (c < 0x80) {
+                    position = escape(c, quote, position);
+                } else {
+                    count = position;
+                    i = encode(c, text, i, length);
+                    position = count;
+                }
+            }
+            count = position;
+            if (i >= length) {
+                break;
+            }
+            ensure(MIN_BUFFER_SIZE);
+        }
+        for (byte b : quote) {
+            buffer[count++] = b;
+        }
+    }
+
+    /**
+     * @brief This method encodes a char that is not ASCII, with the char after it when they are a surrogate pair
+     * @details unpaired surrogates are written as a question mark, as String.getBytes does. A pair takes 4 bytes for
+     * 2 chars, within the 3 bytes per char checked for.
+     * @param c the char
+     * @param text the string holding the char
+     * @param next position of the char after it
+     * @param to position after the last char of the string that is written
+     * @return position of the next char to write
+     */
+    private int encode(final char c, final String text, final int next, final int to) {
+        byte[] bytes = buffer;
+        int position = count;
+        int i = next;
+        if (c < 0x800) {
+            bytes[position++] = (byte) (0xC0 | c >> 6);
+            bytes[position++] = (byte) (0x80 | c & 0x3F);
+        } else if (!Character.isSurrogate(c)) {
+            bytes[position++] = (byte) (0xE0 | c >> 12);
+            bytes[position++] = (byte) (0x80 | c >> 6 & 0x3F);
+            bytes[position++] = (byte) (0x80 | c & 0x3F);
+        } else if (Character.isHighSurrogate(c) && i < to && Character.isLowSurrogate(text.charAt(i))) {
+            int codePoint = Character.toCodePoint(c, text.charAt(i++));
+            bytes[position++] = (byte) (0xF0 | codePoint >> 18);
+            bytes[position++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+            bytes[position++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+            bytes[position++] = (byte) (0x80 | codePoint & 0x3F);
+        } else {
+            bytes[position++] = REPLACEMENT;
+        }
+        count = position;
+        return i;
+    }
+
+    /**
+     * @brief This method escapes a quote, a backslash or a control character of a JSON string
+     * @param c the char
+     * @param quote the bytes written for every quote
+     * @param from position of the escape in the buffer
+     * @return position after the escape
+     */
+    private int escape(final char c, final byte[] quote, final int from) {
+        byte[] bytes = buffer;
+        int position = from;
+        bytes[position++] = '\\';
+        if (c == '"') {
+            for (byte b : quote) {
+                bytes[position++] = b;
+            }
+        } else if (c == '\\') {
+            bytes[position++] = '\\';
+        } else if (c == '\n') {
+            bytes[position++] = 'n';
+        } else if (c == '\r') {
+            bytes[position++] = 'r';
+        } else if (c == '\t') {
+            bytes[position++] = 't';
+        } else {
+            bytes[position++] = 'u';
+            bytes[position++] = '0';
+            bytes[position++] = '0';
+            bytes[position++] = HEX[c >> 4];
+            bytes[position++] = HEX[c & 0xF];
+        }
+        return position;
+    }
+
+    /**
+     * @brief This method writes the buffer and flushes the output stream
+     * @throws IOException found problems writing to the output stream
+     */
+    void flush() throws IOException {
+        drain();
+        out.flush();
+    }
+
+    /**
+     * @brief This method writes the buffer and closes the output stream
+     * @throws IOException found problems writing to the output stream
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            drain();
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * @brief This method makes room in the buffer for a number of bytes
+     * @param length number of bytes
+     * @throws IOException found problems writing to the output stream
+     */
+    private void ensure(final int length) throws IOException {
+        if (count + length > buffer.length) {
+            drain();
+        }
+    }
+
+    /**
+     * @brief This method writes the buffer to the output stream
+     * @throws IOException found problems writing to the output stream
+     */
+    private void drain() throws IOException {
+        if (count > 0) {
+            out.write(buffer, 0, count);
+            count = 0;
+        }
+    }
+}
@@ -18,6 +18,7 @@ package uk.gov.gchq.syntheticdatagenerator.types;
 
 import com.github.javafaker.Faker;
 
+import java.util.Random;
 import java.util.StringJoiner;
 import java.io.Serializable;
 
@@ -49,6 +50,21 @@ public class Address implements Serializable {
         return address;
     }
 
+    /**
+     * @brief This method generates addresses from the precompiled dictionaries
+     * @param random random value
+     * @return generated addresses
+     */
+    public static Address generate(final Random random) {
+        Address address = new Address();
+        address.setStreetAddressNumber(Dictionaries.streetAddressNumber(random));
+        address.setStreetName(Dictionaries.streetName(random));
+        address.setCity(Dictionaries.city(random));
+        address.setState(Dictionaries.state(random));
+        address.setZipCode(Dictionaries.postcode(random));
+        return address;
+    }
+
     /**
      * @brief This method returns the street address number
      * @return street address number
@@ -16,6 +16,7 @@
 
 package uk.gov.gchq.syntheticdatagenerator.types;
 
+import uk.gov.gchq.syntheticdatagenerator.utils.DigitText;
 
 import java.util.Random;
 import java.util.StringJoiner;
@@ -39,8 +40,8 @@ public class BankDetails implements Serializable{
      */
     public static BankDetails generate(final Random random) {
         BankDetails bankDetails = new BankDetails();
-        bankDetails.sortCode = String.format("%0" + SORT_CODE_DIGITS + "d", random.nextInt((int) Math.pow(10, SORT_CODE_DIGITS)));
-        bankDetails.accountNumber = String.format("%0" + ACCOUNT_NUMBER_DIGITS + "d", random.nextInt((int) Math.pow(10, ACCOUNT_NUMBER_DIGITS)));
+        bankDetails.sortCode = DigitText.randomDigits(random, SORT_CODE_DIGITS);
+        bankDetails.accountNumber = DigitText.randomDigits(random, ACCOUNT_NUMBER_DIGITS);
         return bankDetails;
     }
 
@@ -0,0 +1,204 @@
+/*
+ * Copyright 2018-2021 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.syntheticdatagenerator.types;
+
+import com.github.javafaker.service.FakeValuesService;
+import com.github.javafaker.service.RandomService;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * @class Dictionaries
+ * @brief This class samples the en-GB names and addresses of javafaker from precompiled in-memory tables
+ * @details the tables are read from the javafaker data files once, when the class is loaded. Sampling a value is
+ * then plain array indexing, instead of resolving the javafaker expressions and regular expressions on every call.
+ */
+public final class Dictionaries {
+    private static final int MAX_STREET_ADDRESS_NUMBER = 1000;
+    private static final int CITY_FORMATS = 4;
+    // The en-GB postcode expression [A-PR-UWYZ]([A-HK-Y][0-9][ABEHMNPRVWXY0-9]?|[0-9][ABCDEFGHJKPSTUW0-9]?) [0-9][ABD-HJLNP-UW-Z]{2}
+    private static final char[] POSTCODE_AREA = "ABCDEFGHIJKLMNOPRSTUWYZ".toCharArray();
+    private static final char[] POSTCODE_SUB_AREA = "ABCDEFGHKLMNOPQRSTUVWXY".toCharArray();
+    private static final char[] POSTCODE_DISTRICT_LETTER = "ABEHMNPRVWXY0123456789".toCharArray();
+    private static final char[] POSTCODE_DISTRICT_SUFFIX = "ABCDEFGHJKPSTUW0123456789".toCharArray();
+    private static final char[] POSTCODE_UNIT = "ABDEFGHJLNPQRSTUWXYZ".toCharArray();
+    private static final int POSTCODE_MAX_LENGTH = 8;
+
+    private static final String[] FIRST_NAMES;
+    private static final int FEMALE_FIRST_NAMES;
+    private static final String[] LAST_NAMES;
+    private static final String[] STREET_SUFFIXES;
+    private static final String[] CITY_PREFIXES;
+    private static final String[] CITY_SUFFIXES;
+    private static final String[] STATES;
+
+    static {
+        FakeValuesService values = new FakeValuesService(new Locale("en-GB"), new RandomService());
+        String[] femaleFirstNames = load(values, "name.female_first_name");
+        String[] maleFirstNames = load(values, "name.male_first_name");
+        FEMALE_FIRST_NAMES = femaleFirstNames.length;
+        FIRST_NAMES = new String[femaleFirstNames.length + maleFirstNames.length];
+        System.arraycopy(femaleFirstNames, 0, FIRST_NAMES, 0, femaleFirstNames.length);
+        System.arraycopy(maleFirstNames, 0, FIRST_NAMES, femaleFirstNames.length, maleFirstNames.length);
+        LAST_NAMES = load(values, "name.last_name");
+        STREET_SUFFIXES = load(values, "address.street_suffix");
+        CITY_PREFIXES = load(values, "address.city_prefix");
+        CITY_SUFFIXES = load(values, "address.city_suffix");
+        STATES = load(values, "address.state");
+    }
+
+    private Dictionaries() {
+    }
+
+    /**
+     * @brief This method generates a first name
+     * @details as javafaker does, the female or the male names are chosen with equal probability first, and a name is
+     * then drawn from that list. The lists differ in length, so drawing from both at once would mostly give female names.
+     * @param random random value
+     * @return first name
+     */
+    public static String firstName(final Random random) {
+        if (random.nextBoolean()) {
+            return FIRST_NAMES[random.nextInt(FEMALE_FIRST_NAMES)];
+        }
+        return FIRST_NAMES[FEMALE_FIRST_NAMES + random.nextInt(FIRST_NAMES.length - FEMALE_FIRST_NAMES)];
+    }
+
+    /**
+     * @brief This method generates a last name
+     * @param random random value
+     * @return last name
+     */
+    public static String lastName(final Random random) {
+        return LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+    }
+
+    /**
+     * @brief This method generates a full name, as a first name and a last name
+     * @param random random value
+     * @return full name
+     */
+    public static String fullName(final Random random) {
+        return firstName(random) + " " + lastName(random);
+    }
+
+    /**
+     * @brief This method generates a street address number
+     * @param random random value
+     * @return street address number
+     */
+    public static String streetAddressNumber(final Random random) {
+        return String.valueOf(random.nextInt(MAX_STREET_ADDRESS_NUMBER));
+    }
+
+    /**
+     * @brief This method generates a street name, as a first or last name followed by a street suffix
+     * @param random random value
+     * @return street name
+     */
+    public static String streetName(final Random random) {
+        String name = random.nextBoolean() ? firstName(random) : lastName(random);
+        return name + " " + STREET_SUFFIXES[random.nextInt(STREET_SUFFIXES.length)];
+    }
+
+    /**
+     * @brief This method generates a city name with one of the javafaker city formats
+     * @param random random value
+     * @return city name
+     */
+    public static String city(final Random random) {
+        switch (random.nextInt(CITY_FORMATS)) {
+            case 0:
+                return cityPrefix(random) + " " + firstName(random) + citySuffix(random);
+            case 1:
+                return cityPrefix(random) + " " + firstName(random);
+            case 2:
+                return firstName(random) + citySuffix(random);
+            default:
+                return lastName(random) + citySuffix(random);
+        }
+    }
+
+    /**
+     * @brief This method generates a state
+     * @param random random value
+     * @return state
+     */
+    public static String state(final Random random) {
+        return STATES[random.nextInt(STATES.length)];
+    }
+
+    /**
+     * @brief This method generates a UK postcode
+     * @param random random value
+     * @return postcode
+     */
+    public static String postcode(final Random random) {
+        char[] postcode = new char[POSTCODE_MAX_LENGTH];
+        int length = 0;
+        postcode[length++] = pick(POSTCODE_AREA, random);
+        if (random.nextBoolean()) {
+            postcode[length++] = pick(POSTCODE_SUB_AREA, random);
+            postcode[length++] = digit(random);
+            if (random.nextBoolean()) {
+                postcode[length++] = pick(POSTCODE_DISTRICT_LETTER, random);
+            }
+        } else {
+            postcode[length++] = digit(random);
+            if (random.nextBoolean()) {
+                postcode[length++] = pick(POSTCODE_DISTRICT_SUFFIX, random);
+            }
+        }
+        postcode[length++] = ' ';
+        postcode[length++] = digit(random);
+        postcode[length++] = pick(POSTCODE_UNIT, random);
+        postcode[length++] = pick(POSTCODE_UNIT, random);
+        return new String(postcode, 0, length);
+    }
+
+    private static String cityPrefix(final Random random) {
+        return CITY_PREFIXES[random.nextInt(CITY_PREFIXES.length)];
+    }
+
+    private static String citySuffix(final Random random) {
+        return CITY_SUFFIXES[random.nextInt(CITY_SUFFIXES.length)];
+    }
+
+    private static char pick(final char[] characters, final Random random) {
+        return characters[random.nextInt(characters.length)];
+    }
+
+    private static char digit(final Random random) {
+        return (char) ('0' + random.nextInt(10));
+    }
+
+    /**
+     * @brief This method reads a list of values from the javafaker data files
+     * @param values the javafaker values
+     * @param key key of the list
+     * @return the values of the list
+     */
+    private static String[] load(final FakeValuesService values, final String key) {
+        Object list = values.fetchObject(key);
+        if (!(list instanceof List)) {
+            throw new IllegalStateException("No javafaker list of values for " + key);
+        }
+        return ((List<?>) list).stream().map(String::valueOf).toArray(String[]::new);
+    }
+}
@@ -65,6 +65,33 @@ public class EmergencyContact implements Serializable{
         return emergencyContacts;
     }
 
+    /**
+     * @brief This method generates emergency contacts from the precompiled dictionaries
+     * @param random random value
+     * @return generated emergency contact
+     */
+    public static EmergencyContact generate(final Random random) {
+        EmergencyContact contact = new EmergencyContact();
+        contact.setContactName(Dictionaries.fullName(random));
+        contact.setRelation(Relation.generate(random));
+        contact.setContactNumbers(PhoneNumber.generateMany(random));
+        return contact;
+    }
+
+    /**
+     * @brief This method generates a list of emergency contacts from the precompiled dictionaries
+     * @param random random value
+     * @return generated list of emergency contacts
+     */
+    public static EmergencyContact[] generateMany(final Random random) {
+        int numberOfExtraContacts = random.nextInt(MAX_EXTRA_CONTACTS);
+        EmergencyContact[] emergencyContacts = new EmergencyContact[numberOfExtraContacts + 1];
+        for (int i = 0; i <= numberOfExtraContacts; i++) {
+            emergencyContacts[i] = EmergencyContact.generate(random);
+        }
+        return emergencyContacts;
+    }
+
     /**
      * @brief This method returns the contact name
      * @return contact name
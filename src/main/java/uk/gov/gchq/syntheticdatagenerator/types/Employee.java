@@ -16,9 +16,9 @@
 
 package uk.gov.gchq.syntheticdatagenerator.types;
 
-import com.github.javafaker.Faker;
-import com.github.javafaker.Name;
+import uk.gov.gchq.syntheticdatagenerator.random.RecordRandom;
 import uk.gov.gchq.syntheticdatagenerator.utils.DateHelper;
+import uk.gov.gchq.syntheticdatagenerator.utils.DigitText;
 
 import java.io.Serializable;
 import java.util.Arrays;
@@ -63,37 +63,68 @@ public class Employee implements Serializable {
      * @return generated employees
      */
     public static Employee generate(final Random random) {
+        return generate(random, null);
+    }
+
+    /**
+     * @brief This method generates random values for an employee, with managers from an organisational hierarchy
+     * @param random random value
+     * @param orgChart hierarchy of managers shared by the people, or null to generate a tree of managers per person
+     * @return generated employee
+     */
+    public static Employee generate(final Random random, final OrgChart orgChart) {
         Employee employee = new Employee();
-        Faker faker = ThreadLocalFaker.getFaker(random);
         employee.setUid(generateUID(random));
-        Name employeeName = faker.name();
-        employee.setName(employeeName.firstName() + " " + employeeName.lastName()); // we are storing name as a string not a Name
-        employee.setDateOfBirth(DateHelper.generateDateOfBirth(random));
+        employee.setName(Dictionaries.fullName(random)); // we are storing name as a string not a Name
+        int dateOfBirth = DateHelper.generateBirthDate(random);
+        employee.setDateOfBirth(DateHelper.format(dateOfBirth));
         employee.setContactNumbers(PhoneNumber.generateMany(random));
-        employee.setEmergencyContacts(EmergencyContact.generateMany(faker, random));
-        employee.setAddress(Address.generate(faker));
+        employee.setEmergencyContacts(EmergencyContact.generateMany(random));
+        employee.setAddress(Address.generate(random));
         employee.setBankDetails(BankDetails.generate(random));
         employee.setTaxCode(generateTaxCode());
         employee.setNationality(Nationality.generate(random));
-        employee.setManager(Manager.generateMany(random, MIN_MANGERS_TREE_HEIGHT + random.nextInt(EXTRA_MANAGERS_TREE_HEIGHT_RANGE)));
-        employee.setHireDate(DateHelper.generateHireDate(employee.dateOfBirth, random));
+        int chain = MIN_MANGERS_TREE_HEIGHT + random.nextInt(EXTRA_MANAGERS_TREE_HEIGHT_RANGE);
+        employee.setManager(orgChart == null ? Manager.generateMany(random, chain) : orgChart.managers(random, chain));
+        employee.setHireDate(DateHelper.format(DateHelper.generateHireDate(dateOfBirth, random)));
         employee.setGrade(Grade.generate(random));
         employee.setDepartment(Department.generate(random));
         employee.setSalaryAmount(MIN_SALARY + random.nextInt(EXTRA_SALARY_RANGE));
         employee.setSalaryBonus(random.nextInt(SALARY_BONUS_RANGE));
-        employee.setWorkLocation(WorkLocation.generate(faker, random));
+        employee.setWorkLocation(WorkLocation.generate(random));
         employee.setSex(Sex.generate(random));
 
         return employee;
     }
 
+    /**
+     * @brief This method generates the employee at a position of a dataset, without generating the ones before it
+     * @param seed seed of the dataset
+     * @param index position of the employee in the dataset
+     * @return generated employee, always the same for the same seed and index
+     */
+    public static Employee generate(final long seed, final long index) {
+        return generate(seed, index, null);
+    }
+
+    /**
+     * @brief This method generates the employee at a position of a dataset, with managers from an organisational hierarchy
+     * @param seed seed of the dataset
+     * @param index position of the employee in the dataset
+     * @param orgChart hierarchy of managers shared by the people, or null to generate a tree of managers per person
+     * @return generated employee, always the same for the same seed, index and hierarchy
+     */
+    public static Employee generate(final long seed, final long index, final OrgChart orgChart) {
+        return generate(RecordRandom.forRecord(seed, index), orgChart);
+    }
+
     /**
      * @brief This method generates an identifier
      * @param random random value
      * @return generated identifier
      */
     public static String generateUID(final Random random) {
-        return String.valueOf(random.nextInt(Integer.MAX_VALUE));
+        return DigitText.randomNumber(random, Integer.MAX_VALUE);
     }
 
     /**
@@ -30,6 +30,9 @@ import static java.util.Objects.requireNonNull;
  * @details When creating a Manager entity it is possible to create up to 3 levels of managers
  */
 public class Manager implements Serializable {
+    // The types of managers above every person
+    static final String[] MANAGER_TYPES = new String[]{"Human Resources Manager", "Department Manager", "Career Manager"};
+
     private String uid;
     private Manager[] managers;
     private String managerType;
@@ -41,11 +44,11 @@ public class Manager implements Serializable {
      * @return different managers levels
      */
     public static Manager[] generateMany(final Random random, final int chain) {
-        return new Manager[]{
-                generateRecursive(random, chain, "Human Resources Manager"),
-                generateRecursive(random, chain, "Department Manager"),
-                generateRecursive(random, chain, "Career Manager")
-        };
+        Manager[] managers = new Manager[MANAGER_TYPES.length];
+        for (int i = 0; i < managers.length; i++) {
+            managers[i] = generateRecursive(random, chain, MANAGER_TYPES[i]);
+        }
+        return managers;
     }
 
     /**
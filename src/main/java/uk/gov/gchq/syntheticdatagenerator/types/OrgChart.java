@@ -0,0 +1,118 @@
+/*
+ * Copyright 2018-2021 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.syntheticdatagenerator.types;
+
+import uk.gov.gchq.syntheticdatagenerator.random.RandomSource;
+
+import java.util.Random;
+
+/**
+ * @class OrgChart
+ * @brief This class holds a bounded organisational hierarchy of managers shared by all the people of a dataset
+ * @details there is one tree of managers for every type of manager. A person references one manager of every type
+ * at the level given by the length of its chain of managers, and every manager references only its own manager of
+ * the same type, so a person carries a few shared managers instead of a freshly generated tree of them. The managers
+ * are generated once from the seed of the dataset, so their identifiers are consistent across the people and files.
+ */
+public final class OrgChart {
+    /**
+     * @brief Number of managers of every type used when no size is given
+     */
+    public static final int DEFAULT_SIZE = 1_000;
+    // The deepest chain of managers of a person
+    private static final int LEVELS = 4;
+    private static final int MIN_BRANCHING = 2;
+
+    private final int branching;
+    // The managers of every type, stored level by level so that the manager of node i is node (i - 1) / branching
+    private final Manager[][] nodes;
+    private final int[] firstAtLevel = new int[LEVELS + 1];
+
+    /**
+     * @brief This method generates the hierarchy of managers
+     * @param random random value
+     * @param size maximum number of managers of every type, the hierarchy always has at least one full binary tree
+     */
+    public OrgChart(final Random random, final int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("The size of the org chart must be positive, not " + size);
+        }
+        int fanOut = MIN_BRANCHING;
+        while (countNodes(fanOut + 1) <= size) {
+            fanOut++;
+        }
+        this.branching = fanOut;
+        int levelSize = 1;
+        for (int level = 0; level < LEVELS; level++) {
+            firstAtLevel[level + 1] = firstAtLevel[level] + levelSize;
+            levelSize *= branching;
+        }
+        nodes = new Manager[Manager.MANAGER_TYPES.length][firstAtLevel[LEVELS]];
+        for (int type = 0; type < nodes.length; type++) {
+            Manager[] tree = nodes[type];
+            for (int i = 0; i < tree.length; i++) {
+                tree[i] = Manager.generate(random, Manager.MANAGER_TYPES[type]);
+                if (i > 0) {
+                    tree[i].setManager(new Manager[]{tree[(i - 1) / branching]});
+                }
+            }
+        }
+    }
+
+    /**
+     * @brief This method generates the hierarchy of managers of a dataset
+     * @param seed seed of the dataset
+     * @param size maximum number of managers of every type
+     * @return the hierarchy, always the same for the same seed and size
+     */
+    public static OrgChart generate(final long seed, final int size) {
+        return new OrgChart(RandomSource.XOSHIRO.create(seed), size);
+    }
+
+    /**
+     * @brief This method picks the managers of one person, one of every type
+     * @param random random value
+     * @param chain length of the chain of managers above the person, capped to the depth of the hierarchy
+     * @return the managers, shared with the other people
+     */
+    public Manager[] managers(final Random random, final int chain) {
+        int level = Math.max(1, Math.min(chain, LEVELS)) - 1;
+        int levelSize = firstAtLevel[level + 1] - firstAtLevel[level];
+        Manager[] managers = new Manager[nodes.length];
+        for (int type = 0; type < nodes.length; type++) {
+            managers[type] = nodes[type][firstAtLevel[level] + random.nextInt(levelSize)];
+        }
+        return managers;
+    }
+
+    /**
+     * @brief This method returns the number of managers of every type
+     * @return number of managers of every type
+     */
+    public int size() {
+        return firstAtLevel[LEVELS];
+    }
+
+    private static int countNodes(final int fanOut) {
+        int count = 0;
+        int levelSize = 1;
+        for (int level = 0; level < LEVELS; level++) {
+            count += levelSize;
+            levelSize *= fanOut;
+        }
+        return count;
+    }
+}
@@ -16,6 +16,8 @@
 
 package uk.gov.gchq.syntheticdatagenerator.types;
 
+import uk.gov.gchq.syntheticdatagenerator.utils.DigitText;
+
 import java.util.Random;
 import java.util.StringJoiner;
 import java.io.Serializable;
@@ -67,7 +69,7 @@ public class PhoneNumber implements Serializable {
     private static PhoneNumber generate(final Random random, final String[] possibleTypes) {
         PhoneNumber phoneNumber = new PhoneNumber();
         phoneNumber.type = possibleTypes[random.nextInt(possibleTypes.length)];
-        phoneNumber.number = String.format("0%0" + PHONE_NUMBER_LENGTH + "d", random.nextInt((int) Math.pow(10, PHONE_NUMBER_LENGTH)));
+        phoneNumber.number = DigitText.randomDigits(random, "0", PHONE_NUMBER_LENGTH);
         return phoneNumber;
     }
 
@@ -16,9 +16,9 @@
 
 package uk.gov.gchq.syntheticdatagenerator.types;
 
-import com.github.javafaker.Faker;
-import com.github.javafaker.Name;
+import uk.gov.gchq.syntheticdatagenerator.random.RecordRandom;
 import uk.gov.gchq.syntheticdatagenerator.utils.DateHelper;
+import uk.gov.gchq.syntheticdatagenerator.utils.DigitText;
 
 import java.io.Serializable;
 import java.util.Arrays;
@@ -59,35 +59,66 @@ public class Teacher implements Serializable {
      * @return generated teachers
      */
     public static Teacher generate(final Random random) {
+        return generate(random, null);
+    }
+
+    /**
+     * @brief This method generates random values for a teacher, with managers from an organisational hierarchy
+     * @param random random value
+     * @param orgChart hierarchy of managers shared by the people, or null to generate a tree of managers per person
+     * @return generated teacher
+     */
+    public static Teacher generate(final Random random, final OrgChart orgChart) {
         Teacher teacher = new Teacher();
-        Faker faker = ThreadLocalFaker.getFaker(random);
         teacher.setUid(generateUID(random));
-        Name teacherName = faker.name();
-        teacher.setName(teacherName.firstName() + " " + teacherName.lastName()); // we are storing name as a string not a Name
-        teacher.setDateOfBirth(DateHelper.generateDateOfBirth(random));
+        teacher.setName(Dictionaries.fullName(random)); // we are storing name as a string not a Name
+        int dateOfBirth = DateHelper.generateBirthDate(random);
+        teacher.setDateOfBirth(DateHelper.format(dateOfBirth));
         teacher.setContactNumbers(PhoneNumber.generateMany(random));
-        teacher.setEmergencyContacts(EmergencyContact.generateMany(faker, random));
-        teacher.setAddress(Address.generate(faker));
+        teacher.setEmergencyContacts(EmergencyContact.generateMany(random));
+        teacher.setAddress(Address.generate(random));
         teacher.setNationality(Nationality.generate(random));
         teacher.setSubject(Subject.generate(random));
         teacher.setDepartment(Department.generate(random));
-        teacher.setManager(Manager.generateMany(random, MIN_MANGERS_TREE_HEIGHT + random.nextInt(EXTRA_MANAGERS_TREE_HEIGHT_RANGE)));
-        teacher.setHireDate(DateHelper.generateHireDate(teacher.dateOfBirth, random));
+        int chain = MIN_MANGERS_TREE_HEIGHT + random.nextInt(EXTRA_MANAGERS_TREE_HEIGHT_RANGE);
+        teacher.setManager(orgChart == null ? Manager.generateMany(random, chain) : orgChart.managers(random, chain));
+        teacher.setHireDate(DateHelper.format(DateHelper.generateHireDate(dateOfBirth, random)));
         teacher.setSalaryAmount(MIN_SALARY + random.nextInt(EXTRA_SALARY_RANGE));
         teacher.setSalaryBonus(random.nextInt(SALARY_BONUS_RANGE));
-        teacher.setWorkLocation(WorkLocation.generate(faker, random));
+        teacher.setWorkLocation(WorkLocation.generate(random));
         teacher.setSex(Sex.generate(random));
 
         return teacher;
     }
 
+    /**
+     * @brief This method generates the teacher at a position of a dataset, without generating the ones before it
+     * @param seed seed of the dataset
+     * @param index position of the teacher in the dataset
+     * @return generated teacher, always the same for the same seed and index
+     */
+    public static Teacher generate(final long seed, final long index) {
+        return generate(seed, index, null);
+    }
+
+    /**
+     * @brief This method generates the teacher at a position of a dataset, with managers from an organisational hierarchy
+     * @param seed seed of the dataset
+     * @param index position of the teacher in the dataset
+     * @param orgChart hierarchy of managers shared by the people, or null to generate a tree of managers per person
+     * @return generated teacher, always the same for the same seed, index and hierarchy
+     */
+    public static Teacher generate(final long seed, final long index, final OrgChart orgChart) {
+        return generate(RecordRandom.forRecord(seed, index), orgChart);
+    }
+
     /**
      * @brief This method generates an identifier
      * @param random random value
      * @return generated identifier
      */
     public static String generateUID(final Random random) {
-        return String.valueOf(random.nextInt(Integer.MAX_VALUE));
+        return DigitText.randomNumber(random, Integer.MAX_VALUE);
     }
 
     /**
@@ -43,6 +43,18 @@ public class WorkLocation implements Serializable{
         return workLocation;
     }
 
+    /**
+     * @brief This method generates work locations from the precompiled dictionaries
+     * @param random random value
+     * @return generated work location
+     */
+    public static WorkLocation generate(final Random random) {
+        WorkLocation workLocation = new WorkLocation();
+        workLocation.setAddress(Address.generate(random));
+        workLocation.setWorkLocationName(WorkLocationName.generate(random));
+        return workLocation;
+    }
+
     /**
      * @brief This method returns the work location of a person
      * @return work location
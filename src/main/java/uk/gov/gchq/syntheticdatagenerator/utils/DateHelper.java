@@ -13,43 +13,158 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-
 package uk.gov.gchq.syntheticdatagenerator.utils;
 
-import java.util.Calendar;
-import java.util.GregorianCalendar;
 import java.util.Random;
 
+/**
+ * @class DateHelper
+ * @brief This class generates the dates of birth and hire dates of the people
+ * @details dates are generated as primitive ints packed as {@code yyyyMMdd} and are only formatted to {@code d/M/yyyy}
+ * when the record field is set. A hire date keeps the day and month of the date of birth, so a date of birth on the
+ * 29th of February can give a hire date that does not exist; the packed form keeps it exactly as the text did.
+ */
 public final class DateHelper {
-    private static final ThreadLocal<GregorianCalendar> GREGORIAN_CALENDAR = ThreadLocal.withInitial(GregorianCalendar::new);
     private static final int MIN_BIRTH_YEAR = 1900;
     private static final int BIRTH_YEAR_RANGE = 100;
     private static final int MIN_HIRE_AGE = 20;
     private static final int HIRE_YEAR_RANGE = 40;
+    private static final int DAYS_IN_YEAR = 365;
+    private static final int DECEMBER = 12;
+    private static final int LAST_DAY_OF_DECEMBER = 31;
+    private static final int[] DAYS_BEFORE_MONTH = {0, 31, 59, 90, 120, 151, 181, 212, 243, 273, 304, 334, 365};
+    private static final int YEAR_FACTOR = 10000;
+    private static final int MONTH_FACTOR = 100;
+    private static final int MAX_FORMATTED_LENGTH = 10;
 
     private DateHelper() {
     }
 
+    /**
+     * @brief This method generates a date of birth
+     * @param random random value
+     * @return date of birth as d/M/yyyy
+     */
     public static String generateDateOfBirth(final Random random) {
-        GregorianCalendar localCalendar = GREGORIAN_CALENDAR.get();
-        int year = MIN_BIRTH_YEAR + random.nextInt(BIRTH_YEAR_RANGE);
-        localCalendar.set(Calendar.YEAR, year);
-        int dayOfYear = random.nextInt(localCalendar.getActualMaximum(Calendar.DAY_OF_YEAR));
-        localCalendar.set(Calendar.DAY_OF_YEAR, dayOfYear);
-        GREGORIAN_CALENDAR.remove();
-        return localCalendar.get(Calendar.DAY_OF_MONTH) + "/" + (localCalendar.get(Calendar.MONTH) + 1) + "/" + year;
+        return format(generateBirthDate(random));
     }
 
+    /**
+     * @brief This method generates a hire date from a date of birth
+     * @param dateOfBirthStr date of birth as d/M/yyyy
+     * @param random random value
+     * @return hire date as d/M/yyyy
+     */
     public static String generateHireDate(final String dateOfBirthStr, final Random random) {
-        String birthYearStr = dateOfBirthStr.split("\\/")[2];
-        String hireDateStr = dateOfBirthStr.substring(0, dateOfBirthStr.length() - 4);
+        return format(generateHireDate(parse(dateOfBirthStr), random));
+    }
+
+    /**
+     * @brief This method generates a date of birth between 1900 and 1999
+     * @details the draws match the lenient calendar used before: a day of year of 0 was rolled back to the 31st of
+     * December of the previous year, while the drawn year was still the one printed.
+     * @param random random value
+     * @return packed date of birth
+     */
+    public static int generateBirthDate(final Random random) {
+        int year = MIN_BIRTH_YEAR + random.nextInt(BIRTH_YEAR_RANGE);
+        boolean leapYear = isLeapYear(year);
+        int dayOfYear = random.nextInt(leapYear ? DAYS_IN_YEAR + 1 : DAYS_IN_YEAR);
+        if (dayOfYear == 0) {
+            return pack(year, DECEMBER, LAST_DAY_OF_DECEMBER);
+        }
+        int month = 1;
+        while (dayOfYear > daysBefore(month + 1, leapYear)) {
+            month++;
+        }
+        return pack(year, month, dayOfYear - daysBefore(month, leapYear));
+    }
+
+    /**
+     * @brief This method generates a hire date with the day and month of the date of birth
+     * @param dateOfBirth packed date of birth
+     * @param random random value
+     * @return packed hire date
+     */
+    public static int generateHireDate(final int dateOfBirth, final Random random) {
+        int hireYear = year(dateOfBirth) + MIN_HIRE_AGE + random.nextInt(HIRE_YEAR_RANGE);
+        return pack(hireYear, month(dateOfBirth), day(dateOfBirth));
+    }
+
+    /**
+     * @brief This method packs a date into an int
+     * @param year year
+     * @param month month, from 1
+     * @param day day of the month, from 1
+     * @return packed date
+     */
+    public static int pack(final int year, final int month, final int day) {
+        return year * YEAR_FACTOR + month * MONTH_FACTOR + day;
+    }
+
+    /**
+     * @brief This method returns the year of a packed date
+     * @param date packed date
+     * @return year
+     */
+    public static int year(final int date) {
+        return date / YEAR_FACTOR;
+    }
+
+    /**
+     * @brief This method returns the month of a packed date
+     * @param date packed date
+     * @return month, from 1
+     */
+    public static int month(final int date) {
+        return date / MONTH_FACTOR % MONTH_FACTOR;
+    }
 
-        int birthYear = Integer.parseInt(birthYearStr);
-        int hireYear = birthYear + MIN_HIRE_AGE + random.nextInt(HIRE_YEAR_RANGE);
+    /**
+     * @brief This method returns the day of the month of a packed date
+     * @param date packed date
+     * @return day of the month, from 1
+     */
+    public static int day(final int date) {
+        return date % MONTH_FACTOR;
+    }
 
-        hireDateStr = hireDateStr + hireYear;
+    /**
+     * @brief This method formats a packed date as d/M/yyyy
+     * @param date packed date
+     * @return formatted date
+     */
+    public static String format(final int date) {
+        char[] text = new char[MAX_FORMATTED_LENGTH];
+        int length = DigitText.write(day(date), 0, text, 0);
+        text[length++] = '/';
+        length = DigitText.write(month(date), 0, text, length);
+        text[length++] = '/';
+        length = DigitText.write(year(date), 0, text, length);
+        return new String(text, 0, length);
+    }
 
-        return hireDateStr;
+    /**
+     * @brief This method parses a date formatted as d/M/yyyy
+     * @param date formatted date
+     * @return packed date
+     */
+    public static int parse(final String date) {
+        int firstSlash = date.indexOf('/');
+        int secondSlash = date.indexOf('/', firstSlash + 1);
+        if (firstSlash < 0 || secondSlash < 0) {
+            throw new IllegalArgumentException("Not a d/M/yyyy date: " + date);
+        }
+        return pack(Integer.parseInt(date.substring(secondSlash + 1)),
+                Integer.parseInt(date.substring(firstSlash + 1, secondSlash)),
+                Integer.parseInt(date.substring(0, firstSlash)));
+    }
+
+    private static boolean isLeapYear(final int year) {
+        return year % 4 == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
 
+    private static int daysBefore(final int month, final boolean leapYear) {
+        return DAYS_BEFORE_MONTH[month - 1] + (leapYear && month > 2 ? 1 : 0);
     }
 }
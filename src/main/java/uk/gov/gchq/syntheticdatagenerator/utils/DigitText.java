@@ -0,0 +1,153 @@
+/*
+ * Copyright 2018-2021 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.syntheticdatagenerator.utils;
+
+import java.util.Random;
+
+/**
+ * @class DigitText
+ * @brief This class writes numbers as zero padded decimal digits
+ * @details the digits are written straight into char or byte buffers, without the format string parsing of
+ * {@link String#format}. The methods returning a string fill a reusable per-thread buffer, so the string is the only
+ * allocation.
+ */
+public final class DigitText {
+    /**
+     * @brief Maximum number of digits of a non-negative int
+     */
+    public static final int MAX_DIGITS = 10;
+    private static final int[] POWERS_OF_TEN = {
+            1, 10, 100, 1000, 10000, 100000, 1000000, 10000000, 100000000, 1000000000
+    };
+    private static final int BUFFER_SIZE = 32;
+    private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[BUFFER_SIZE]);
+
+    private DigitText() {
+    }
+
+    /**
+     * @brief This method returns the exclusive bound of the values with the given number of digits
+     * @details widths of 10 or more are capped to {@link Integer#MAX_VALUE}, the same as {@code (int) Math.pow(10, width)}
+     * @param width number of digits
+     * @return bound of the values
+     */
+    public static int bound(final int width) {
+        return width < MAX_DIGITS ? POWERS_OF_TEN[width] : Integer.MAX_VALUE;
+    }
+
+    /**
+     * @brief This method generates a random number of a fixed number of digits, zero padded
+     * @param random random value
+     * @param width number of digits
+     * @return digits of the number
+     */
+    public static String randomDigits(final Random random, final int width) {
+        return randomDigits(random, "", width);
+    }
+
+    /**
+     * @brief This method generates a random number of a fixed number of digits, zero padded and after a prefix
+     * @param random random value
+     * @param prefix text before the digits
+     * @param width number of digits
+     * @return prefix followed by the digits of the number
+     */
+    public static String randomDigits(final Random random, final String prefix, final int width) {
+        return format(prefix, random.nextInt(bound(width)), width);
+    }
+
+    /**
+     * @brief This method generates a random number below a bound, without padding
+     * @param random random value
+     * @param bound exclusive bound of the number
+     * @return digits of the number
+     */
+    public static String randomNumber(final Random random, final int bound) {
+        return format("", random.nextInt(bound), 0);
+    }
+
+    /**
+     * @brief This method formats a non-negative number padded with zeros to a minimum width, after a prefix
+     * @param prefix text before the digits
+     * @param value non-negative number
+     * @param width minimum number of digits
+     * @return prefix followed by the digits of the number
+     */
+    public static String format(final String prefix, final int value, final int width) {
+        char[] buffer = BUFFER.get();
+        int length = prefix.length();
+        if (length + Math.max(width, MAX_DIGITS) > buffer.length) {
+            buffer = new char[length + Math.max(width, MAX_DIGITS)];
+            BUFFER.set(buffer);
+        }
+        prefix.getChars(0, length, buffer, 0);
+        length = write(value, width, buffer, length);
+        return new String(buffer, 0, length);
+    }
+
+    /**
+     * @brief This method writes a non-negative number padded with zeros to a minimum width into a char buffer
+     * @param value non-negative number
+     * @param width minimum number of digits
+     * @param buffer destination buffer
+     * @param offset position of the first digit in the buffer
+     * @return position after the last digit
+     */
+    public static int write(final int value, final int width, final char[] buffer, final int offset) {
+        int end = offset + digits(value, width);
+        int remaining = value;
+        for (int i = end - 1; i >= offset; i--) {
+            buffer[i] = (char) ('0' + remaining % 10);
+            remaining /= 10;
+        }
+        return end;
+    }
+
+    /**
+     * @brief This method writes a non-negative number padded with zeros to a minimum width into a byte buffer as ASCII
+     * @param value non-negative number
+     * @param width minimum number of digits
+     * @param buffer destination buffer
+     * @param offset position of the first digit in the buffer
+     * @return position after the last digit
+     */
+    public static int write(final int value, final int width, final byte[] buffer, final int offset) {
+        int end = offset + digits(value, width);
+        int remaining = value;
+        for (int i = end - 1; i >= offset; i--) {
+            buffer[i] = (byte) ('0' + remaining % 10);
+            remaining /= 10;
+        }
+        return end;
+    }
+
+    /**
+     * @brief This method counts the digits written for a non-negative number
+     * @param value non-negative number
+     * @param width minimum number of digits
+     * @return number of digits
+     */
+    public static int digits(final int value, final int width) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Negative value: " + value);
+        }
+        int digits = 1;
+        while (digits < MAX_DIGITS && value >= POWERS_OF_TEN[digits]) {
+            digits++;
+        }
+        return Math.max(digits, width);
+    }
+}
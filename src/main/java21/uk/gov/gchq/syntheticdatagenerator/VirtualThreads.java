@@ -0,0 +1,50 @@
+/*
+ * Copyright 2018-2021 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.syntheticdatagenerator;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * @class Virtual Threads
+ * @brief This class creates the executors running one virtual thread per task
+ * @details this is the Java 21 version, packaged under META-INF/versions/21 of the multi-release jar
+ */
+public final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * @brief This method tells if the running JVM has virtual threads
+     * @return true
+     */
+    public static boolean isSupported() {
+        return true;
+    }
+
+    /**
+     * @brief This method creates an executor running every task on its own virtual thread
+     * @param numberOfThreads ignored, as there is no limit on the number of virtual threads
+     * @param threadFactory ignored, virtual threads never prevent the JVM from exiting
+     * @return an executor starting a new virtual thread for every task
+     */
+    public static ExecutorService newExecutor(final int numberOfThreads, final ThreadFactory threadFactory) {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2018-2021 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.syntheticdatagenerator;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.complex.ListVector;
+import org.apache.arrow.vector.dictionary.Dictionary;
+import org.apache.arrow.vector.ipc.ArrowFileReader;
+import org.apache.arrow.vector.ipc.ArrowStreamReader;
+import org.apache.arrow.vector.util.ByteArrayReadableSeekableByteChannel;
+import org.junit.Test;
+import uk.gov.gchq.syntheticdatagenerator.serialise.ArrowSerialiser;
+import uk.gov.gchq.syntheticdatagenerator.types.Employee;
+import uk.gov.gchq.syntheticdatagenerator.types.Manager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @brief Arrow serialiser test
+ */
+public class ArrowSerialiserTest {
+    private static final int EMPLOYEES = 1_000;
+    private static final int BATCH_SIZE = 300;
+
+    /**
+     * @brief This test evaluates whether the employees are written to record batches of an Arrow file and read back
+     */
+    @Test
+    public void writeEmployees() throws IOException {
+        List<Employee> employees = generate();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new ArrowSerialiser<>(Employee.class).batchSize(BATCH_SIZE).serialise(employees.stream(), out);
+
+        try (BufferAllocator allocator = new RootAllocator();
+             ArrowFileReader reader = new ArrowFileReader(new ByteArrayReadableSeekableByteChannel(out.toByteArray()), allocator)) {
+            assertEquals((EMPLOYEES + BATCH_SIZE - 1) / BATCH_SIZE, reader.getRecordBlocks().size());
+            VectorSchemaRoot root = reader.getVectorSchemaRoot();
+            FieldVector departments = root.getVector("department");
+            int row = 0;
+            while (reader.loadNextBatch()) {
+                // The department is the index of its name in the dictionary of the enum
+                Dictionary dictionary = reader.getDictionaryVectors().get(departments.getField().getDictionary().getId());
+                VarCharVector names = (VarCharVector) dictionary.getVector();
+                for (int i = 0; i < root.getRowCount(); i++) {
+                    Employee employee = employees.get(row++);
+                    assertEquals(employee.getUid(), root.getVector("uid").getObject(i).toString());
+                    assertEquals(employee.getDepartment().name(), names.getObject(((IntVector) departments).get(i)).toString());
+                    assertEquals(employee.getSalaryAmount(), ((IntVector) root.getVector("salaryAmount")).get(i));
+                    assertSameManagers(employee.getManager(), ((ListVector) root.getVector("manager")).getObject(i));
+                }
+            }
+            assertEquals(EMPLOYEES, row);
+        }
+    }
+
+    /**
+     * @brief This test evaluates whether the stream format holds every employee
+     */
+    @Test
+    public void writeStream() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new ArrowSerialiser<>(Employee.class).batchSize(BATCH_SIZE).streamFormat(true).serialise(generate().stream(), out);
+
+        try (BufferAllocator allocator = new RootAllocator();
+             ArrowStreamReader reader = new ArrowStreamReader(new ByteArrayInputStream(out.toByteArray()), allocator)) {
+            int rows = 0;
+            while (reader.loadNextBatch()) {
+                rows += reader.getVectorSchemaRoot().getRowCount();
+            }
+            assertEquals(EMPLOYEES, rows);
+        }
+    }
+
+    private static List<Employee> generate() {
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < EMPLOYEES; i++) {
+            employees.add(Employee.generate(42L, i));
+        }
+        return employees;
+    }
+
+    /**
+     * @brief This method compares the managers of a person, or of a manager, with the value of a list vector
+     * @param managers the managers
+     * @param list the structs of the list, or null
+     */
+    private static void assertSameManagers(final Manager[] managers, final List<?> list) {
+        // The managers of the deepest level are not written, as they never have managers
+        if (managers == null || managers.length == 0) {
+            assertTrue(list == null || list.isEmpty());
+            return;
+        }
+        assertEquals(managers.length, list.size());
+        for (int i = 0; i < managers.length; i++) {
+            Map<?, ?> manager = (Map<?, ?>) list.get(i);
+            assertEquals(managers[i].getUid(), manager.get("uid").toString());
+            assertSameManagers(managers[i].getManager(), (List<?>) manager.get("managers"));
+        }
+    }
+}
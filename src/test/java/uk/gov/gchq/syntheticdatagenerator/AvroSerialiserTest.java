@@ -0,0 +1,162 @@
+/*
+ * Copyright 2018-2021 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.syntheticdatagenerator;
+
+import org.apache.avro.Schema;
+import org.apache.avro.file.DataFileWriter;
+import org.apache.avro.io.DatumWriter;
+import org.apache.avro.reflect.ReflectData;
+import org.apache.avro.reflect.ReflectDatumWriter;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import uk.gov.gchq.syntheticdatagenerator.serialise.AvroSerialiser;
+import uk.gov.gchq.syntheticdatagenerator.serialise.CompiledDatumWriter;
+import uk.gov.gchq.syntheticdatagenerator.types.Employee;
+import uk.gov.gchq.syntheticdatagenerator.types.OrgChart;
+import uk.gov.gchq.syntheticdatagenerator.types.Teacher;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * @brief Avro serialiser test
+ */
+public class AvroSerialiserTest {
+    private static final byte[] SYNC_MARKER = new byte[16];
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * @brief This test evaluates whether the compiled writer writes the same bytes as the reflect writer
+     */
+    @Test
+    public void compiledWriterMatchesReflection() throws IOException {
+        OrgChart orgChart = OrgChart.generate(1L, 50);
+        List<Employee> employees = new ArrayList<>();
+        employees.add(new Employee());
+        for (int i = 0; i < 100; i++) {
+            employees.add(Employee.generate(42L, i, i % 2 == 0 ? null : orgChart));
+        }
+        assertSameBytes(Employee.class, employees);
+
+        List<Teacher> teachers = new ArrayList<>();
+        teachers.add(new Teacher());
+        for (int i = 0; i < 100; i++) {
+            teachers.add(Teacher.generate(42L, i));
+        }
+        assertSameBytes(Teacher.class, teachers);
+    }
+
+    /**
+     * @brief This test evaluates whether a file split at its sync markers is read back whole and in order in parallel,
+     * from file inputs and from a mapping of the file
+     */
+    @Test
+    public void deserialiseFileInParallel() throws IOException {
+        List<String> uids = new ArrayList<>();
+        File file = folder.newFile("employees.avro");
+        try (OutputStream out = new FileOutputStream(file)) {
+            // Small blocks, so the ranges of the file hold many blocks and split points
+            new AvroSerialiser<>(Employee.class).syncInterval(16 << 10).serialise(Stream.iterate(0, i -> i + 1).limit(2_000)
+                    .map(i -> Employee.generate(42L, i)).peek(employee -> uids.add(employee.getUid())), out);
+        }
+
+        AvroSerialiser<Employee> serialiser = new AvroSerialiser<>(Employee.class);
+        try (Stream<Employee> employees = serialiser.deserialise(file, 64 << 10)) {
+            Spliterator<Employee> ranges = employees.spliterator();
+            assertNotNull(ranges.trySplit());
+        }
+        try (Stream<Employee> employees = serialiser.deserialise(file, 64 << 10)) {
+            assertEquals(uids, employees.parallel().map(Employee::getUid).collect(Collectors.toList()));
+        }
+        try (Stream<Employee> employees = serialiser.deserialise(file.toPath(), serialiser.getSchema(), false, 64 << 10)) {
+            assertEquals(uids, employees.parallel().map(Employee::getUid).collect(Collectors.toList()));
+        }
+    }
+
+    /**
+     * @brief This test evaluates whether a projection reads only its fields, into one recycled instance with reuse
+     */
+    @Test
+    public void deserialiseProjection() throws IOException {
+        List<Employee> written = new ArrayList<>();
+        File file = folder.newFile("employees.avro");
+        AvroSerialiser<Employee> serialiser = new AvroSerialiser<>(Employee.class);
+        try (OutputStream out = new FileOutputStream(file)) {
+            serialiser.serialise(Stream.iterate(0, i -> i + 1).limit(100).map(i -> Employee.generate(42L, i)).peek(written::add), out);
+        }
+
+        List<Employee> read = new ArrayList<>();
+        try (Stream<Employee> employees = serialiser.deserialise(file, serialiser.projection("uid", "salaryAmount"), true, 64 << 10)) {
+            Iterator<Employee> iterator = employees.iterator();
+            for (Employee expected : written) {
+                Employee employee = iterator.next();
+                assertEquals(expected.getUid(), employee.getUid());
+                assertEquals(expected.getSalaryAmount(), employee.getSalaryAmount());
+                assertNull(employee.getName());
+                assertNull(employee.getManager());
+                read.add(employee);
+            }
+            assertFalse(iterator.hasNext());
+        }
+        assertSame(read.get(0), read.get(read.size() - 1));
+    }
+
+    /**
+     * @brief This method writes the same objects with both writers and compares the files
+     * @param domainClass the domain class
+     * @param objects the objects
+     * @param <T> the domain object type
+     */
+    private static <T> void assertSameBytes(final Class<T> domainClass, final List<T> objects) throws IOException {
+        Schema schema = ReflectData.AllowNull.get().getSchema(domainClass);
+        byte[] reflected = write(new ReflectDatumWriter<>(schema), schema, objects);
+        assertArrayEquals(reflected, write(CompiledDatumWriter.compile(domainClass, schema), schema, objects));
+
+        ByteArrayOutputStream serialised = new ByteArrayOutputStream();
+        new AvroSerialiser<>(domainClass).serialise(objects.stream(), serialised, SYNC_MARKER);
+        assertArrayEquals(reflected, serialised.toByteArray());
+    }
+
+    private static <T> byte[] write(final DatumWriter<T> datumWriter, final Schema schema, final List<T> objects) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (DataFileWriter<T> writer = new DataFileWriter<>(datumWriter)) {
+            writer.create(schema, out, SYNC_MARKER);
+            for (T object : objects) {
+                writer.append(object);
+            }
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2018-2021 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.syntheticdatagenerator;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+import org.junit.Test;
+import uk.gov.gchq.syntheticdatagenerator.serialise.RecordWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @brief Chunk scheduler test
+ */
+public class ChunkSchedulerTest {
+    private static final int RECORDS = 200;
+    private static final int MAX_PENDING_CHUNKS = 3;
+
+    /**
+     * @brief This test evaluates whether a slow chunk holds back the submission of the next chunks, while every
+     * record is still written in order
+     */
+    @Test
+    public void boundPendingChunks() {
+        List<Long> written = new ArrayList<>();
+        AtomicInteger started = new AtomicInteger();
+        AtomicInteger maxPending = new AtomicInteger();
+        ChunkScheduler scheduler = new ChunkScheduler(4, 1, MAX_PENDING_CHUNKS);
+        boolean success = scheduler.run(new long[] {0, RECORDS}, index -> {
+            if (index == 0) {
+                sleep(200);
+            }
+            synchronized (written) {
+                maxPending.accumulateAndGet(started.incrementAndGet() - written.size(), Math::max);
+            }
+            return index;
+        }, file -> new RecordWriter<Long>() {
+            @Override
+            public void write(final Long record) {
+                synchronized (written) {
+                    written.add(record);
+                }
+            }
+
+            @Override
+            public void close() {
+                // nothing to close.
+            }
+        });
+
+        assertTrue(success);
+        assertEquals(RECORDS, written.size());
+        for (int i = 0; i < RECORDS; i++) {
+            assertEquals(i, written.get(i).longValue());
+        }
+        assertTrue("Chunks pending: " + maxPending.get(), maxPending.get() <= MAX_PENDING_CHUNKS);
+    }
+
+    /**
+     * @brief This test evaluates whether the other threads go on generating while a slow writer writes the chunks of
+     * its file, as the writer of the first chunk only returns once every chunk has been generated
+     */
+    @Test
+    public void generateWhileWriting() {
+        AtomicInteger generated = new AtomicInteger();
+        List<Long> written = new ArrayList<>();
+        ChunkScheduler scheduler = new ChunkScheduler(2, 10, RECORDS);
+        boolean success = scheduler.run(new long[] {0, RECORDS}, index -> {
+            generated.incrementAndGet();
+            return index;
+        }, file -> new RecordWriter<Long>() {
+            @Override
+            public void write(final Long record) throws IOException {
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+                while (generated.get() < RECORDS) {
+                    if (System.nanoTime() > deadline) {
+                        throw new IOException("The other chunks were not generated while writing");
+                    }
+                    sleep(1);
+                }
+                written.add(record);
+            }
+
+            @Override
+            public void close() {
+                // nothing to close.
+            }
+        });
+
+        assertTrue(success);
+        assertEquals(RECORDS, written.size());
+    }
+
+    /**
+     * @brief This test evaluates whether the files are only closed once the chunks still running after a failure
+     * are done writing to them
+     */
+    @Test
+    public void closeAfterRunningChunks() {
+        AtomicBoolean running = new AtomicBoolean();
+        AtomicBoolean closedWhileRunning = new AtomicBoolean();
+        ChunkScheduler scheduler = new ChunkScheduler(2, RECORDS, 2);
+        boolean success = scheduler.run(new long[] {0, RECORDS, 2 * RECORDS}, index -> {
+            if (index == 0) {
+                sleep(20);
+                throw new IllegalStateException("Failed to generate a record");
+            }
+            // The only chunk of the second file is still running when the first file fails, and is not interrupted
+            if (index == RECORDS) {
+                running.set(true);
+                Uninterruptibles.sleepUninterruptibly(300, TimeUnit.MILLISECONDS);
+            } else if (index == 2 * RECORDS - 1) {
+                running.set(false);
+            }
+            return index;
+        }, file -> new RecordWriter<Long>() {
+            @Override
+            public void write(final Long record) {
+                // nothing to write.
+            }
+
+            @Override
+            public void close() {
+                if (running.get()) {
+                    closedWhileRunning.set(true);
+                }
+            }
+        });
+
+        assertFalse(success);
+        assertFalse(closedWhileRunning.get());
+    }
+
+    private static void sleep(final long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
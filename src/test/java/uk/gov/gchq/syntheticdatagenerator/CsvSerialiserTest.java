@@ -0,0 +1,109 @@
+/*
+ * Copyright 2018-2021 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.syntheticdatagenerator;
+
+import org.junit.Test;
+import uk.gov.gchq.syntheticdatagenerator.serialise.CsvSerialiser;
+import uk.gov.gchq.syntheticdatagenerator.types.Employee;
+import uk.gov.gchq.syntheticdatagenerator.types.PhoneNumber;
+import uk.gov.gchq.syntheticdatagenerator.types.Teacher;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @brief CSV serialiser test
+ */
+public class CsvSerialiserTest {
+
+    /**
+     * @brief This test evaluates whether every object is written as a row of as many columns as the header
+     */
+    @Test
+    public void writeOneRowPerObject() throws IOException {
+        for (CsvSerialiser.Nesting nesting : CsvSerialiser.Nesting.values()) {
+            List<Teacher> teachers = new ArrayList<>();
+            teachers.add(new Teacher());
+            for (int i = 0; i < 20; i++) {
+                teachers.add(Teacher.generate(42L, i));
+            }
+            CsvSerialiser<Teacher> serialiser = new CsvSerialiser<>(Teacher.class).nesting(nesting);
+            String[] lines = write(serialiser, teachers.stream()).split("\r\n");
+
+            assertEquals(String.join(",", serialiser.header()), lines[0]);
+            assertEquals(teachers.size() + 1, lines.length);
+            int columns = serialiser.header().size();
+            for (int i = 1; i < lines.length; i++) {
+                assertEquals(columns, columnsOf(lines[i]));
+            }
+        }
+    }
+
+    /**
+     * @brief This test evaluates whether the values holding separators, quotes or line breaks are quoted
+     */
+    @Test
+    public void quoteSpecialValues() throws IOException {
+        Employee employee = new Employee();
+        employee.setUid("1");
+        employee.setName("O'Hara, \"Scarlett\"\nTara");
+        PhoneNumber phoneNumber = new PhoneNumber();
+        phoneNumber.setType("Home");
+        phoneNumber.setPhoneNumber("01234 5\u00e9");
+        employee.setContactNumbers(new PhoneNumber[]{phoneNumber});
+        CsvSerialiser<Employee> serialiser = new CsvSerialiser<>(Employee.class).nesting(CsvSerialiser.Nesting.JSON);
+        String row = write(serialiser, Stream.of(employee)).split("\r\n", 2)[1];
+
+        assertTrue(row.startsWith("1,\"O'Hara, \"\"Scarlett\"\"\nTara\",,\"[{\"\"type\"\":\"\"Home\"\",\"\"number\"\":\"\"01234 5\u00e9\"\"}]\","));
+
+        serialiser.nesting(CsvSerialiser.Nesting.FIRST);
+        assertTrue(serialiser.header().contains("contactNumbers.number"));
+        assertTrue(serialiser.header().contains("manager.uid"));
+        assertTrue(write(serialiser, Stream.of(employee)).contains(",Home,01234 5\u00e9,"));
+    }
+
+    private static <T> String write(final CsvSerialiser<T> serialiser, final Stream<T> objects) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        serialiser.serialise(objects, out);
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @brief This method counts the columns of a row, skipping the separators inside quotes
+     * @param row the row
+     * @return the number of columns
+     */
+    private static int columnsOf(final String row) {
+        int columns = 1;
+        boolean quoted = false;
+        for (char c : row.toCharArray()) {
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == ',' && !quoted) {
+                columns++;
+            }
+        }
+        return columns;
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2018-2021 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.syntheticdatagenerator;
+
+import org.junit.Test;
+import uk.gov.gchq.syntheticdatagenerator.utils.DateHelper;
+
+import java.util.ArrayDeque;
+import java.util.Calendar;
+import java.util.Deque;
+import java.util.GregorianCalendar;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * @brief DateHelper test
+ */
+public class DateHelperTest {
+
+    /**
+     * @brief This test evaluates whether every draw of every year gives the date of the lenient calendar used before
+     * the dates were packed, including day 0, the ends of the months and the 29th of February
+     */
+    @Test
+    public void birthDatesMatchCalendar() {
+        for (int yearOffset = 0; yearOffset < 100; yearOffset++) {
+            int year = 1900 + yearOffset;
+            GregorianCalendar calendar = new GregorianCalendar();
+            calendar.set(Calendar.YEAR, year);
+            int daysInYear = calendar.getActualMaximum(Calendar.DAY_OF_YEAR);
+            for (int dayOfYear = 0; dayOfYear < daysInYear; dayOfYear++) {
+                calendar = new GregorianCalendar();
+                calendar.set(Calendar.YEAR, year);
+                calendar.set(Calendar.DAY_OF_YEAR, dayOfYear);
+                String expected = calendar.get(Calendar.DAY_OF_MONTH) + "/" + (calendar.get(Calendar.MONTH) + 1) + "/" + year;
+
+                ScriptedRandom random = new ScriptedRandom(yearOffset, dayOfYear);
+                assertEquals(expected, DateHelper.format(DateHelper.generateBirthDate(random)));
+                assertEquals(daysInYear, random.lastBound);
+            }
+        }
+    }
+
+    /**
+     * @brief This test evaluates the packed fields and the text of the first and last dates and of the leap days
+     */
+    @Test
+    public void packFormatAndParse() {
+        int first = DateHelper.pack(1900, 1, 1);
+        assertEquals(19000101, first);
+        assertEquals("1/1/1900", DateHelper.format(first));
+        int last = DateHelper.pack(2059, 12, 31);
+        assertEquals(2059, DateHelper.year(last));
+        assertEquals(12, DateHelper.month(last));
+        assertEquals(31, DateHelper.day(last));
+        assertEquals("31/12/2059", DateHelper.format(last));
+        for (String date : new String[] {"1/1/1900", "31/12/1999", "29/2/2000", "29/2/1900", "9/10/2019"}) {
+            assertEquals(date, DateHelper.format(DateHelper.parse(date)));
+        }
+    }
+
+    /**
+     * @brief This test evaluates whether the hire date keeps the day and month of birth, 20 to 59 years later, and
+     * keeps the 29th of February even in a year that is not a leap year
+     */
+    @Test
+    public void hireDates() {
+        assertEquals("29/2/1920", DateHelper.generateHireDate("29/2/1900", new ScriptedRandom(0)));
+        assertEquals("31/12/2058", DateHelper.generateHireDate("31/12/1999", new ScriptedRandom(39)));
+        Random random = new Random(0);
+        for (int i = 0; i < 1000; i++) {
+            int birth = DateHelper.generateBirthDate(random);
+            int hire = DateHelper.generateHireDate(birth, random);
+            int age = DateHelper.year(hire) - DateHelper.year(birth);
+            if (age < 20 || age >= 60 || DateHelper.month(hire) != DateHelper.month(birth)
+                    || DateHelper.day(hire) != DateHelper.day(birth)) {
+                fail("Hired on " + DateHelper.format(hire) + " when born on " + DateHelper.format(birth));
+            }
+        }
+    }
+
+    /**
+     * @brief This test evaluates whether text that is not a d/M/yyyy date is refused
+     */
+    @Test
+    public void refuseUnparsable() {
+        for (String date : new String[] {"", "1900", "1/1900", "a/b/c"}) {
+            try {
+                DateHelper.parse(date);
+                fail("Parsed " + date);
+            } catch (IllegalArgumentException e) {
+                // expected, NumberFormatException included
+            }
+        }
+    }
+
+    /**
+     * @brief This class returns given values from nextInt, recording the last bound
+     */
+    private static final class ScriptedRandom extends Random {
+        private static final long serialVersionUID = 1L;
+        private final Deque<Integer> values = new ArrayDeque<>();
+        private int lastBound;
+
+        private ScriptedRandom(final int... values) {
+            for (int value : values) {
+                this.values.add(value);
+            }
+        }
+
+        @Override
+        public int nextInt(final int bound) {
+            lastBound = bound;
+            return values.remove();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2018-2021 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.syntheticdatagenerator;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import uk.gov.gchq.syntheticdatagenerator.serialise.AvroSerialiser;
+import uk.gov.gchq.syntheticdatagenerator.types.Employee;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+/**
+ * @brief Deterministic output test
+ */
+public class DeterministicOutputTest {
+    private static final String NUMBER_OF_EMPLOYEES = "30";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * @brief This test evaluates whether a seeded dataset is the same whatever the number of files and threads
+     */
+    @Test
+    public void sameDatasetForAnyFilesAndThreads() throws Exception {
+        String expected = hashDataset("1", "1", "--seed=7");
+        assertEquals(expected, hashDataset("3", "2", "--seed=7"));
+        assertEquals(expected, hashDataset("4", "4", "--seed=7"));
+        assertEquals(expected, hashDataset("7", "3", "--seed=7"));
+        assertNotEquals(expected, hashDataset("4", "4", "--seed=8"));
+    }
+
+    /**
+     * @brief This test evaluates whether generating the people of a file in parallel keeps them in order
+     */
+    @Test
+    public void sameDatasetWithPipeline() throws Exception {
+        String expected = hashDataset("2", "1", "--seed=7");
+        assertEquals(expected, hashDataset("2", "3", "--seed=7", "--pipeline", "--batch-size=4", "--queue-depth=2"));
+    }
+
+    /**
+     * @brief This test evaluates whether generating the dataset as chunks keeps every person in its file and order
+     */
+    @Test
+    public void sameDatasetWithChunks() throws Exception {
+        String expected = hashDataset("4", "1", "--seed=7");
+        assertEquals(expected, hashDataset("4", "3", "--seed=7", "--chunk-size=3"));
+        assertEquals(expected, hashDataset("7", "2", "--seed=7", "--chunk-size=5"));
+    }
+
+    /**
+     * @brief This test evaluates whether encoding the Avro blocks in parallel keeps the people in order
+     */
+    @Test
+    public void sameDatasetWithParallelEncoding() throws Exception {
+        String expected = hashDataset("2", "1", "--seed=7");
+        assertEquals(expected, hashDataset("2", "3", "--seed=7", "--parallel-encoding", "--block-size=4"));
+        assertEquals(expected, hashDataset("2", "2", "--seed=7", "--parallel-encoding", "--pipeline", "--batch-size=3", "--block-size=5"));
+    }
+
+    /**
+     * @brief This test evaluates whether the codec, block size and buffer size leave the people unchanged
+     */
+    @Test
+    public void sameDatasetWithCodecs() throws Exception {
+        String expected = hashDataset("2", "1", "--seed=7");
+        assertEquals(expected, hashDataset("2", "1", "--seed=7", "--codec=deflate:1", "--sync-interval=2000", "--buffer-size=100000"));
+        assertEquals(expected, hashDataset("2", "2", "--seed=7", "--codec=snappy", "--parallel-encoding", "--block-size=4"));
+        assertEquals(expected, hashDataset("3", "2", "--seed=7", "--codec=bzip2", "--chunk-size=4"));
+    }
+
+    /**
+     * @brief This test evaluates whether the people of a seeded dataset reference the same org chart in every mode
+     */
+    @Test
+    public void sameDatasetWithOrgChart() throws Exception {
+        String expected = hashDataset("1", "1", "--seed=7", "--org-chart=40");
+        assertEquals(expected, hashDataset("3", "2", "--seed=7", "--org-chart=40"));
+        assertEquals(expected, hashDataset("4", "3", "--seed=7", "--org-chart=40", "--chunk-size=3"));
+        assertNotEquals(expected, hashDataset("1", "1", "--seed=7"));
+    }
+
+    /**
+     * @brief This method generates a dataset and hashes the concatenation of its files
+     * @param files number of files
+     * @param threads number of threads
+     * @param options named options
+     * @return the hash of every employee of the dataset in file order
+     */
+    private String hashDataset(final String files, final String threads, final String... options) throws IOException, NoSuchAlgorithmException {
+        File directory = folder.newFolder();
+        String[] args = {directory.getPath(), NUMBER_OF_EMPLOYEES, files, threads, "0", "e"};
+        CreateData.main(Stream.concat(Arrays.stream(args), Arrays.stream(options)).toArray(String[]::new));
+
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        AvroSerialiser<Employee> serialiser = new AvroSerialiser<>(Employee.class);
+        long count = 0;
+        for (int i = 0; i < Integer.parseInt(files); i++) {
+            try (InputStream in = new FileInputStream(new File(directory, "worker_e" + i + ".avro"));
+                 Stream<Employee> employees = serialiser.deserialise(in)) {
+                Iterator<Employee> it = employees.iterator();
+                while (it.hasNext()) {
+                    digest.update(it.next().toString().getBytes(StandardCharsets.UTF_8));
+                    count++;
+                }
+            }
+        }
+        assertEquals(Long.parseLong(NUMBER_OF_EMPLOYEES), count);
+        StringBuilder hash = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hash.append(String.format("%02x", b));
+        }
+        return hash.toString();
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2018-2021 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.syntheticdatagenerator;
+
+import com.github.javafaker.service.FakeValuesService;
+import com.github.javafaker.service.RandomService;
+import org.junit.Test;
+import uk.gov.gchq.syntheticdatagenerator.types.Dictionaries;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @brief Dictionaries test
+ */
+public class DictionariesTest {
+    private static final Pattern POSTCODE =
+            Pattern.compile("[A-PR-UWYZ]([A-HK-Y][0-9][ABEHMNPRVWXY0-9]?|[0-9][ABCDEFGHJKPSTUW0-9]?) [0-9][ABD-HJLNP-UW-Z]{2}");
+    private static final FakeValuesService VALUES = new FakeValuesService(new Locale("en-GB"), new RandomService());
+
+    /**
+     * @brief This test evaluates whether the postcodes match the en-GB postcode expression of javafaker
+     */
+    @Test
+    public void postcodesMatchExpression() {
+        Random random = new Random(0);
+        for (int i = 0; i < 10_000; i++) {
+            String postcode = Dictionaries.postcode(random);
+            assertTrue(postcode, POSTCODE.matcher(postcode).matches());
+        }
+    }
+
+    /**
+     * @brief This test evaluates whether the first names are drawn from the female and male names in equal measure
+     */
+    @Test
+    public void firstNamesBalanceSexes() {
+        Set<String> female = load("name.female_first_name");
+        Set<String> male = load("name.male_first_name");
+        Random random = new Random(0);
+        int females = 0;
+        int males = 0;
+        for (int i = 0; i < 20_000; i++) {
+            String name = Dictionaries.firstName(random);
+            if (!male.contains(name)) {
+                females++;
+            } else if (!female.contains(name)) {
+                males++;
+            }
+        }
+        // the names on both lists are left out, so the share expected of the rest depends on the overlap of the lists
+        Set<String> femaleOnly = new HashSet<>(female);
+        femaleOnly.removeAll(male);
+        Set<String> maleOnly = new HashSet<>(male);
+        maleOnly.removeAll(female);
+        double femaleOnlyShare = (double) femaleOnly.size() / female.size();
+        double maleOnlyShare = (double) maleOnly.size() / male.size();
+        double expected = femaleOnlyShare / (femaleOnlyShare + maleOnlyShare);
+        double share = (double) females / (females + males);
+        assertTrue("female share " + share + ", expected " + expected, Math.abs(share - expected) < 0.02);
+    }
+
+    /**
+     * @brief This test evaluates whether every city is in one of the javafaker city formats and every format is drawn
+     */
+    @Test
+    public void citiesCoverEveryFormat() {
+        Set<String> prefixes = load("address.city_prefix");
+        Set<String> suffixes = load("address.city_suffix");
+        Set<String> firstNames = load("name.female_first_name");
+        firstNames.addAll(load("name.male_first_name"));
+        Set<String> lastNames = load("name.last_name");
+        boolean[] formats = new boolean[4];
+        Random random = new Random(0);
+        for (int i = 0; i < 2_000; i++) {
+            String city = Dictionaries.city(random);
+            boolean matched = false;
+            int space = city.indexOf(' ');
+            if (space > 0 && prefixes.contains(city.substring(0, space))) {
+                String rest = city.substring(space + 1);
+                if (endsWithSuffix(rest, suffixes, firstNames)) {
+                    formats[0] = true;
+                    matched = true;
+                }
+                if (firstNames.contains(rest)) {
+                    formats[1] = true;
+                    matched = true;
+                }
+            }
+            if (endsWithSuffix(city, suffixes, firstNames)) {
+                formats[2] = true;
+                matched = true;
+            }
+            if (endsWithSuffix(city, suffixes, lastNames)) {
+                formats[3] = true;
+                matched = true;
+            }
+            assertTrue(city, matched);
+        }
+        for (int format = 0; format < formats.length; format++) {
+            assertTrue("city format " + format, formats[format]);
+        }
+    }
+
+    private static boolean endsWithSuffix(final String city, final Set<String> suffixes, final Set<String> names) {
+        for (String suffix : suffixes) {
+            if (city.endsWith(suffix) && names.contains(city.substring(0, city.length() - suffix.length()))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Set<String> load(final String key) {
+        Set<String> values = new HashSet<>();
+        for (Object value : (List<?>) VALUES.fetchObject(key)) {
+            values.add(String.valueOf(value));
+        }
+        return values;
+    }
+}
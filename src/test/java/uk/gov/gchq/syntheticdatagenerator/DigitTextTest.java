@@ -0,0 +1,116 @@
+/*
+ * Copyright 2018-2021 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.syntheticdatagenerator;
+
+import org.junit.Test;
+import uk.gov.gchq.syntheticdatagenerator.utils.DigitText;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * @brief DigitText test
+ */
+public class DigitTextTest {
+
+    /**
+     * @brief This test evaluates whether the digits match String.format for zero, the widths and the largest int
+     */
+    @Test
+    public void formatLikeStringFormat() {
+        int[] values = {0, 1, 9, 10, 99, 100, 999_999_999, 1_000_000_000, Integer.MAX_VALUE};
+        for (int value : values) {
+            for (int width = 0; width <= 12; width++) {
+                String expected = width == 0 ? String.valueOf(value) : String.format("%0" + width + "d", value);
+                assertEquals(expected, DigitText.format("", value, width));
+                assertEquals("ID-" + expected, DigitText.format("ID-", value, width));
+            }
+        }
+        Random random = new Random(0);
+        for (int i = 0; i < 10_000; i++) {
+            int value = random.nextInt(Integer.MAX_VALUE);
+            assertEquals(String.format("%08d", value), DigitText.format("", value, 8));
+        }
+    }
+
+    /**
+     * @brief This test evaluates whether a prefix longer than the reusable buffer is still written whole
+     */
+    @Test
+    public void longPrefix() {
+        StringBuilder prefix = new StringBuilder();
+        for (int i = 0; i < 40; i++) {
+            prefix.append('x');
+        }
+        assertEquals(prefix + "0042", DigitText.format(prefix.toString(), 42, 4));
+        assertEquals("7", DigitText.format("", 7, 0));
+    }
+
+    /**
+     * @brief This test evaluates whether the char and byte buffers receive the same digits at an offset
+     */
+    @Test
+    public void writeBuffers() {
+        char[] chars = new char[16];
+        byte[] bytes = new byte[16];
+        assertEquals(2 + 10, DigitText.write(Integer.MAX_VALUE, 3, chars, 2));
+        assertEquals(2 + 10, DigitText.write(Integer.MAX_VALUE, 3, bytes, 2));
+        assertEquals("2147483647", new String(chars, 2, 10));
+        assertEquals("2147483647", new String(bytes, 2, 10, StandardCharsets.US_ASCII));
+        assertEquals(5, DigitText.write(0, 5, chars, 0));
+        assertEquals("00000", new String(chars, 0, 5));
+    }
+
+    /**
+     * @brief This test evaluates the bounds of the widths and the digits counted around the powers of ten
+     */
+    @Test
+    public void boundsAndDigits() {
+        assertEquals(1, DigitText.bound(0));
+        assertEquals(1000, DigitText.bound(3));
+        assertEquals(1_000_000_000, DigitText.bound(9));
+        assertEquals(Integer.MAX_VALUE, DigitText.bound(10));
+        assertEquals(Integer.MAX_VALUE, DigitText.bound(12));
+        assertEquals(1, DigitText.digits(0, 0));
+        assertEquals(3, DigitText.digits(999, 0));
+        assertEquals(4, DigitText.digits(1000, 0));
+        assertEquals(10, DigitText.digits(Integer.MAX_VALUE, 0));
+        assertEquals(12, DigitText.digits(Integer.MAX_VALUE, 12));
+    }
+
+    /**
+     * @brief This test evaluates whether negative numbers are refused
+     */
+    @Test
+    public void refuseNegative() {
+        try {
+            DigitText.format("", -1, 3);
+            fail("A negative number was formatted");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Negative value: -1", e.getMessage());
+        }
+        try {
+            DigitText.write(Integer.MIN_VALUE, 0, new byte[16], 0);
+            fail("A negative number was written");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Negative value: " + Integer.MIN_VALUE, e.getMessage());
+        }
+    }
+}
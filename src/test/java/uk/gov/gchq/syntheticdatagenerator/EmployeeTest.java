@@ -19,10 +19,15 @@ package uk.gov.gchq.syntheticdatagenerator;
 import org.apache.commons.io.FileUtils;
 import org.junit.Test;
 import uk.gov.gchq.syntheticdatagenerator.types.Employee;
+import uk.gov.gchq.syntheticdatagenerator.types.Manager;
+import uk.gov.gchq.syntheticdatagenerator.types.OrgChart;
 
 import java.io.File;
 import java.util.Random;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
 /**
  * @brief Employee test
  */
@@ -42,6 +47,51 @@ public class EmployeeTest {
         System.out.println("Took " + (endTime - startTime) + "ms to create 100 employees");
     }
 
+    /**
+     * @brief This test evaluates whether a employee can be regenerated from its index alone
+     */
+    @Test
+    public void generateEmployeeByIndex() {
+        String[] forwards = new String[10];
+        for (int i = 0; i < forwards.length; i++) {
+            forwards[i] = Employee.generate(42L, i).toString();
+        }
+        for (int i = forwards.length - 1; i >= 0; i--) {
+            assertEquals(forwards[i], Employee.generate(42L, i).toString());
+        }
+    }
+
+    /**
+     * @brief This test evaluates whether the employees share the managers of an org chart
+     */
+    @Test
+    public void generateEmployeeWithOrgChart() {
+        OrgChart orgChart = OrgChart.generate(42L, 100);
+        Random random = new Random(0);
+        String[] rootUids = null;
+        for (int i = 0; i < 20; i++) {
+            Manager[] managers = Employee.generate(random, orgChart).getManager();
+            assertEquals(3, managers.length);
+            for (int type = 0; type < managers.length; type++) {
+                int chain = 1;
+                Manager manager = managers[type];
+                while (manager.getManager().length > 0) {
+                    assertEquals(1, manager.getManager().length);
+                    manager = manager.getManager()[0];
+                    chain++;
+                }
+                assertTrue(chain >= 2 && chain <= 4);
+                if (rootUids == null) {
+                    rootUids = new String[managers.length];
+                }
+                if (rootUids[type] == null) {
+                    rootUids[type] = manager.getUid();
+                }
+                assertEquals(rootUids[type], manager.getUid());
+            }
+        }
+    }
+
     /**
      * This test evaluates whether the data is correctly generated
      */
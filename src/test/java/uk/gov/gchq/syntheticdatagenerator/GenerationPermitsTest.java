@@ -0,0 +1,98 @@
+/*
+ * Copyright 2018-2021 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.syntheticdatagenerator;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @brief Generation permits test
+ */
+public class GenerationPermitsTest {
+    private static final int FILES = 4;
+    // More than one batch of people per file
+    private static final int EMPLOYEES_PER_FILE = 2_500;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * @brief This test evaluates whether the files running at the same time generate people one at a time when
+     * sharing a single permit
+     */
+    @Test
+    public void throttleGeneration() throws Exception {
+        CountingSemaphore permits = new CountingSemaphore(1);
+        ExecutorService executor = Executors.newFixedThreadPool(FILES);
+        try {
+            List<Future<Boolean>> responses = new ArrayList<>();
+            for (int i = 0; i < FILES; i++) {
+                File file = new File(folder.getRoot(), "employees" + i + ".avro");
+                responses.add(executor.submit(new CreateDataFile(EMPLOYEES_PER_FILE, i, file, "E").generationPermits(permits)));
+            }
+            for (Future<Boolean> response : responses) {
+                assertTrue(response.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(1, permits.maxHolders.get());
+        // A permit per batch of 1000 people, excluding the first person of every file
+        assertEquals(FILES * 3, permits.acquired.get());
+    }
+
+    /**
+     * @brief This class counts the permits held at the same time
+     */
+    private static final class CountingSemaphore extends Semaphore {
+        private static final long serialVersionUID = 1L;
+        private final AtomicInteger holders = new AtomicInteger();
+        private final AtomicInteger maxHolders = new AtomicInteger();
+        private final AtomicInteger acquired = new AtomicInteger();
+
+        private CountingSemaphore(final int permits) {
+            super(permits);
+        }
+
+        @Override
+        public void acquireUninterruptibly() {
+            super.acquireUninterruptibly();
+            acquired.incrementAndGet();
+            maxHolders.accumulateAndGet(holders.incrementAndGet(), Math::max);
+        }
+
+        @Override
+        public void release() {
+            holders.decrementAndGet();
+            super.release();
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2018-2021 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.syntheticdatagenerator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+import uk.gov.gchq.syntheticdatagenerator.serialise.JsonLinesSerialiser;
+import uk.gov.gchq.syntheticdatagenerator.types.Employee;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @brief JSON Lines serialiser test
+ */
+public class JsonLinesSerialiserTest {
+    private static final int EMPLOYEES = 100;
+
+    /**
+     * @brief This test evaluates whether every employee is written as a JSON object on its own line
+     */
+    @Test
+    public void writeEmployees() throws IOException {
+        List<Employee> employees = generate();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new JsonLinesSerialiser<>(Employee.class).serialise(employees.stream(), out);
+
+        String[] lines = new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n");
+        assertEquals(EMPLOYEES, lines.length);
+        ObjectMapper mapper = new ObjectMapper();
+        for (int i = 0; i < EMPLOYEES; i++) {
+            Employee employee = employees.get(i);
+            JsonNode line = mapper.readTree(lines[i]);
+            assertEquals(employee.getUid(), line.get("uid").asText());
+            assertEquals(employee.getDepartment().name(), line.get("department").asText());
+            assertEquals(employee.getSalaryAmount(), line.get("salaryAmount").asInt());
+            assertEquals(employee.getManager().length, line.get("manager").size());
+        }
+    }
+
+    /**
+     * @brief This test evaluates whether the gzip members compressed in parallel hold the same lines
+     */
+    @Test
+    public void compressInParallel() throws IOException {
+        List<Employee> employees = generate();
+        ByteArrayOutputStream plain = new ByteArrayOutputStream();
+        new JsonLinesSerialiser<>(Employee.class).serialise(employees.stream(), plain);
+
+        ExecutorService encoders = Executors.newFixedThreadPool(2);
+        try {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            new JsonLinesSerialiser<>(Employee.class).gzip(true).compressInParallel(encoders, 7, 2)
+                    .serialise(employees.stream(), compressed);
+            byte[] lines = IOUtils.toByteArray(new GZIPInputStream(new ByteArrayInputStream(compressed.toByteArray())));
+            assertArrayEquals(plain.toByteArray(), lines);
+        } finally {
+            encoders.shutdownNow();
+        }
+    }
+
+    /**
+     * @brief This test evaluates whether an output without records compressed in parallel is still a gzip file
+     */
+    @Test
+    public void compressNoRecordsInParallel() throws IOException {
+        ExecutorService encoders = Executors.newFixedThreadPool(2);
+        try {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            new JsonLinesSerialiser<>(Employee.class).gzip(true).compressInParallel(encoders, 7, 2)
+                    .serialise(Stream.empty(), compressed);
+            assertTrue(compressed.size() > 0);
+            byte[] lines = IOUtils.toByteArray(new GZIPInputStream(new ByteArrayInputStream(compressed.toByteArray())));
+            assertEquals(0, lines.length);
+        } finally {
+            encoders.shutdownNow();
+        }
+    }
+
+    /**
+     * @brief This test evaluates whether NaN and infinite numbers are written as null, keeping the lines valid JSON
+     */
+    @Test
+    public void writeNonFiniteNumbersAsNull() throws IOException {
+        List<Measurement> measurements = Arrays.asList(
+                new Measurement(1.5, 2.5f, -0.25),
+                new Measurement(Double.NaN, Float.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new JsonLinesSerialiser<>(Measurement.class).serialise(measurements.stream(), out);
+
+        String[] lines = new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n");
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode finite = mapper.readTree(lines[0]);
+        assertEquals(1.5, finite.get("value").asDouble(), 0.0);
+        assertEquals(2.5, finite.get("ratio").asDouble(), 0.0);
+        assertEquals(-0.25, finite.get("boxed").asDouble(), 0.0);
+        JsonNode nonFinite = mapper.readTree(lines[1]);
+        assertTrue(nonFinite.get("value").isNull());
+        assertTrue(nonFinite.get("ratio").isNull());
+        assertTrue(nonFinite.get("boxed").isNull());
+    }
+
+    private static List<Employee> generate() {
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < EMPLOYEES; i++) {
+            employees.add(Employee.generate(42L, i));
+        }
+        return employees;
+    }
+
+    /**
+     * A record of floating point fields, primitive and boxed.
+     */
+    public static class Measurement {
+        private double value;
+        private float ratio;
+        private Double boxed;
+
+        public Measurement() {
+        }
+
+        Measurement(final double value, final float ratio, final Double boxed) {
+            this.value = value;
+            this.ratio = ratio;
+            this.boxed = boxed;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2018-2021 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.syntheticdatagenerator;
+
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.ParquetReader;
+import org.apache.parquet.hadoop.api.ReadSupport;
+import org.apache.parquet.hadoop.example.GroupReadSupport;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.io.DelegatingSeekableInputStream;
+import org.apache.parquet.io.InputFile;
+import org.apache.parquet.io.SeekableInputStream;
+import org.junit.Test;
+import uk.gov.gchq.syntheticdatagenerator.serialise.ParquetSerialiser;
+import uk.gov.gchq.syntheticdatagenerator.types.Employee;
+import uk.gov.gchq.syntheticdatagenerator.types.Manager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @brief Parquet serialiser test
+ */
+public class ParquetSerialiserTest {
+    private static final int EMPLOYEES = 1_000;
+
+    /**
+     * @brief This test evaluates whether the employees are written to dictionary encoded row groups and read back
+     */
+    @Test
+    public void writeEmployees() throws IOException {
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < EMPLOYEES; i++) {
+            employees.add(Employee.generate(42L, i));
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new ParquetSerialiser<>(Employee.class).rowGroupSize(256 << 10).serialise(employees.stream(), out);
+        InputFile file = new BytesInputFile(out.toByteArray());
+
+        try (ParquetFileReader reader = ParquetFileReader.open(file)) {
+            List<BlockMetaData> rowGroups = reader.getRowGroups();
+            assertTrue(rowGroups.size() > 1);
+            // The column chunks of each row group are in the order of the leaf columns of the schema
+            List<ColumnDescriptor> descriptors = reader.getFileMetaData().getSchema().getColumns();
+            long rows = 0;
+            int departments = 0;
+            for (BlockMetaData rowGroup : rowGroups) {
+                rows += rowGroup.getRowCount();
+                List<ColumnChunkMetaData> columns = rowGroup.getColumns();
+                assertEquals(descriptors.size(), columns.size());
+                for (int i = 0; i < columns.size(); i++) {
+                    ColumnChunkMetaData column = columns.get(i);
+                    assertEquals(CompressionCodecName.SNAPPY, column.getCodec());
+                    if (Arrays.equals(new String[] {"department"}, descriptors.get(i).getPath())) {
+                        assertTrue(column.getEncodingStats().hasDictionaryEncodedPages());
+                        assertFalse(column.getEncodingStats().hasNonDictionaryEncodedPages());
+                        departments++;
+                    }
+                }
+            }
+            assertEquals(EMPLOYEES, rows);
+            assertEquals(rowGroups.size(), departments);
+        }
+
+        // The rows are read as Parquet groups, as the Avro reader of this Parquet version fails on nested lists
+        try (ParquetReader<Group> reader = new ParquetReader.Builder<Group>(file) {
+            @Override
+            protected ReadSupport<Group> getReadSupport() {
+                return new GroupReadSupport();
+            }
+        }.build()) {
+            for (Employee employee : employees) {
+                Group row = reader.read();
+                assertEquals(employee.getUid(), row.getString("uid", 0));
+                assertEquals(employee.getDepartment().name(), row.getString("department", 0));
+                assertEquals(employee.getSalaryAmount(), row.getInteger("salaryAmount", 0));
+                assertSameManagers(employee.getManager(), row, "manager");
+            }
+            assertNull(reader.read());
+        }
+    }
+
+    /**
+     * @brief This method compares the managers of a person, or of a manager, with a list of a row
+     * @param managers the managers
+     * @param parent the group holding the list
+     * @param field name of the list
+     */
+    private static void assertSameManagers(final Manager[] managers, final Group parent, final String field) {
+        // The managers of the deepest level are not written, as they never have managers
+        if (managers == null || managers.length == 0) {
+            assertTrue(!parent.getType().containsField(field) || parent.getFieldRepetitionCount(field) == 0);
+            return;
+        }
+        Group list = parent.getGroup(field, 0);
+        assertEquals(managers.length, list.getFieldRepetitionCount("list"));
+        for (int i = 0; i < managers.length; i++) {
+            Group manager = list.getGroup("list", i).getGroup("element", 0);
+            assertEquals(managers[i].getUid(), manager.getString("uid", 0));
+            assertSameManagers(managers[i].getManager(), manager, "managers");
+        }
+    }
+
+    /**
+     * A Parquet file held in memory.
+     */
+    private static final class BytesInputFile implements InputFile {
+        private final byte[] bytes;
+
+        private BytesInputFile(final byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public long getLength() {
+            return bytes.length;
+        }
+
+        @Override
+        public SeekableInputStream newStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(bytes);
+            return new DelegatingSeekableInputStream(in) {
+                @Override
+                public long getPos() {
+                    return bytes.length - in.available();
+                }
+
+                @Override
+                public void seek(final long position) {
+                    in.reset();
+                    in.skip(position);
+                }
+            };
+        }
+    }
+}
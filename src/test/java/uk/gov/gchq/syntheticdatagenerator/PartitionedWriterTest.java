@@ -0,0 +1,155 @@
+/*
+ * Copyright 2018-2021 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.syntheticdatagenerator;
+
+import org.junit.Test;
+import uk.gov.gchq.syntheticdatagenerator.serialise.ParquetSerialiser;
+import uk.gov.gchq.syntheticdatagenerator.serialise.PartitionedWriter;
+import uk.gov.gchq.syntheticdatagenerator.serialise.RecordWriter;
+import uk.gov.gchq.syntheticdatagenerator.types.Employee;
+import uk.gov.gchq.syntheticdatagenerator.types.Nationality;
+import uk.gov.gchq.syntheticdatagenerator.types.WorkLocationName;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @brief Partitioned writer test
+ */
+public class PartitionedWriterTest {
+    private static final int EMPLOYEES = 500;
+
+    /**
+     * @brief This test evaluates whether every employee is written once, to a part of its own department, when the
+     * least recently used parts are closed to open new ones
+     */
+    @Test
+    public void routeByDepartment() throws IOException {
+        Map<String, ByteArrayOutputStream> parts = new HashMap<>();
+        Map<String, Integer> expected = new HashMap<>();
+        try (PartitionedWriter<Employee> writer = new PartitionedWriter<>(
+                PartitionedWriter.fieldPartitioner(Employee.class, "department"), (partition, part) -> open(parts, partition, part), PartitionedWriterTest::lines)
+                .maxOpenWriters(3)) {
+            for (int i = 0; i < EMPLOYEES; i++) {
+                Employee employee = Employee.generate(42L, i);
+                expected.merge(employee.getDepartment().name(), 1, Integer::sum);
+                writer.write(employee);
+            }
+            // More departments than open writers, so the departments were written in several parts
+            assertTrue(writer.getParts().values().stream().anyMatch(count -> count > 1));
+        }
+
+        Map<String, Integer> written = new HashMap<>();
+        for (Map.Entry<String, ByteArrayOutputStream> part : parts.entrySet()) {
+            String partition = part.getKey().substring(0, part.getKey().indexOf('/'));
+            for (String department : new String(part.getValue().toByteArray(), StandardCharsets.UTF_8).split("\n")) {
+                assertEquals(partition, department);
+                written.merge(department, 1, Integer::sum);
+            }
+        }
+        assertEquals(expected, written);
+    }
+
+    /**
+     * @brief This test evaluates whether the parts roll over once they hold the number of employees given
+     */
+    @Test
+    public void rollRecords() throws IOException {
+        Map<String, ByteArrayOutputStream> parts = new HashMap<>();
+        try (PartitionedWriter<Employee> writer = new PartitionedWriter<>(
+                employee -> "all", (partition, part) -> open(parts, partition, part), PartitionedWriterTest::lines)
+                .rollRecords(100)) {
+            for (int i = 0; i < EMPLOYEES; i++) {
+                writer.write(Employee.generate(42L, i));
+            }
+        }
+        assertEquals(EMPLOYEES / 100, parts.size());
+        for (ByteArrayOutputStream part : parts.values()) {
+            assertEquals(100, new String(part.toByteArray(), StandardCharsets.UTF_8).split("\n").length);
+        }
+    }
+
+    /**
+     * @brief This test evaluates whether Parquet parts roll over on the bytes of the row group they buffer, well below
+     * the size of a row group
+     */
+    @Test
+    public void rollParquetBytes() throws IOException {
+        Map<String, ByteArrayOutputStream> parts = new HashMap<>();
+        ParquetSerialiser<Employee> serialiser = new ParquetSerialiser<>(Employee.class);
+        try (PartitionedWriter<Employee> writer = new PartitionedWriter<>(
+                employee -> "all", (partition, part) -> open(parts, partition, part), serialiser::createWriter)
+                .rollBytes(64 * 1024)) {
+            for (int i = 0; i < EMPLOYEES * 4; i++) {
+                writer.write(Employee.generate(42L, i));
+            }
+        }
+        assertTrue("parts " + parts.size(), parts.size() > 1);
+        byte[] magic = "PAR1".getBytes(StandardCharsets.US_ASCII);
+        for (ByteArrayOutputStream part : parts.values()) {
+            byte[] bytes = part.toByteArray();
+            assertTrue("part of " + bytes.length + " bytes", bytes.length < 2 * 64 * 1024);
+            assertTrue(Arrays.equals(magic, Arrays.copyOfRange(bytes, 0, magic.length)));
+            assertTrue(Arrays.equals(magic, Arrays.copyOfRange(bytes, bytes.length - magic.length, bytes.length)));
+        }
+    }
+
+    /**
+     * @brief This test evaluates whether the partitions of an enum field are counted, nested or not, with the null
+     * partition, and those of other fields are not
+     */
+    @Test
+    public void countEnumPartitions() {
+        assertEquals(Nationality.values().length + 1, PartitionedWriter.partitionCount(Employee.class, "nationality"));
+        assertTrue(PartitionedWriter.partitionCount(Employee.class, "nationality") > PartitionedWriter.DEFAULT_MAX_OPEN_WRITERS);
+        assertEquals(WorkLocationName.values().length + 1,
+                PartitionedWriter.partitionCount(Employee.class, "workLocation.workLocationName"));
+        assertEquals(0, PartitionedWriter.partitionCount(Employee.class, "uid"));
+    }
+
+    private static OutputStream open(final Map<String, ByteArrayOutputStream> parts, final String partition, final int part) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        parts.put(partition + "/" + part, out);
+        return out;
+    }
+
+    /**
+     * @brief This method opens a writer writing the department of every employee on a line
+     * @param output the output
+     * @return the writer
+     */
+    private static RecordWriter<Employee> lines(final OutputStream output) {
+        return new RecordWriter<Employee>() {
+            @Override
+            public void write(final Employee employee) throws IOException {
+                output.write((employee.getDepartment().name() + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+
+            @Override
+            public void close() throws IOException {
+                output.close();
+            }
+        };
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2018-2021 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.syntheticdatagenerator;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @brief Progress manifest test
+ */
+public class ProgressManifestTest {
+    private static final String PARAMETERS = "data 1000 2 0 e --seed=42";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * @brief This test evaluates whether a committed file is renamed and is still complete when the manifest is read again
+     */
+    @Test
+    public void completeAndResume() throws IOException {
+        File directory = folder.getRoot();
+        File avro = new File(directory, "worker_e0.avro");
+        File csv = new File(directory, "worker_e0.csv");
+        ProgressManifest manifest = new ProgressManifest(directory, PARAMETERS);
+        assertFalse(manifest.isComplete(avro, csv));
+        Files.write(ProgressManifest.temporary(avro).toPath(), "avro".getBytes(StandardCharsets.UTF_8));
+        Files.write(ProgressManifest.temporary(csv).toPath(), "csv".getBytes(StandardCharsets.UTF_8));
+        manifest.complete(avro, csv);
+
+        assertFalse(ProgressManifest.temporary(avro).exists());
+        assertEquals("csv", new String(Files.readAllBytes(csv.toPath()), StandardCharsets.UTF_8));
+        ProgressManifest resumed = new ProgressManifest(directory, PARAMETERS);
+        assertTrue(resumed.isComplete(avro, csv));
+        assertFalse(resumed.isComplete(new File(directory, "worker_e1.avro")));
+        // A completed file that was deleted since is generated again
+        assertTrue(csv.delete());
+        assertFalse(resumed.isComplete(avro, csv));
+    }
+
+    /**
+     * @brief This test evaluates whether a file whose people fail to be generated partway is neither renamed nor
+     * recorded as complete
+     */
+    @Test
+    public void failedFileIsNotCommitted() throws IOException {
+        File directory = folder.getRoot();
+        File avro = new File(directory, "worker_e0.avro");
+        // The generation of the fourth batch of people fails, after the first 30 people were written
+        GenerationPipeline pipeline = new GenerationPipeline(new FailingExecutor(3), 10, 1);
+        CreateDataFile task = new CreateDataFile(100, 0, avro, "e").indexed(42L, 0).pipeline(pipeline)
+                .checkpoint(new ProgressManifest(directory, PARAMETERS));
+        try {
+            assertFalse(task.call());
+        } catch (RejectedExecutionException e) {
+            // The failure of the generation may also reach the caller
+        }
+
+        assertFalse(avro.exists());
+        assertTrue(ProgressManifest.temporary(avro).exists());
+        assertFalse(new ProgressManifest(directory, PARAMETERS).isComplete(avro));
+    }
+
+    /**
+     * @brief This test evaluates whether a dataset cannot be resumed with other parameters
+     */
+    @Test(expected = IllegalStateException.class)
+    public void otherParameters() throws IOException {
+        File avro = new File(folder.getRoot(), "worker_e0.avro");
+        Files.write(ProgressManifest.temporary(avro).toPath(), new byte[1]);
+        new ProgressManifest(folder.getRoot(), PARAMETERS).complete(avro);
+        new ProgressManifest(folder.getRoot(), "data 1000 2 0 e --seed=43");
+    }
+
+    /**
+     * Runs a number of tasks on the calling thread and rejects the others.
+     */
+    private static final class FailingExecutor extends AbstractExecutorService {
+        private int remaining;
+
+        private FailingExecutor(final int tasks) {
+            this.remaining = tasks;
+        }
+
+        @Override
+        public void execute(final Runnable command) {
+            if (remaining-- <= 0) {
+                throw new RejectedExecutionException("The generator failed");
+            }
+            command.run();
+        }
+
+        @Override
+        public void shutdown() {
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return false;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return false;
+        }
+
+        @Override
+        public boolean awaitTermination(final long timeout, final TimeUnit unit) {
+            return false;
+        }
+    }
+}
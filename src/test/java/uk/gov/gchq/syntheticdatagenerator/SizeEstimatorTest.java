@@ -0,0 +1,58 @@
+/*
+ * Copyright 2018-2021 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.syntheticdatagenerator;
+
+import org.junit.Test;
+import uk.gov.gchq.syntheticdatagenerator.serialise.AvroSerialiser;
+import uk.gov.gchq.syntheticdatagenerator.types.Employee;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.stream.LongStream;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @brief Size estimator test
+ */
+public class SizeEstimatorTest {
+
+    /**
+     * @brief This test evaluates whether sizes are read and written with binary units
+     */
+    @Test
+    public void parseAndFormatBytes() {
+        assertEquals(1000L, SizeEstimator.parseBytes("1000"));
+        assertEquals(256L << 20, SizeEstimator.parseBytes("256M"));
+        assertEquals(500L << 30, SizeEstimator.parseBytes("500GB"));
+        assertEquals(3L << 39, SizeEstimator.parseBytes("1.5TiB"));
+        assertEquals("256.0 MiB", SizeEstimator.formatBytes(256L << 20));
+        assertEquals("512 B", SizeEstimator.formatBytes(512));
+    }
+
+    /**
+     * @brief This test evaluates whether the size estimated from a small sample is close to that of a larger file
+     */
+    @Test
+    public void estimateAvroSize() throws IOException {
+        AvroSerialiser<Employee> serialiser = new AvroSerialiser<>(Employee.class);
+        SizeEstimator.Estimate estimate = new SizeEstimator(500).estimate(index -> Employee.generate(42L, index), serialiser);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        serialiser.serialise(LongStream.range(0, 3_000).mapToObj(index -> Employee.generate(42L, index)), out);
+        assertEquals(out.size(), estimate.bytes(3_000), 0.05 * out.size());
+    }
+}
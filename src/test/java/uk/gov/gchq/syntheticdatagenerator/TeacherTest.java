@@ -23,6 +23,8 @@ import uk.gov.gchq.syntheticdatagenerator.types.Teacher;
 import java.io.File;
 import java.util.Random;
 
+import static org.junit.Assert.assertEquals;
+
 /**
  * @brief Teacher Test
  */
@@ -42,6 +44,20 @@ public class TeacherTest {
         System.out.println("Took " + (endTime - startTime) + "ms to create 100 teachers");
     }
 
+    /**
+     * @brief This test evaluates whether a teacher can be regenerated from its index alone
+     */
+    @Test
+    public void generateTeacherByIndex() {
+        String[] forwards = new String[10];
+        for (int i = 0; i < forwards.length; i++) {
+            forwards[i] = Teacher.generate(42L, i).toString();
+        }
+        for (int i = forwards.length - 1; i >= 0; i--) {
+            assertEquals(forwards[i], Teacher.generate(42L, i).toString());
+        }
+    }
+
     /**
      * This test evaluates whether the data is correctly generated
      */
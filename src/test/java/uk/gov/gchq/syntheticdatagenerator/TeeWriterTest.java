@@ -0,0 +1,143 @@
+/*
+ * Copyright 2018-2021 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.syntheticdatagenerator;
+
+import org.apache.avro.file.DataFileStream;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericRecord;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import uk.gov.gchq.syntheticdatagenerator.serialise.AvroSerialiser;
+import uk.gov.gchq.syntheticdatagenerator.serialise.CsvSerialiser;
+import uk.gov.gchq.syntheticdatagenerator.serialise.RecordWriter;
+import uk.gov.gchq.syntheticdatagenerator.serialise.TeeWriter;
+import uk.gov.gchq.syntheticdatagenerator.types.Employee;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @brief Tee writer test
+ */
+public class TeeWriterTest {
+    private static final int EMPLOYEES = 250;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * @brief This test evaluates whether every sink receives every employee in order
+     */
+    @Test
+    public void writeEverySink() throws IOException {
+        List<String> uids = new ArrayList<>();
+        ByteArrayOutputStream avro = new ByteArrayOutputStream();
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        AvroSerialiser<Employee> avroSerialiser = new AvroSerialiser<>(Employee.class);
+        List<RecordWriter<Employee>> writers = Arrays.asList(avroSerialiser.createWriter(avro),
+                new CsvSerialiser<>(Employee.class).createWriter(csv));
+        // Small batches and queues, so the sinks wait for each other and for the caller
+        try (RecordWriter<Employee> tee = new TeeWriter<>(writers, CreateData.createDaemonThreadFactory(), 16, 2)) {
+            for (int i = 0; i < EMPLOYEES; i++) {
+                Employee employee = Employee.generate(42L, i);
+                uids.add(employee.getUid());
+                tee.write(employee);
+            }
+        }
+
+        try (Stream<Employee> employees = avroSerialiser.deserialise(new ByteArrayInputStream(avro.toByteArray()))) {
+            assertEquals(uids, employees.map(Employee::getUid).collect(Collectors.toList()));
+        }
+        // The header followed by a line per employee
+        assertEquals(EMPLOYEES + 1, new String(csv.toByteArray(), StandardCharsets.UTF_8).split("\r?\n").length);
+    }
+
+    /**
+     * @brief This test evaluates whether the tee files take the options of their format but not the codec of the
+     * output format, whether the files are written from chunks or not
+     */
+    @Test
+    public void teeFilesTakeTheirFormatOptions() throws IOException {
+        for (String[] mode : new String[][] {{}, {"--seed=7", "--chunk-size=4"}}) {
+            File directory = folder.newFolder();
+            String[] args = {directory.getPath(), "10", "1", "2", "0", "e", "--tee=csv", "--csv-nesting=count", "--codec=deflate:1"};
+            CreateData.main(Stream.concat(Arrays.stream(args), Arrays.stream(mode)).toArray(String[]::new));
+
+            try (InputStream in = new FileInputStream(new File(directory, "worker_e0.avro"));
+                 DataFileStream<GenericRecord> avro = new DataFileStream<>(in, new GenericDatumReader<>())) {
+                assertEquals("deflate", avro.getMetaString("avro.codec"));
+            }
+            List<String> lines = Files.readAllLines(new File(directory, "worker_e0.csv").toPath(), StandardCharsets.UTF_8);
+            String header = String.join(",", new CsvSerialiser<>(Employee.class).nesting(CsvSerialiser.Nesting.COUNT).header());
+            assertEquals(header, lines.get(0));
+            assertEquals(11, lines.size());
+        }
+    }
+
+    /**
+     * @brief This test evaluates whether the failure of a sink is thrown while the other sinks are still closed
+     */
+    @Test
+    public void failingSink() {
+        AtomicBoolean closed = new AtomicBoolean();
+        RecordWriter<Employee> failing = new RecordWriter<Employee>() {
+            @Override
+            public void write(final Employee object) throws IOException {
+                throw new IOException("disk full");
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        RecordWriter<Employee> counting = new RecordWriter<Employee>() {
+            @Override
+            public void write(final Employee object) {
+            }
+
+            @Override
+            public void close() {
+                closed.set(true);
+            }
+        };
+        try (RecordWriter<Employee> tee = new TeeWriter<>(Arrays.asList(failing, counting), CreateData.createDaemonThreadFactory(), 1, 1)) {
+            for (int i = 0; i < EMPLOYEES; i++) {
+                tee.write(new Employee());
+            }
+            fail("The failure of the sink was not thrown");
+        } catch (IOException e) {
+            assertEquals("disk full", e.getMessage());
+        }
+        assertTrue(closed.get());
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2018-2021 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.syntheticdatagenerator;
+
+import org.junit.Test;
+import uk.gov.gchq.syntheticdatagenerator.random.XoshiroRandom;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @brief XoshiroRandom test
+ */
+public class XoshiroRandomTest {
+
+    /**
+     * @brief This test evaluates whether a seed gives the sequence of the reference xoshiro256** seeded by SplitMix64
+     */
+    @Test
+    public void matchesReference() {
+        XoshiroRandom random = new XoshiroRandom(42);
+        assertEquals(1546998764402558742L, random.nextLong());
+        assertEquals(6990951692964543102L, random.nextLong());
+        assertEquals(-5902157311460992607L, random.nextLong());
+    }
+
+    /**
+     * @brief This test evaluates whether the same seed reproduces the same sequence, also after setSeed
+     */
+    @Test
+    public void reproducible() {
+        long[] first = draw(new XoshiroRandom(7), 1000);
+        assertArrayEquals(first, draw(new XoshiroRandom(7), 1000));
+        XoshiroRandom reseeded = new XoshiroRandom(99);
+        reseeded.nextLong();
+        reseeded.setSeed(7);
+        assertArrayEquals(first, draw(reseeded, 1000));
+        assertEquals(0, overlap(first, draw(new XoshiroRandom(8), 1000)));
+    }
+
+    /**
+     * @brief This test evaluates whether split generators are reproducible and do not share values with their parent
+     * or each other
+     */
+    @Test
+    public void splitIndependence() {
+        XoshiroRandom parent = new XoshiroRandom(3);
+        XoshiroRandom first = parent.split();
+        XoshiroRandom second = parent.split();
+        long[] firstValues = draw(first, 1000);
+        long[] secondValues = draw(second, 1000);
+        long[] parentValues = draw(parent, 1000);
+        assertEquals(0, overlap(firstValues, secondValues));
+        assertEquals(0, overlap(firstValues, parentValues));
+        assertEquals(0, overlap(secondValues, parentValues));
+
+        XoshiroRandom again = new XoshiroRandom(3);
+        assertArrayEquals(firstValues, draw(again.split(), 1000));
+        assertArrayEquals(secondValues, draw(again.split(), 1000));
+    }
+
+    private static long[] draw(final XoshiroRandom random, final int count) {
+        long[] values = new long[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = random.nextLong();
+        }
+        return values;
+    }
+
+    private static int overlap(final long[] left, final long[] right) {
+        Set<Long> seen = new HashSet<>();
+        for (long value : left) {
+            seen.add(value);
+        }
+        int shared = 0;
+        for (long value : right) {
+            if (seen.contains(value)) {
+                shared++;
+            }
+        }
+        return shared;
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2018-2021 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.syntheticdatagenerator.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import uk.gov.gchq.syntheticdatagenerator.serialise.AvroSerialiser;
+import uk.gov.gchq.syntheticdatagenerator.types.Employee;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * @brief Passes per second over the same Avro file, read as a buffered stream, through file inputs, and through a
+ * mapping of the file
+ * @details every pass reads the whole file sequentially, as repeated verification of generated files does, so after
+ * the first pass the file is read from the page cache. The default file is small; for a file of several GB, run with
+ * {@code -p employees=2000000} and enough free disk and page cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class AvroMappedReaderBenchmark {
+    private static final long MIN_SPLIT_BYTES = 1 << 20;
+
+    @Param({"20000"})
+    private int employees;
+
+    @Param({"stream", "file", "mapped"})
+    private String reader;
+
+    private AvroSerialiser<Employee> serialiser;
+    private File file;
+
+    /**
+     * @brief This method writes the employees to a temporary file
+     * @throws IOException found problems writing the file
+     */
+    @Setup
+    public void setUp() throws IOException {
+        serialiser = new AvroSerialiser<>(Employee.class);
+        file = File.createTempFile("employees", ".avro");
+        try (OutputStream out = new FileOutputStream(file)) {
+            serialiser.bufferSize(1 << 20)
+                    .serialise(Stream.iterate(0, i -> i + 1).limit(employees).map(i -> Employee.generate(42L, i)), out);
+        }
+    }
+
+    /**
+     * @brief This method deletes the temporary file
+     */
+    @TearDown
+    public void tearDown() {
+        if (!file.delete()) {
+            file.deleteOnExit();
+        }
+    }
+
+    /**
+     * @brief This benchmark reads every employee of the file
+     * @param blackhole consumes the employees
+     * @throws IOException found problems reading the file
+     */
+    @Benchmark
+    public void deserialise(final Blackhole blackhole) throws IOException {
+        try (Stream<Employee> read = open()) {
+            read.forEach(blackhole::consume);
+        }
+    }
+
+    private Stream<Employee> open() throws IOException {
+        if ("stream".equals(reader)) {
+            return serialiser.deserialise(new BufferedInputStream(new FileInputStream(file)));
+        }
+        if ("file".equals(reader)) {
+            return serialiser.deserialise(file, MIN_SPLIT_BYTES);
+        }
+        Path path = file.toPath();
+        return serialiser.deserialise(path, serialiser.getSchema(), false, MIN_SPLIT_BYTES);
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2018-2021 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.syntheticdatagenerator.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.gov.gchq.syntheticdatagenerator.serialise.AvroSerialiser;
+import uk.gov.gchq.syntheticdatagenerator.types.Employee;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * @brief Employees per second read back from an Avro file as a stream, or split at its sync markers and read
+ * sequentially or in parallel
+ * @details the parallel reader scales with the number of cores, on a single core it measures the cost of splitting.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class AvroReaderBenchmark {
+    private static final int EMPLOYEES = 20_000;
+    private static final long MIN_SPLIT_BYTES = 1 << 20;
+
+    @Param({"stream", "sequential", "parallel"})
+    private String reader;
+
+    private AvroSerialiser<Employee> serialiser;
+    private File file;
+
+    /**
+     * @brief This method writes the employees to a temporary file
+     * @throws IOException found problems writing the file
+     */
+    @Setup
+    public void setUp() throws IOException {
+        serialiser = new AvroSerialiser<>(Employee.class);
+        file = File.createTempFile("employees", ".avro");
+        try (OutputStream out = new FileOutputStream(file)) {
+            serialiser.serialise(Stream.iterate(0, i -> i + 1).limit(EMPLOYEES).map(i -> Employee.generate(42L, i)), out);
+        }
+    }
+
+    /**
+     * @brief This method deletes the temporary file
+     */
+    @TearDown
+    public void tearDown() {
+        if (!file.delete()) {
+            file.deleteOnExit();
+        }
+    }
+
+    /**
+     * @brief This benchmark reads every employee of the file
+     * @return the number of employees read
+     * @throws IOException found problems reading the file
+     */
+    @Benchmark
+    @OperationsPerInvocation(EMPLOYEES)
+    public long deserialise() throws IOException {
+        if ("stream".equals(reader)) {
+            try (Stream<Employee> employees = serialiser.deserialise(new BufferedInputStream(new FileInputStream(file)))) {
+                return employees.count();
+            }
+        }
+        try (Stream<Employee> employees = serialiser.deserialise(file, MIN_SPLIT_BYTES)) {
+            return "parallel".equals(reader) ? employees.parallel().count() : employees.count();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2018-2021 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.syntheticdatagenerator.benchmark;
+
+import org.apache.avro.Schema;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DatumWriter;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.reflect.ReflectData;
+import org.apache.avro.reflect.ReflectDatumWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.gov.gchq.syntheticdatagenerator.serialise.CompiledDatumWriter;
+import uk.gov.gchq.syntheticdatagenerator.types.Employee;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @brief Employees per second encoded to Avro by reflection and by the {@link CompiledDatumWriter}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class AvroWriterBenchmark {
+    private static final int EMPLOYEES = 1_000;
+
+    @Param({"reflect", "compiled"})
+    private String writer;
+
+    private Employee[] employees;
+    private DatumWriter<Employee> datumWriter;
+    private ByteArrayOutputStream out;
+    private BinaryEncoder encoder;
+
+    /**
+     * @brief This method generates the employees and creates the writer
+     */
+    @Setup
+    public void setUp() {
+        employees = new Employee[EMPLOYEES];
+        for (int i = 0; i < EMPLOYEES; i++) {
+            employees[i] = Employee.generate(42L, i);
+        }
+        Schema schema = ReflectData.AllowNull.get().getSchema(Employee.class);
+        datumWriter = "reflect".equals(writer) ? new ReflectDatumWriter<>(schema) : CompiledDatumWriter.compile(Employee.class, schema);
+        out = new ByteArrayOutputStream();
+        encoder = EncoderFactory.get().binaryEncoder(out, null);
+    }
+
+    /**
+     * @brief This benchmark encodes the employees
+     * @return the number of bytes written
+     * @throws IOException never, the bytes are written to memory
+     */
+    @Benchmark
+    @OperationsPerInvocation(EMPLOYEES)
+    public int encode() throws IOException {
+        out.reset();
+        for (Employee employee : employees) {
+            datumWriter.write(employee, encoder);
+        }
+        encoder.flush();
+        return out.size();
+    }
+}
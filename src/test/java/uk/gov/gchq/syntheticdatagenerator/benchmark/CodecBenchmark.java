@@ -0,0 +1,124 @@
+/*
+ * Copyright 2018-2021 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.syntheticdatagenerator.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.gov.gchq.syntheticdatagenerator.serialise.AvroSerialiser;
+import uk.gov.gchq.syntheticdatagenerator.types.Employee;
+import uk.gov.gchq.syntheticdatagenerator.types.Teacher;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @brief Avro files written per second with each codec
+ * @details besides the files per second, the benchmark reports the uncompressed and compressed bytes written per
+ * second: the uncompressedBytes rate is the encoding throughput, and uncompressedBytes / compressedBytes is the
+ * compression ratio.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class CodecBenchmark {
+    private static final int RECORDS = 1_000;
+
+    @Param({"employee", "teacher"})
+    private String type;
+
+    @Param({"null", "deflate:1", "deflate:6", "deflate:9", "snappy", "bzip2", "xz:1", "xz:6"})
+    private String codec;
+
+    @Param({"0"})
+    private int syncInterval;
+
+    private List<Object> records;
+    private AvroSerialiser<Object> serialiser;
+    private int uncompressedSize;
+    private ByteArrayOutputStream out;
+
+    /**
+     * @brief Bytes written by the benchmark, reported as rates by JMH
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Bytes {
+        public long uncompressedBytes;
+        public long compressedBytes;
+
+        /**
+         * @brief This method resets the counters for every iteration
+         */
+        @Setup(Level.Iteration)
+        public void reset() {
+            uncompressedBytes = 0;
+            compressedBytes = 0;
+        }
+    }
+
+    /**
+     * @brief This method generates the records and measures their size without compression
+     * @throws IOException never, the bytes are written to memory
+     */
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() throws IOException {
+        Class<?> domainClass = "teacher".equals(type) ? Teacher.class : Employee.class;
+        records = new ArrayList<>(RECORDS);
+        for (int i = 0; i < RECORDS; i++) {
+            records.add("teacher".equals(type) ? Teacher.generate(42L, i) : Employee.generate(42L, i));
+        }
+        ByteArrayOutputStream uncompressed = new ByteArrayOutputStream();
+        new AvroSerialiser<>((Class<Object>) domainClass).syncInterval(syncInterval).serialise(records.stream(), uncompressed);
+        uncompressedSize = uncompressed.size();
+        serialiser = new AvroSerialiser<>((Class<Object>) domainClass)
+                .codec(AvroSerialiser.codecFromName(codec))
+                .syncInterval(syncInterval);
+        out = new ByteArrayOutputStream(uncompressedSize);
+    }
+
+    /**
+     * @brief This benchmark writes the records to an Avro file in memory
+     * @param bytes counters of the bytes written
+     * @return the size of the file
+     * @throws IOException never, the bytes are written to memory
+     */
+    @Benchmark
+    public int write(final Bytes bytes) throws IOException {
+        out.reset();
+        serialiser.serialise(records.stream(), out);
+        bytes.uncompressedBytes += uncompressedSize;
+        bytes.compressedBytes += out.size();
+        return out.size();
+    }
+}
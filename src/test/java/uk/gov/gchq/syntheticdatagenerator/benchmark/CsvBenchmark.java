@@ -0,0 +1,86 @@
+/*
+ * Copyright 2018-2021 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.syntheticdatagenerator.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.gov.gchq.syntheticdatagenerator.serialise.AvroSerialiser;
+import uk.gov.gchq.syntheticdatagenerator.serialise.CsvSerialiser;
+import uk.gov.gchq.syntheticdatagenerator.serialise.Serialiser;
+import uk.gov.gchq.syntheticdatagenerator.types.Employee;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @brief Employees per second serialised to Avro and to CSV with every {@link CsvSerialiser.Nesting} policy
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class CsvBenchmark {
+    private static final int EMPLOYEES = 1_000;
+
+    @Param({"avro", "json", "first", "count"})
+    private String format;
+
+    private Employee[] employees;
+    private Serialiser<Employee> serialiser;
+    private ByteArrayOutputStream out;
+
+    /**
+     * @brief This method generates the employees and creates the serialiser
+     */
+    @Setup
+    public void setUp() {
+        employees = new Employee[EMPLOYEES];
+        for (int i = 0; i < EMPLOYEES; i++) {
+            employees[i] = Employee.generate(42L, i);
+        }
+        serialiser = "avro".equals(format) ? new AvroSerialiser<>(Employee.class)
+                : new CsvSerialiser<>(Employee.class).nesting(CsvSerialiser.Nesting.fromName(format));
+        out = new ByteArrayOutputStream();
+    }
+
+    /**
+     * @brief This benchmark serialises the employees
+     * @return the number of bytes written
+     * @throws IOException never, the bytes are written to memory
+     */
+    @Benchmark
+    @OperationsPerInvocation(EMPLOYEES)
+    public int serialise() throws IOException {
+        out.reset();
+        serialiser.serialise(Arrays.stream(employees), out);
+        return out.size();
+    }
+}
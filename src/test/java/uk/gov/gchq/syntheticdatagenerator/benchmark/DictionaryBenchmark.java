@@ -0,0 +1,97 @@
+/*
+ * Copyright 2018-2021 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.syntheticdatagenerator.benchmark;
+
+import com.github.javafaker.Faker;
+import com.github.javafaker.Name;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.gov.gchq.syntheticdatagenerator.random.RandomSource;
+import uk.gov.gchq.syntheticdatagenerator.types.Address;
+import uk.gov.gchq.syntheticdatagenerator.types.Dictionaries;
+import uk.gov.gchq.syntheticdatagenerator.types.ThreadLocalFaker;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @brief Names and addresses per second sampled through javafaker and through the precompiled {@link Dictionaries}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class DictionaryBenchmark {
+
+    private Random random;
+    private Faker faker;
+
+    /**
+     * @brief This method creates the generators used by each benchmark thread
+     */
+    @Setup
+    public void setUp() {
+        random = RandomSource.XOSHIRO.create(0);
+        faker = ThreadLocalFaker.getFaker(random);
+    }
+
+    /**
+     * @brief This benchmark generates a full name with javafaker
+     * @return the generated name
+     */
+    @Benchmark
+    public String fakerName() {
+        Name name = faker.name();
+        return name.firstName() + " " + name.lastName();
+    }
+
+    /**
+     * @brief This benchmark generates a full name from the dictionaries
+     * @return the generated name
+     */
+    @Benchmark
+    public String dictionaryName() {
+        return Dictionaries.fullName(random);
+    }
+
+    /**
+     * @brief This benchmark generates an address with javafaker
+     * @return the generated address
+     */
+    @Benchmark
+    public Address fakerAddress() {
+        return Address.generate(faker);
+    }
+
+    /**
+     * @brief This benchmark generates an address from the dictionaries
+     * @return the generated address
+     */
+    @Benchmark
+    public Address dictionaryAddress() {
+        return Address.generate(random);
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2018-2021 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.syntheticdatagenerator.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.gov.gchq.syntheticdatagenerator.random.RandomSource;
+import uk.gov.gchq.syntheticdatagenerator.types.BankDetails;
+import uk.gov.gchq.syntheticdatagenerator.types.PhoneNumber;
+import uk.gov.gchq.syntheticdatagenerator.utils.DigitText;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @brief Zero padded phone numbers formatted with {@link String#format} and with {@link DigitText}
+ * @details run with {@code -prof gc} to compare the allocation rates
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class DigitTextBenchmark {
+    private static final int PHONE_NUMBER_LENGTH = 10;
+
+    private Random random;
+
+    /**
+     * @brief This method creates the generator used by each benchmark thread
+     */
+    @Setup
+    public void setUp() {
+        random = RandomSource.XOSHIRO.create(0);
+    }
+
+    /**
+     * @brief This benchmark formats a phone number the way the generators used to
+     * @return the phone number
+     */
+    @Benchmark
+    public String formatPhoneNumber() {
+        return String.format("0%0" + PHONE_NUMBER_LENGTH + "d", random.nextInt((int) Math.pow(10, PHONE_NUMBER_LENGTH)));
+    }
+
+    /**
+     * @brief This benchmark writes a phone number with {@link DigitText}
+     * @return the phone number
+     */
+    @Benchmark
+    public String digitTextPhoneNumber() {
+        return DigitText.randomDigits(random, "0", PHONE_NUMBER_LENGTH);
+    }
+
+    /**
+     * @brief This benchmark generates the contact numbers of one record
+     * @return the generated phone numbers
+     */
+    @Benchmark
+    public PhoneNumber[] generatePhoneNumbers() {
+        return PhoneNumber.generateMany(random);
+    }
+
+    /**
+     * @brief This benchmark generates bank details
+     * @return the generated bank details
+     */
+    @Benchmark
+    public BankDetails generateBankDetails() {
+        return BankDetails.generate(random);
+    }
+}
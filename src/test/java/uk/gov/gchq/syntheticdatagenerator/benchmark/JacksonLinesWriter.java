@@ -0,0 +1,227 @@
+/*
+ * Copyright 2018-2021 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.syntheticdatagenerator.benchmark;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import org.apache.avro.Schema;
+import org.apache.avro.reflect.ReflectData;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * @brief Writes domain objects as JSON Lines with a Jackson {@link JsonGenerator}, for comparison with the JSON Lines
+ * serialiser
+ * @details the writers are compiled once from the Avro schema of the domain class, as the serialiser does, with the
+ * names of the fields and the enum symbols pre-serialised as {@link SerializedString}s and the fields read through
+ * {@link MethodHandle}s, so the two differ only in how the JSON text is encoded.
+ * @param <O> the domain object type
+ */
+final class JacksonLinesWriter<O> {
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    private final ValueWriter writer;
+
+    /**
+     * @param domainClass class of the objects
+     */
+    JacksonLinesWriter(final Class<O> domainClass) {
+        this.writer = compile(ReflectData.AllowNull.get().getSchema(domainClass), domainClass, new HashMap<>());
+    }
+
+    /**
+     * @brief This method writes the objects, one line of JSON per object
+     * @param objects the objects
+     * @param output the output stream, flushed but not closed
+     * @throws IOException found problems writing to the output
+     */
+    void write(final Stream<O> objects, final OutputStream output) throws IOException {
+        try (JsonGenerator generator = FACTORY.createGenerator(output, JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            Iterator<O> objectIt = objects.iterator();
+            while (objectIt.hasNext()) {
+                writer.write(objectIt.next(), generator);
+                generator.writeRaw('\n');
+            }
+        }
+    }
+
+    private static ValueWriter compile(final Schema schema, final Class<?> type, final Map<String, RecordWriter> records) {
+        switch (schema.getType()) {
+            case UNION:
+                List<Schema> branches = schema.getTypes();
+                Schema branch = branches.get(0).getType() == Schema.Type.NULL ? branches.get(1) : branches.get(0);
+                return compile(branch, type, records);
+            case RECORD:
+                return compileRecord(schema, type, records);
+            case ARRAY:
+                ValueWriter elementWriter = compile(schema.getElementType(), type.getComponentType(), records);
+                return (value, generator) -> {
+                    generator.writeStartArray();
+                    for (Object element : (Object[]) value) {
+                        if (element == null) {
+                            generator.writeNull();
+                        } else {
+                            elementWriter.write(element, generator);
+                        }
+                    }
+                    generator.writeEndArray();
+                };
+            case ENUM:
+                Object[] constants = type.getEnumConstants();
+                SerializableString[] symbols = new SerializableString[constants.length];
+                for (int i = 0; i < constants.length; i++) {
+                    symbols[i] = new SerializedString(((Enum<?>) constants[i]).name());
+                }
+                return (value, generator) -> generator.writeString(symbols[((Enum<?>) value).ordinal()]);
+            case STRING:
+                return (value, generator) -> generator.writeString(value.toString());
+            case INT:
+                return (value, generator) -> generator.writeNumber(((Number) value).intValue());
+            case LONG:
+                return (value, generator) -> generator.writeNumber(((Number) value).longValue());
+            case FLOAT:
+            case DOUBLE:
+                return (value, generator) -> generator.writeNumber(((Number) value).doubleValue());
+            case BOOLEAN:
+                return (value, generator) -> generator.writeBoolean((Boolean) value);
+            default:
+                throw new UnsupportedOperationException("Cannot write " + type + " for schema " + schema);
+        }
+    }
+
+    private static ValueWriter compileRecord(final Schema schema, final Class<?> type, final Map<String, RecordWriter> records) {
+        // Recursive records, such as the managers of a manager, reuse the writer being compiled
+        RecordWriter recordWriter = records.get(schema.getFullName());
+        if (recordWriter != null) {
+            return recordWriter;
+        }
+        List<Schema.Field> fields = schema.getFields();
+        recordWriter = new RecordWriter(new FieldWriter[fields.size()]);
+        records.put(schema.getFullName(), recordWriter);
+        for (int i = 0; i < fields.size(); i++) {
+            recordWriter.fields[i] = compileField(fields.get(i), type, records);
+        }
+        return recordWriter;
+    }
+
+    private static FieldWriter compileField(final Schema.Field schemaField, final Class<?> type,
+                                            final Map<String, RecordWriter> records) {
+        Field field = field(type, schemaField.name());
+        SerializableString name = new SerializedString(schemaField.name());
+        Class<?> fieldType = field.getType();
+        if (fieldType == int.class) {
+            MethodHandle intGetter = getter(field, int.class);
+            return (record, generator) -> {
+                generator.writeFieldName(name);
+                generator.writeNumber(getInt(intGetter, record));
+            };
+        }
+        MethodHandle getter = getter(field, Object.class);
+        ValueWriter valueWriter = compile(schemaField.schema(), fieldType.isPrimitive() ? Object.class : fieldType, records);
+        return (record, generator) -> {
+            Object value = get(getter, record);
+            generator.writeFieldName(name);
+            if (value == null) {
+                generator.writeNull();
+            } else {
+                valueWriter.write(value, generator);
+            }
+        };
+    }
+
+    private static Field field(final Class<?> type, final String name) {
+        for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+            try {
+                return c.getDeclaredField(name);
+            } catch (NoSuchFieldException e) {
+                // look in the super class
+            }
+        }
+        throw new UnsupportedOperationException("No field " + name + " in " + type);
+    }
+
+    private static MethodHandle getter(final Field field, final Class<?> valueType) {
+        try {
+            field.setAccessible(true);
+            return MethodHandles.lookup().unreflectGetter(field).asType(MethodType.methodType(valueType, Object.class));
+        } catch (IllegalAccessException e) {
+            throw new UnsupportedOperationException("Cannot read field " + field, e);
+        }
+    }
+
+    private static Object get(final MethodHandle getter, final Object object) {
+        try {
+            return (Object) getter.invokeExact(object);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    private static int getInt(final MethodHandle getter, final Object object) {
+        try {
+            return (int) getter.invokeExact(object);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ValueWriter {
+        void write(Object value, JsonGenerator generator) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface FieldWriter {
+        void write(Object record, JsonGenerator generator) throws IOException;
+    }
+
+    private static final class RecordWriter implements ValueWriter {
+        private final FieldWriter[] fields;
+
+        private RecordWriter(final FieldWriter[] fields) {
+            this.fields = fields;
+        }
+
+        @Override
+        public void write(final Object value, final JsonGenerator generator) throws IOException {
+            generator.writeStartObject();
+            for (FieldWriter field : fields) {
+                field.write(value, generator);
+            }
+            generator.writeEndObject();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2018-2021 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.syntheticdatagenerator.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.gov.gchq.syntheticdatagenerator.serialise.AvroSerialiser;
+import uk.gov.gchq.syntheticdatagenerator.serialise.ParquetSerialiser;
+import uk.gov.gchq.syntheticdatagenerator.serialise.Serialiser;
+import uk.gov.gchq.syntheticdatagenerator.types.Employee;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @brief Employees per second written to Avro and to Parquet with every codec
+ * @details besides the employees per second, the benchmark reports the bytes written per second, so the bytes of an
+ * employee are the ratio of the two rates.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ParquetBenchmark {
+    private static final int EMPLOYEES = 10_000;
+
+    @Param({"avro", "uncompressed", "snappy", "gzip"})
+    private String format;
+
+    private Employee[] employees;
+    private Serialiser<Employee> serialiser;
+    private ByteArrayOutputStream out;
+
+    /**
+     * @brief Bytes written by the benchmark, reported as a rate by JMH
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Bytes {
+        public long bytesWritten;
+
+        /**
+         * @brief This method resets the counter for every iteration
+         */
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytesWritten = 0;
+        }
+    }
+
+    /**
+     * @brief This method generates the employees and creates the serialiser
+     */
+    @Setup
+    public void setUp() {
+        employees = new Employee[EMPLOYEES];
+        for (int i = 0; i < EMPLOYEES; i++) {
+            employees[i] = Employee.generate(42L, i);
+        }
+        serialiser = "avro".equals(format) ? new AvroSerialiser<>(Employee.class)
+                : new ParquetSerialiser<>(Employee.class).codec(ParquetSerialiser.codecFromName(format));
+        out = new ByteArrayOutputStream();
+    }
+
+    /**
+     * @brief This benchmark writes the employees to one file
+     * @param bytes counter of the bytes written
+     * @return the size of the file
+     * @throws IOException never, the bytes are written to memory
+     */
+    @Benchmark
+    @OperationsPerInvocation(EMPLOYEES)
+    public int serialise(final Bytes bytes) throws IOException {
+        out.reset();
+        serialiser.serialise(Arrays.stream(employees), out);
+        bytes.bytesWritten += out.size();
+        return out.size();
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2018-2021 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.syntheticdatagenerator.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.gov.gchq.syntheticdatagenerator.random.RandomSource;
+import uk.gov.gchq.syntheticdatagenerator.types.Employee;
+import uk.gov.gchq.syntheticdatagenerator.types.PhoneNumber;
+import uk.gov.gchq.syntheticdatagenerator.types.Teacher;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @brief Records per second generated with each {@link RandomSource}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class RandomSourceBenchmark {
+
+    @Param({"SECURE", "XOSHIRO"})
+    private RandomSource source;
+
+    private Random random;
+
+    /**
+     * @brief This method creates the generator used by each benchmark thread
+     */
+    @Setup
+    public void setUp() {
+        random = source.create(0);
+    }
+
+    /**
+     * @brief This benchmark generates employee records
+     * @return the generated employee
+     */
+    @Benchmark
+    public Employee generateEmployee() {
+        return Employee.generate(random);
+    }
+
+    /**
+     * @brief This benchmark generates teacher records
+     * @return the generated teacher
+     */
+    @Benchmark
+    public Teacher generateTeacher() {
+        return Teacher.generate(random);
+    }
+
+    /**
+     * @brief This benchmark generates the contact numbers of one record, which only draws on the random source
+     * @return the generated phone numbers
+     */
+    @Benchmark
+    public PhoneNumber[] generatePhoneNumbers() {
+        return PhoneNumber.generateMany(random);
+    }
+}
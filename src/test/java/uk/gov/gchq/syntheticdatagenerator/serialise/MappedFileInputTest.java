@@ -0,0 +1,161 @@
+/*
+ * Copyright 2018-2021 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.syntheticdatagenerator.serialise;
+
+import org.apache.avro.file.DataFileReader;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericRecord;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import uk.gov.gchq.syntheticdatagenerator.types.Employee;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @brief Mapped file input test, with regions small enough for the reads to cross them
+ */
+public class MappedFileInputTest {
+    private static final int FILE_SIZE = 1_000;
+    // Does not divide the file size, so the last region is shorter
+    private static final int REGION_SIZE = 64;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * @brief This test evaluates whether the whole file is read, a region at most per read
+     */
+    @Test
+    public void readAcrossRegions() throws IOException {
+        byte[] content = content();
+        try (MappedFileInput input = new MappedFileInput(write(content), REGION_SIZE)) {
+            assertEquals(FILE_SIZE, input.length());
+            byte[] read = new byte[FILE_SIZE];
+            int offset = 0;
+            for (int count = input.read(read, offset, 100); count != -1; count = input.read(read, offset, 100)) {
+                assertTrue(count > 0 && count <= REGION_SIZE - offset % REGION_SIZE);
+                offset += count;
+                assertEquals(offset, input.tell());
+                if (offset == FILE_SIZE) {
+                    assertEquals(-1, input.read(read, 0, 1));
+                    break;
+                }
+            }
+            assertEquals(FILE_SIZE, offset);
+            assertArrayEquals(content, read);
+        }
+    }
+
+    /**
+     * @brief This test evaluates whether reads seeking around the edges of the regions return the bytes of the file
+     */
+    @Test
+    public void seekAroundRegionEdges() throws IOException {
+        byte[] content = content();
+        try (MappedFileInput input = new MappedFileInput(write(content), REGION_SIZE)) {
+            byte[] read = new byte[REGION_SIZE];
+            for (long p : new long[] {0, REGION_SIZE - 1, REGION_SIZE, REGION_SIZE + 1, 15 * REGION_SIZE - 1, FILE_SIZE - 1}) {
+                input.seek(p);
+                int count = input.read(read, 0, 2);
+                // A read ending a region stops at its edge
+                int expected = (int) Math.min(2, Math.min(REGION_SIZE - p % REGION_SIZE, FILE_SIZE - p));
+                assertEquals(expected, count);
+                assertArrayEquals(Arrays.copyOfRange(content, (int) p, (int) p + count), Arrays.copyOf(read, count));
+            }
+            input.seek(FILE_SIZE);
+            assertEquals(-1, input.read(read, 0, 1));
+        }
+    }
+
+    /**
+     * @brief This test evaluates whether duplicates read the same mapping from positions of their own
+     */
+    @Test
+    public void duplicatesReadIndependently() throws IOException {
+        byte[] content = content();
+        try (MappedFileInput input = new MappedFileInput(write(content), REGION_SIZE)) {
+            MappedFileInput first = input.duplicate();
+            MappedFileInput second = input.duplicate();
+            first.seek(REGION_SIZE - 10);
+            second.seek(3 * REGION_SIZE + 5);
+            byte[] a = new byte[10];
+            byte[] b = new byte[10];
+            assertEquals(10, first.read(a, 0, 10));
+            assertEquals(10, second.read(b, 0, 10));
+            assertArrayEquals(Arrays.copyOfRange(content, REGION_SIZE - 10, REGION_SIZE), a);
+            assertArrayEquals(Arrays.copyOfRange(content, 3 * REGION_SIZE + 5, 3 * REGION_SIZE + 15), b);
+            // The same region read again from the first duplicate, after the second moved on
+            first.seek(REGION_SIZE - 10);
+            assertEquals(10, first.read(a, 0, 10));
+            assertArrayEquals(Arrays.copyOfRange(content, REGION_SIZE - 10, REGION_SIZE), a);
+            assertEquals(0, input.tell());
+            first.close();
+            assertFalse(second.read(b, 0, 1) == -1);
+        }
+    }
+
+    /**
+     * @brief This test evaluates whether an Avro file is read back whole when its blocks span several regions
+     */
+    @Test
+    public void readAvroAcrossRegions() throws IOException {
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            employees.add(Employee.generate(42L, i));
+        }
+        Path path = folder.newFile("employees.avro").toPath();
+        try (OutputStream out = Files.newOutputStream(path)) {
+            new AvroSerialiser<>(Employee.class).serialise(employees.stream(), out);
+        }
+        assertTrue(Files.size(path) > 10 * 4096);
+
+        try (DataFileReader<GenericRecord> reader = new DataFileReader<>(new MappedFileInput(path, 4096),
+                new GenericDatumReader<>())) {
+            for (Employee employee : employees) {
+                assertTrue(reader.hasNext());
+                assertEquals(employee.getUid(), reader.next().get("uid").toString());
+            }
+            assertFalse(reader.hasNext());
+        }
+    }
+
+    private Path write(final byte[] content) throws IOException {
+        Path path = folder.newFile().toPath();
+        Files.write(path, content);
+        return path;
+    }
+
+    private static byte[] content() {
+        byte[] content = new byte[FILE_SIZE];
+        for (int i = 0; i < FILE_SIZE; i++) {
+            content[i] = (byte) (i * 31 + 7);
+        }
+        return content;
+    }
+}